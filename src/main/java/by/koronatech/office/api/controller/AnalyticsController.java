@@ -0,0 +1,88 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.SalaryBandsDto;
+import by.koronatech.office.api.dto.SalaryBucketDto;
+import by.koronatech.office.api.dto.TopEarnersDto;
+import by.koronatech.office.core.service.AnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/analytics")
+@AllArgsConstructor
+@Tag(name = "Salary Analytics API", description = "Аналитика зарплат по снимку данных в памяти")
+public class AnalyticsController {
+
+    private final AnalyticsService analyticsService;
+
+    @GetMapping("/salary-histogram")
+    @Operation(summary = "Получить гистограмму зарплат",
+            description = "Делит диапазон зарплат на интервалы равной ширины и возвращает число сотрудников "
+                    + "в каждом. Можно ограничить компанией или отделом.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Интервалы гистограммы",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = SalaryBucketDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Некорректное число интервалов"),
+        @ApiResponse(responseCode = "404", description = "Компания или отдел не найдены"),
+        @ApiResponse(responseCode = "503", description = "Снимок данных ещё загружается")
+    })
+    public List<SalaryBucketDto> getSalaryHistogram(
+            @Parameter(description = "Число интервалов, от 1 до 1000")
+            @RequestParam(defaultValue = "20") int buckets,
+            @Parameter(description = "ID компании")
+            @RequestParam(required = false) Long companyId,
+            @Parameter(description = "ID отдела")
+            @RequestParam(required = false) Long departmentId) {
+        return analyticsService.getSalaryHistogram(buckets, companyId, departmentId);
+    }
+
+    @GetMapping("/top-earners")
+    @Operation(summary = "Получить самых высокооплачиваемых сотрудников компаний",
+            description = "Возвращает ID и зарплаты сотрудников с наибольшей зарплатой в каждой компании. "
+                    + "Данные сотрудников можно получить пакетным запросом по ID.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Сотрудники по компаниям",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = TopEarnersDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Некорректный лимит"),
+        @ApiResponse(responseCode = "404", description = "Компания не найдена"),
+        @ApiResponse(responseCode = "503", description = "Снимок данных ещё загружается")
+    })
+    public List<TopEarnersDto> getTopEarners(
+            @Parameter(description = "Число сотрудников на компанию, от 1 до 100")
+            @RequestParam(defaultValue = "10") int limit,
+            @Parameter(description = "ID компании")
+            @RequestParam(required = false) Long companyId) {
+        return analyticsService.getTopEarners(limit, companyId);
+    }
+
+    @GetMapping("/salary-bands")
+    @Operation(summary = "Получить распределение по зарплатным диапазонам",
+            description = "Считает сотрудников в каждом диапазоне между заданными границами "
+                    + "для каждого отдела или компании.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Число сотрудников по диапазонам",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = SalaryBandsDto.class))),
+        @ApiResponse(responseCode = "400", description = "Некорректные границы или группировка"),
+        @ApiResponse(responseCode = "503", description = "Снимок данных ещё загружается")
+    })
+    public SalaryBandsDto getSalaryBands(
+            @Parameter(description = "Границы диапазонов по возрастанию", required = true, example = "3000,6000,9000")
+            @RequestParam List<BigDecimal> bounds,
+            @Parameter(description = "Группировка: department или company")
+            @RequestParam(defaultValue = "department") String groupBy) {
+        return analyticsService.getSalaryBands(bounds, groupBy);
+    }
+}
@@ -0,0 +1,87 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.ChangeDto;
+import by.koronatech.office.api.dto.ChangePageDto;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.outbox.ChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+@AllArgsConstructor
+@Tag(name = "Change Feed API", description = "Лента изменений сотрудников, отделов и компаний")
+public class ChangeFeedController {
+
+    private final ChangeFeed changeFeed;
+
+    @GetMapping
+    @Operation(summary = "Получить изменения после номера",
+            description = "Возвращает изменения с номером больше after в порядке фиксации транзакций. "
+                    + "Если изменений еще нет, ждет до waitMs миллисекунд и возвращает пустую страницу. "
+                    + "Для продолжения передайте next как after. Без after чтение начинается с текущего "
+                    + "момента. Изменение содержит только тип и ID записи; актуальные данные получайте "
+                    + "запросом по списку ID.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Изменения и номер для следующего запроса",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ChangePageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Некорректные after, limit или waitMs"),
+        @ApiResponse(responseCode = "410", description = "Изменения после after уже удалены, "
+                + "данные нужно загрузить заново"),
+        @ApiResponse(responseCode = "503", description = "Слишком много ожидающих клиентов")
+    })
+    public DeferredResult<ChangePageDto> getChanges(
+            @Parameter(description = "Номер последнего обработанного изменения", example = "0")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Максимальное число изменений (до 1000)", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Сколько ждать новых изменений, мс (до 30000)", example = "25000")
+            @RequestParam(defaultValue = "0") long waitMs) {
+        return changeFeed.poll(after, limit, waitMs);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений (Server-Sent Events)",
+            description = "Отправляет каждое изменение с номером больше after событием change, "
+                    + "ID события - номер изменения. При переподключении с заголовком Last-Event-ID "
+                    + "поток продолжается с него.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Поток событий change",
+                content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                        schema = @Schema(implementation = ChangeDto.class))),
+        @ApiResponse(responseCode = "400", description = "Некорректный after или Last-Event-ID"),
+        @ApiResponse(responseCode = "410", description = "Изменения после after уже удалены, "
+                + "данные нужно загрузить заново"),
+        @ApiResponse(responseCode = "503", description = "Слишком много подключенных клиентов")
+    })
+    public SseEmitter streamChanges(
+            @Parameter(description = "Номер последнего обработанного изменения", example = "0")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Устанавливается браузером при переподключении")
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        // The header wins: it is the position the client actually reached on this stream
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            try {
+                after = Long.parseLong(lastEventId.trim());
+            } catch (NumberFormatException e) {
+                throw new HttpStatusException(400, "Last-Event-ID must be a change number, got " + lastEventId);
+            }
+        }
+        return changeFeed.stream(after);
+    }
+}
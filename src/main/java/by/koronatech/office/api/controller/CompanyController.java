@@ -1,8 +1,11 @@
 package by.koronatech.office.api.controller;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CompanyDto;
+import by.koronatech.office.api.dto.CompanyPatchDto;
 import by.koronatech.office.api.dto.CompanyReturnDto;
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.api.dto.PatchDto;
 import by.koronatech.office.core.service.CompanyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +22,7 @@ import java.math.BigDecimal;
 import java.util.List;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
@@ -33,12 +37,45 @@ public class CompanyController {
 
     @GetMapping
     @Operation(summary = "Получить список всех компаний",
-            description = "Возвращает список всех зарегистрированных компаний.")
+            description = "Возвращает список всех зарегистрированных компаний. "
+                    + "С параметром fields возвращаются только указанные поля.")
     @ApiResponse(responseCode = "200", description = "Список компаний успешно получен",
             content = @Content(mediaType = "application/json",
                     array = @ArraySchema(schema = @Schema(implementation = CompanyReturnDto.class))))
-    public List<CompanyReturnDto> getAllCompanies() {
-        return companyService.getAllCompanies();
+    @ApiResponse(responseCode = "400", description = "Неизвестное поле в fields")
+    public List<?> getAllCompanies(
+            @Parameter(description = "Поля ответа через запятую; id возвращается всегда. Без параметра - полный объект", example = "id,name")
+            @RequestParam(required = false) String fields) {
+        return fields == null ? companyService.getAllCompanies() : companyService.getAllCompanyFields(fields);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Получить компании по списку ID",
+            description = "Возвращает по элементу на каждый запрошенный ID в том же порядке. "
+                    + "Для несуществующих ID found=false. Для больших списков используйте POST /batch.")
+    @ApiResponse(responseCode = "200", description = "Компании в порядке запроса",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BatchItemDto.class))))
+    @ApiResponse(responseCode = "400", description = "Пустой список, больше 1000 ID или некорректный ID")
+    public List<BatchItemDto<CompanyReturnDto>> getCompaniesByIds(
+            @Parameter(description = "ID компаний", required = true, example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return companyService.getCompaniesByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Получить компании по списку ID в теле запроса",
+            description = "То же, что GET с параметром ids, для списков, не помещающихся в URL.")
+    @ApiResponse(responseCode = "200", description = "Компании в порядке запроса",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BatchItemDto.class))))
+    @ApiResponse(responseCode = "400", description = "Пустой список, больше 1000 ID или некорректный ID")
+    public List<BatchItemDto<CompanyReturnDto>> getCompaniesByIdsBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "ID компаний", required = true,
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class))))
+            @RequestBody List<Long> ids) {
+        return companyService.getCompaniesByIds(ids);
     }
 
     @GetMapping("/{id}")
@@ -89,6 +126,25 @@ public class CompanyController {
         return companyService.updateCompany(id, companyDto);
     }
 
+    @PatchMapping(value = "/{id}", consumes = {PatchDto.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Частично обновить компанию",
+            description = "JSON Merge Patch: изменяются только переданные поля, "
+                    + "в базу записываются только изменившиеся столбцы.")
+    @ApiResponse(responseCode = "200", description = "Компания успешно обновлена",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CompanyDto.class)))
+    @ApiResponse(responseCode = "400", description = "Некорректные данные или ID")
+    @ApiResponse(responseCode = "404", description = "Компания с указанным ID не найдена")
+    public CompanyDto patchCompany(
+            @Parameter(description = "ID компании для обновления", required = true, example = "1")
+            @PathVariable @Positive(message = "ID must be positive") Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Изменяемые поля компании", required = true,
+                    content = @Content(schema = @Schema(implementation = CompanyPatchDto.class)))
+            @RequestBody CompanyPatchDto patch) {
+        return companyService.patchCompany(id, patch);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Удалить компанию",
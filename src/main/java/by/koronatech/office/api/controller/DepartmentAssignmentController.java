@@ -0,0 +1,48 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.DepartmentAssignmentDto;
+import by.koronatech.office.api.dto.DepartmentAssignmentResultDto;
+import by.koronatech.office.core.service.DepartmentAssignmentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/departments")
+@AllArgsConstructor
+@Validated
+@Tag(name = "Department Assignment API", description = "Массовое распределение сотрудников по отделам")
+public class DepartmentAssignmentController {
+
+    private final DepartmentAssignmentService assignmentService;
+
+    @PostMapping("/assignments")
+    @Operation(summary = "Массово изменить состав отделов",
+            description = "ASSIGN добавляет сотрудников employeeIds в отдел toDepartmentId, "
+                    + "UNASSIGN убирает их из отдела fromDepartmentId, MOVE переводит из "
+                    + "fromDepartmentId в toDepartmentId. Без employeeIds UNASSIGN и MOVE "
+                    + "применяются ко всем сотрудникам отдела fromDepartmentId. Все изменения "
+                    + "выполняются в одной транзакции.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Количество добавленных и удаленных связей",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = DepartmentAssignmentResultDto.class))),
+        @ApiResponse(responseCode = "400",
+                description = "Не хватает отдела для операции, пустой список или больше 10000 ID"),
+        @ApiResponse(responseCode = "404", description = "Отдел не найден")
+    })
+    public DepartmentAssignmentResultDto reassign(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Операция, сотрудники и отделы", required = true,
+                    content = @Content(schema = @Schema(implementation = DepartmentAssignmentDto.class)))
+            @Valid @RequestBody DepartmentAssignmentDto request) {
+        return assignmentService.reassign(request);
+    }
+}
@@ -1,7 +1,12 @@
 package by.koronatech.office.api.controller;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.DepartmentDto;
+import by.koronatech.office.api.dto.DepartmentPatchDto;
 import by.koronatech.office.api.dto.DepartmentReturnDto;
+import by.koronatech.office.api.dto.DepartmentWithEmployeesDto;
+import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.api.dto.PatchDto;
 import by.koronatech.office.core.service.DepartmentService;
 import by.koronatech.office.core.service.impl.EmployeeServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,11 +18,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Positive;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -34,12 +39,47 @@ public class DepartmentController {
 
     @GetMapping
     @Operation(summary = "Получить список всех отделов",
-            description = "Возвращает список всех существующих отделов.")
+            description = "Возвращает список всех существующих отделов. "
+                    + "С параметром fields возвращаются только указанные поля, "
+                    + "а компания читается только если запрошена.")
     @ApiResponse(responseCode = "200", description = "Список отделов успешно получен",
             content = @Content(mediaType = "application/json",
                     array = @ArraySchema(schema = @Schema(implementation = DepartmentReturnDto.class))))
-    public List<DepartmentReturnDto> getAllDepartments() {
-        return departmentService.getAllDepartments();
+    @ApiResponse(responseCode = "400", description = "Неизвестное поле в fields")
+    public List<?> getAllDepartments(
+            @Parameter(description = "Поля ответа через запятую; id возвращается всегда. Без параметра - полный объект", example = "id,name")
+            @RequestParam(required = false) String fields) {
+        return fields == null ? departmentService.getAllDepartments()
+                : departmentService.getAllDepartmentFields(fields);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Получить отделы по списку ID",
+            description = "Возвращает по элементу на каждый запрошенный ID в том же порядке. "
+                    + "Для несуществующих ID found=false. Для больших списков используйте POST /batch.")
+    @ApiResponse(responseCode = "200", description = "Отделы в порядке запроса",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BatchItemDto.class))))
+    @ApiResponse(responseCode = "400", description = "Пустой список, больше 1000 ID или некорректный ID")
+    public List<BatchItemDto<DepartmentReturnDto>> getDepartmentsByIds(
+            @Parameter(description = "ID отделов", required = true, example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return departmentService.getDepartmentsByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Получить отделы по списку ID в теле запроса",
+            description = "То же, что GET с параметром ids, для списков, не помещающихся в URL.")
+    @ApiResponse(responseCode = "200", description = "Отделы в порядке запроса",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BatchItemDto.class))))
+    @ApiResponse(responseCode = "400", description = "Пустой список, больше 1000 ID или некорректный ID")
+    public List<BatchItemDto<DepartmentReturnDto>> getDepartmentsByIdsBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "ID отделов", required = true,
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class))))
+            @RequestBody List<Long> ids) {
+        return departmentService.getDepartmentsByIds(ids);
     }
 
     @GetMapping("/{id}")
@@ -62,21 +102,15 @@ public class DepartmentController {
     @ApiResponse(responseCode = "200",
             description = "Список отделов с сотрудниками успешно получен",
             content = @Content(mediaType = "application/json",
-                    schema = @Schema(type = "array",
-                            example = "[{\"department\": {\"id\": 1, \"company\": \"TechCorp\", \"name\": \"IT\"}, "
-                                    + "\"employees\": [{\"id\": 101, \"name\": \"John Doe\"}]}]")))
+                    array = @ArraySchema(schema = @Schema(implementation = DepartmentWithEmployeesDto.class))))
     @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера")
-    public ResponseEntity<List<Map<String, Object>>> getAllDepartmentsWithEmployees() {
+    public ResponseEntity<List<DepartmentWithEmployeesDto>> getAllDepartmentsWithEmployees() {
         try {
             List<DepartmentReturnDto> departments = departmentService.getAllDepartments();
-            List<Map<String, Object>> result = departments.stream()
-                    .map(dept -> {
-                        Map<String, Object> deptWithEmployees = new HashMap<>();
-                        deptWithEmployees.put("department", dept);
-                        deptWithEmployees.put("employees",
-                                employeeService.findAllEmployeesByDepartment(dept.getName()));
-                        return deptWithEmployees;
-                    })
+            Map<Long, List<EmployeeDto>> employees = employeeService.findAllEmployeesByDepartmentId();
+            List<DepartmentWithEmployeesDto> result = departments.stream()
+                    .map(dept -> new DepartmentWithEmployeesDto(dept,
+                            employees.getOrDefault(dept.getId(), List.of())))
                     .toList();
             return ResponseEntity.ok(result);
         } catch (Exception e) {
@@ -119,6 +153,25 @@ public class DepartmentController {
         return departmentService.updateDepartment(id, departmentDto);
     }
 
+    @PatchMapping(value = "/{id}", consumes = {PatchDto.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Частично обновить отдел",
+            description = "JSON Merge Patch: изменяются только переданные поля. Компания ищется "
+                    + "только если передано новое название компании.")
+    @ApiResponse(responseCode = "200", description = "Отдел успешно обновлен",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = DepartmentDto.class)))
+    @ApiResponse(responseCode = "400", description = "Некорректные данные или ID")
+    @ApiResponse(responseCode = "404", description = "Отдел или компания не найдены")
+    public DepartmentDto patchDepartment(
+            @Parameter(description = "ID отдела для обновления", required = true, example = "1")
+            @PathVariable @Positive(message = "ID must be positive") Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Изменяемые поля отдела", required = true,
+                    content = @Content(schema = @Schema(implementation = DepartmentPatchDto.class)))
+            @RequestBody DepartmentPatchDto patch) {
+        return departmentService.patchDepartment(id, patch);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Удалить отдел",
@@ -1,8 +1,14 @@
 package by.koronatech.office.api.controller;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CreateEmployeeDto;
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.api.dto.EmployeePageDto;
+import by.koronatech.office.api.dto.EmployeePatchDto;
+import by.koronatech.office.api.dto.MembershipPageDto;
+import by.koronatech.office.api.dto.PatchDto;
 import by.koronatech.office.api.dto.UpdateDto;
+import by.koronatech.office.core.repository.EmployeeFilter;
 import by.koronatech.office.core.service.impl.EmployeeServiceImpl;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,10 +21,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -34,18 +42,57 @@ public class EmployeeController {
 
     @GetMapping
     @Operation(summary = "Получить список всех сотрудников",
-            description = "Возвращает список всех зарегистрированных сотрудников.")
+            description = "Возвращает список всех зарегистрированных сотрудников. "
+                    + "С параметром fields возвращаются только указанные поля, "
+                    + "а неуказанные не читаются из базы.")
     @ApiResponse(responseCode = "200", description = "Список сотрудников успешно получен",
             content = @Content(mediaType = "application/json",
                     array = @ArraySchema(schema = @Schema(implementation = EmployeeDto.class))))
-    public List<EmployeeDto> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    @ApiResponse(responseCode = "400", description = "Неизвестное поле в fields")
+    public List<?> getAllEmployees(
+            @Parameter(description = "Поля ответа через запятую; id возвращается всегда. Без параметра - полный объект", example = "id,name")
+            @RequestParam(required = false) String fields) {
+        return fields == null ? employeeService.getAllEmployees() : employeeService.getAllEmployeeFields(fields);
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Получить сотрудников по списку ID",
+            description = "Возвращает по элементу на каждый запрошенный ID в том же порядке. "
+                    + "Для несуществующих ID found=false. Для больших списков используйте POST /batch.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Сотрудники в порядке запроса",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = BatchItemDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Пустой список, больше 1000 ID или некорректный ID")
+    })
+    public List<BatchItemDto<EmployeeDto>> findEmployeesByIds(
+            @Parameter(description = "ID сотрудников", required = true, example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        return employeeService.findEmployeesByIds(ids);
+    }
+
+    @PostMapping("/batch")
+    @Operation(summary = "Получить сотрудников по списку ID в теле запроса",
+            description = "То же, что GET с параметром ids, для списков, не помещающихся в URL.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Сотрудники в порядке запроса",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = BatchItemDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Пустой список, больше 1000 ID или некорректный ID")
+    })
+    public List<BatchItemDto<EmployeeDto>> findEmployeesByIdsBatch(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "ID сотрудников", required = true,
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = Long.class))))
+            @RequestBody List<Long> ids) {
+        return employeeService.findEmployeesByIds(ids);
     }
 
     @PostMapping("/bulk")
     @Operation(summary = "Массовое создание сотрудников",
             description = "Создает несколько сотрудников за один запрос. "
-                    + "Возвращает список успешно созданных сотрудников и ошибки валидации.")
+                    + "Возвращает список успешно созданных сотрудников и ошибки, "
+                    + "сгруппированные по индексу строки во входном списке.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Результаты обработки сотрудников",
                 content = @Content(mediaType = "application/json",
@@ -98,15 +145,93 @@ public class EmployeeController {
         return employeeService.findAllEmployeesByDepartment(department);
     }
 
+    @GetMapping("/filter")
+    @Operation(summary = "Фильтр сотрудников с постраничным выводом",
+            description = "Сочетает фильтры по зарплате, признаку руководителя, компании, отделам "
+                    + "и началу имени. Диапазон зарплаты допускается только с sort=salary, "
+                    + "начало имени - только с sort=name, вместе они не допускаются. "
+                    + "Следующая страница запрашивается по nextCursor.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Страница сотрудников",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = EmployeePageDto.class))),
+        @ApiResponse(responseCode = "400",
+                description = "Некорректные параметры, их недопустимое сочетание или курсор")
+    })
+    public EmployeePageDto<?> filterEmployees(
+            @Parameter(description = "Минимальная зарплата", example = "1000")
+            @RequestParam(required = false) BigDecimal minSalary,
+            @Parameter(description = "Максимальная зарплата", example = "5000")
+            @RequestParam(required = false) BigDecimal maxSalary,
+            @Parameter(description = "Только руководители (true) или только не руководители (false)")
+            @RequestParam(required = false) Boolean manager,
+            @Parameter(description = "ID компании", example = "1")
+            @RequestParam(required = false) Long companyId,
+            @Parameter(description = "ID отделов (сотрудник хотя бы в одном из них)", example = "1,2")
+            @RequestParam(required = false) List<Long> departmentIds,
+            @Parameter(description = "Начало имени без учета регистра", example = "Ив")
+            @RequestParam(required = false) String namePrefix,
+            @Parameter(description = "Сортировка: id, name или salary", example = "salary")
+            @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Сортировка по убыванию")
+            @RequestParam(defaultValue = "false") boolean desc,
+            @Parameter(description = "Размер страницы (до 100)", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Курсор следующей страницы из предыдущего ответа")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Поля ответа через запятую; id возвращается всегда. Без параметра - полный объект", example = "id,name")
+            @RequestParam(required = false) String fields) {
+        EmployeeFilter filter = EmployeeFilter.builder()
+                .minSalary(minSalary)
+                .maxSalary(maxSalary)
+                .manager(manager)
+                .companyId(companyId)
+                .departmentIds(departmentIds)
+                .namePrefix(namePrefix)
+                .descending(desc)
+                .limit(size)
+                .build();
+        return fields == null ? employeeService.filterEmployees(filter, sort, cursor)
+                : employeeService.filterEmployeeFields(filter, sort, cursor, fields);
+    }
+
+    @GetMapping("/membership")
+    @Operation(summary = "Найти сотрудников по составу отделов и компаний",
+            description = "Выражение над множествами сотрудников отделов и компаний, например "
+                    + "department:1 and department:2 and not department:3 или "
+                    + "company:1 and company:2. Операторы and (&), or (|), not (!) и скобки. "
+                    + "Сотрудники возвращаются по возрастанию ID, следующая страница "
+                    + "запрашивается по nextCursor.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Страница сотрудников и общее число совпадений",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = MembershipPageDto.class))),
+        @ApiResponse(responseCode = "400", description = "Некорректное выражение, размер страницы или курсор"),
+        @ApiResponse(responseCode = "503", description = "Индекс еще загружается")
+    })
+    public MembershipPageDto findByMembership(
+            @Parameter(description = "Выражение над отделами и компаниями", required = true,
+                    example = "department:1 and not company:2")
+            @RequestParam String expr,
+            @Parameter(description = "Размер страницы (до 100)", example = "50")
+            @RequestParam(defaultValue = "50") int limit,
+            @Parameter(description = "Курсор следующей страницы из предыдущего ответа")
+            @RequestParam(required = false) String cursor) {
+        return employeeService.findByMembership(expr, limit, cursor);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Обновить сотрудника",
-            description = "Обновляет данные сотрудника по его ID.")
+            description = "Обновляет данные сотрудника по его ID. Если передана version из "
+                    + "последнего ответа, обновление применяется только к этой версии.")
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Сотрудник успешно обновлен",
                 content = @Content(mediaType = "application/json",
                         schema = @Schema(implementation = EmployeeDto.class))),
         @ApiResponse(responseCode = "400", description = "Некорректные данные или ID"),
-        @ApiResponse(responseCode = "404", description = "Сотрудник с указанным ID не найден")
+        @ApiResponse(responseCode = "404", description = "Сотрудник с указанным ID не найден"),
+        @ApiResponse(responseCode = "409",
+                description = "Сотрудник уже изменен; в поле current - его текущее состояние и версия")
     })
     public EmployeeDto updateEmployee(
             @Parameter(description = "ID сотрудника", required = true, example = "1")
@@ -118,6 +243,29 @@ public class EmployeeController {
         return employeeService.updateEmployee(id, employeeDto);
     }
 
+    @PatchMapping(value = "/{id}", consumes = {PatchDto.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Частично обновить сотрудника",
+            description = "JSON Merge Patch: в UPDATE попадают только переданные поля. "
+                    + "Если передана version, обновление применяется только к этой версии.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Сотрудник успешно обновлен",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = EmployeeDto.class))),
+        @ApiResponse(responseCode = "400", description = "Некорректные данные или ID"),
+        @ApiResponse(responseCode = "404", description = "Сотрудник с указанным ID не найден"),
+        @ApiResponse(responseCode = "409",
+                description = "Сотрудник уже изменен; в поле current - его текущее состояние и версия")
+    })
+    public EmployeeDto patchEmployee(
+            @Parameter(description = "ID сотрудника", required = true, example = "1")
+            @PathVariable @Positive(message = "ID must be positive") Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Изменяемые поля сотрудника", required = true,
+                    content = @Content(schema = @Schema(implementation = EmployeePatchDto.class)))
+            @RequestBody EmployeePatchDto patch) {
+        return employeeService.patchEmployee(id, patch);
+    }
+
     @DeleteMapping("/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     @Operation(summary = "Удалить сотрудника",
@@ -148,4 +296,5 @@ public class EmployeeController {
             @PathVariable @Positive(message = "ID must be positive") Long id) {
         return employeeService.findEmployeeById(id);
     }
-}
\ No newline at end of file
+
+}
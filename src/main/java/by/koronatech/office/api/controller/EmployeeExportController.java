@@ -0,0 +1,46 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.core.service.EmployeeExportService;
+import by.koronatech.office.core.service.EmployeeExportService.Format;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/employee/export")
+@AllArgsConstructor
+@Tag(name = "Employee Export API", description = "Потоковая выгрузка всех сотрудников")
+public class EmployeeExportController {
+
+    private final EmployeeExportService exportService;
+
+    // Written synchronously so a long export is not cut off by the async request timeout
+    @GetMapping
+    @Operation(summary = "Выгрузить всех сотрудников",
+            description = "Передаёт всех сотрудников в формате CSV или NDJSON по мере чтения из базы, "
+                    + "не загружая таблицу в память. Количество одновременных выгрузок ограничено.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Файл выгрузки",
+                content = {@Content(mediaType = "text/csv"), @Content(mediaType = "application/x-ndjson")}),
+        @ApiResponse(responseCode = "400", description = "Неподдерживаемый формат"),
+        @ApiResponse(responseCode = "503", description = "Слишком много выгрузок выполняется одновременно")
+    })
+    public void export(
+            @Parameter(description = "Формат выгрузки: csv или ndjson")
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response) throws IOException {
+        Format exportFormat = Format.of(format);
+        response.setContentType(exportFormat.getContentType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"employees." + exportFormat.getExtension() + "\"");
+        exportService.export(exportFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,86 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.OrgNodeDto;
+import by.koronatech.office.api.dto.SupervisorDto;
+import by.koronatech.office.core.service.EmployeeHierarchyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/employee")
+@AllArgsConstructor
+@Validated
+@Tag(name = "Employee Hierarchy API", description = "Иерархия подчинения сотрудников")
+public class EmployeeHierarchyController {
+
+    private final EmployeeHierarchyService hierarchyService;
+
+    @PutMapping("/{id}/supervisor")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Назначить руководителя",
+            description = "Переводит сотрудника вместе со всеми его подчиненными под указанного "
+                    + "руководителя. Пустой supervisorId выводит сотрудника из подчинения.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "204", description = "Руководитель назначен"),
+        @ApiResponse(responseCode = "400", description = "Некорректный ID"),
+        @ApiResponse(responseCode = "404", description = "Сотрудник или руководитель не найден"),
+        @ApiResponse(responseCode = "409", description = "Руководитель сам подчинен этому сотруднику")
+    })
+    public void setSupervisor(
+            @Parameter(description = "ID сотрудника", required = true, example = "2")
+            @PathVariable @Positive(message = "ID must be positive") Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "ID нового руководителя", required = true,
+                    content = @Content(schema = @Schema(implementation = SupervisorDto.class)))
+            @Valid @RequestBody SupervisorDto supervisorDto) {
+        hierarchyService.setSupervisor(id, supervisorDto.getSupervisorId());
+    }
+
+    @GetMapping("/{id}/reports")
+    @Operation(summary = "Получить всех подчиненных",
+            description = "Возвращает прямых и косвенных подчиненных сотрудника одним запросом, "
+                    + "по уровню подчинения. supervisorId позволяет построить дерево.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Подчиненные сотрудника",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = OrgNodeDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Некорректный ID или глубина"),
+        @ApiResponse(responseCode = "404", description = "Сотрудник не найден")
+    })
+    public List<OrgNodeDto> findReports(
+            @Parameter(description = "ID сотрудника", required = true, example = "1")
+            @PathVariable @Positive(message = "ID must be positive") Long id,
+            @Parameter(description = "Максимальный уровень подчинения (1 - только прямые)", example = "2")
+            @RequestParam(required = false) Integer maxDepth) {
+        return hierarchyService.findReports(id, maxDepth);
+    }
+
+    @GetMapping("/{id}/chain")
+    @Operation(summary = "Получить цепочку руководителей",
+            description = "Возвращает руководителей сотрудника от непосредственного до верхнего уровня.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Цепочка руководителей",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = OrgNodeDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Некорректный ID"),
+        @ApiResponse(responseCode = "404", description = "Сотрудник не найден")
+    })
+    public List<OrgNodeDto> findChain(
+            @Parameter(description = "ID сотрудника", required = true, example = "5")
+            @PathVariable @Positive(message = "ID must be positive") Long id) {
+        return hierarchyService.findChain(id);
+    }
+}
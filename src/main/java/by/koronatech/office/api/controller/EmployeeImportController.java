@@ -0,0 +1,117 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.CreateEmployeeDto;
+import by.koronatech.office.api.dto.ImportJobDto;
+import by.koronatech.office.api.dto.ImportJobErrorDto;
+import by.koronatech.office.core.service.EmployeeImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+@RestController
+@RequestMapping("/api/employee/import")
+@AllArgsConstructor
+@Tag(name = "Employee Import API", description = "Асинхронный импорт сотрудников")
+public class EmployeeImportController {
+
+    private final EmployeeImportService importService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Запустить импорт сотрудников",
+            description = "Ставит список сотрудников в очередь на импорт и сразу возвращает задачу. "
+                    + "Строки сохраняются порциями, прогресс доступен по ID задачи.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Задача импорта создана",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "400", description = "Пустой список"),
+        @ApiResponse(responseCode = "503", description = "Очередь импорта заполнена")
+    })
+    public ImportJobDto submit(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Список данных для создания сотрудников", required = true,
+                    content = @Content(array = @ArraySchema(
+                            schema = @Schema(implementation = CreateEmployeeDto.class))))
+            @RequestBody List<CreateEmployeeDto> rows) {
+        return importService.submit(rows);
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Запустить импорт сотрудников из файла",
+            description = "Принимает JSON-файл со списком сотрудников и ставит его в очередь на импорт.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Задача импорта создана",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "400", description = "Файл пуст или не является JSON-массивом"),
+        @ApiResponse(responseCode = "503", description = "Очередь импорта заполнена")
+    })
+    public ImportJobDto submitFile(
+            @Parameter(description = "JSON-файл со списком сотрудников", required = true)
+            @RequestParam("file") MultipartFile file) {
+        return importService.submit(file);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Получить состояние импорта",
+            description = "Возвращает статус задачи, число обработанных и ошибочных строк и скорость.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Состояние задачи",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "404", description = "Задача не найдена")
+    })
+    public ImportJobDto getJob(
+            @Parameter(description = "ID задачи импорта", required = true)
+            @PathVariable String id) {
+        return importService.getJob(id);
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Отменить импорт",
+            description = "Останавливает задачу перед следующей порцией. Уже сохраненные строки остаются.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Состояние задачи после запроса отмены",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = ImportJobDto.class))),
+        @ApiResponse(responseCode = "404", description = "Задача не найдена")
+    })
+    public ImportJobDto cancel(
+            @Parameter(description = "ID задачи импорта", required = true)
+            @PathVariable String id) {
+        return importService.cancel(id);
+    }
+
+    @GetMapping("/{id}/errors")
+    @Operation(summary = "Получить отчет об ошибках импорта",
+            description = "Возвращает ошибки строк в порядке их номеров, постранично.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Ошибки импорта",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = ImportJobErrorDto.class)))),
+        @ApiResponse(responseCode = "400", description = "Некорректные параметры страницы"),
+        @ApiResponse(responseCode = "404", description = "Задача не найдена")
+    })
+    public List<ImportJobErrorDto> getErrors(
+            @Parameter(description = "ID задачи импорта", required = true)
+            @PathVariable String id,
+            @Parameter(description = "Номер страницы", example = "0")
+            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Размер страницы", example = "100")
+            @RequestParam(defaultValue = "100") int size) {
+        return importService.getErrors(id, page, size);
+    }
+}
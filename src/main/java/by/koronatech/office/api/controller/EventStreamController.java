@@ -0,0 +1,61 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.LogJobStatusDto;
+import by.koronatech.office.api.dto.VisitCountsDto;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.push.EventBroadcaster;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@AllArgsConstructor
+@Tag(name = "Event Stream API", description = "Уведомления о счетчиках посещений и задачах выгрузки логов")
+public class EventStreamController {
+
+    private final EventBroadcaster broadcaster;
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток уведомлений (Server-Sent Events)",
+            description = "Заменяет опрос счетчиков и статуса задач. Событие visits раз в интервал "
+                    + "содержит текущие значения и прирост счетчиков URL, посещенных за интервал. "
+                    + "Событие jobs приходит при смене статуса задачи выгрузки логов. Если клиент "
+                    + "не успевает читать, неотправленные события одного счетчика или задачи "
+                    + "объединяются, а при переполнении очереди приходит событие overflow с числом "
+                    + "потерянных событий - в этом случае значения нужно запросить заново.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Поток событий visits и jobs",
+                content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                        schema = @Schema(oneOf = {VisitCountsDto.class, LogJobStatusDto.class}))),
+        @ApiResponse(responseCode = "400", description = "Неизвестная тема"),
+        @ApiResponse(responseCode = "503", description = "Слишком много подключенных клиентов")
+    })
+    public SseEmitter stream(
+            @Parameter(description = "Темы через запятую: visits, jobs. Без параметра - все", example = "visits")
+            @RequestParam(required = false) List<String> topics) {
+        if (topics == null || topics.isEmpty()) {
+            return broadcaster.subscribe(EventBroadcaster.TOPICS);
+        }
+        for (String topic : topics) {
+            if (!EventBroadcaster.TOPICS.contains(topic)) {
+                throw new HttpStatusException(400, "Unknown topic: " + topic
+                        + ", expected one of " + EventBroadcaster.TOPICS);
+            }
+        }
+        return broadcaster.subscribe(Set.copyOf(topics));
+    }
+}
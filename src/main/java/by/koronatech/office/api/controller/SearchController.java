@@ -0,0 +1,43 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.SearchHitDto;
+import by.koronatech.office.core.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+@AllArgsConstructor
+@Tag(name = "Search API", description = "Поиск сотрудников, отделов и компаний по названию")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    @Operation(summary = "Поиск по имени",
+            description = "Подсказки при вводе: ищет сотрудников, отделы и компании по началу "
+                    + "названия, а если их меньше лимита - по нечеткому совпадению (запрос от 3 символов). "
+                    + "Совпадения по началу идут первыми.")
+    @ApiResponse(responseCode = "200", description = "Найденные записи, по убыванию релевантности",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = SearchHitDto.class))))
+    @ApiResponse(responseCode = "400", description = "Слишком короткий или длинный запрос, некорректный лимит")
+    public List<SearchHitDto> search(
+            @Parameter(description = "Строка поиска (от 2 символов)", required = true, example = "joh")
+            @RequestParam String q,
+            @Parameter(description = "Максимальное число результатов (до 50)", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        return searchService.searchByName(q, limit);
+    }
+}
@@ -0,0 +1,77 @@
+package by.koronatech.office.api.controller;
+
+import by.koronatech.office.api.dto.SalaryStatsDto;
+import by.koronatech.office.core.service.StatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/stats")
+@AllArgsConstructor
+@Tag(name = "Statistics API", description = "Численность и фонд оплаты труда по отделам и компаниям")
+public class StatsController {
+
+    private final StatsService statsService;
+
+    @GetMapping("/departments")
+    @Operation(summary = "Получить статистику всех отделов",
+            description = "Возвращает численность, число руководителей, сумму, среднее, минимум, максимум "
+                    + "и перцентили зарплат по каждому отделу. Перцентили приближённые (точность около 0.5%).")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Статистика отделов",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = SalaryStatsDto.class))))
+    })
+    public List<SalaryStatsDto> getDepartmentStats() {
+        return statsService.getDepartmentStats();
+    }
+
+    @GetMapping("/departments/{id}")
+    @Operation(summary = "Получить статистику отдела")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Статистика отдела",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = SalaryStatsDto.class))),
+        @ApiResponse(responseCode = "404", description = "Отдел не найден")
+    })
+    public SalaryStatsDto getDepartmentStats(
+            @Parameter(description = "ID отдела", required = true)
+            @PathVariable Long id) {
+        return statsService.getDepartmentStats(id);
+    }
+
+    @GetMapping("/companies")
+    @Operation(summary = "Получить статистику всех компаний",
+            description = "То же, что для отделов; сотрудник нескольких отделов компании учитывается один раз.")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Статистика компаний",
+                content = @Content(mediaType = "application/json",
+                        array = @ArraySchema(schema = @Schema(implementation = SalaryStatsDto.class))))
+    })
+    public List<SalaryStatsDto> getCompanyStats() {
+        return statsService.getCompanyStats();
+    }
+
+    @GetMapping("/companies/{id}")
+    @Operation(summary = "Получить статистику компании")
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Статистика компании",
+                content = @Content(mediaType = "application/json",
+                        schema = @Schema(implementation = SalaryStatsDto.class))),
+        @ApiResponse(responseCode = "404", description = "Компания не найдена")
+    })
+    public SalaryStatsDto getCompanyStats(
+            @Parameter(description = "ID компании", required = true)
+            @PathVariable Long id) {
+        return statsService.getCompanyStats(id);
+    }
+}
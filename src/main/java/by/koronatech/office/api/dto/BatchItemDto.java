@@ -0,0 +1,18 @@
+package by.koronatech.office.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/** One position of a batch lookup: the requested ID and its entity, or found=false. */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemDto<T> {
+
+    private Long id;
+    private boolean found;
+    private T item;
+}
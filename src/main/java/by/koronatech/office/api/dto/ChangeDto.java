@@ -0,0 +1,24 @@
+package by.koronatech.office.api.dto;
+
+import by.koronatech.office.core.model.OutboxEvent;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeDto {
+
+    // Position in the feed; pass the last one processed as after to continue
+    private long seq;
+    private OutboxEvent.EntityType entityType;
+    private Long entityId;
+    private OutboxEvent.Operation operation;
+    private Instant createdAt;
+}
@@ -0,0 +1,20 @@
+package by.koronatech.office.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangePageDto {
+
+    private List<ChangeDto> items;
+    // after for the next request: the last seq returned, or the same after when none were
+    private long next;
+}
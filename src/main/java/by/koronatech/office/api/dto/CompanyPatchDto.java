@@ -0,0 +1,25 @@
+package by.koronatech.office.api.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class CompanyPatchDto extends PatchDto {
+
+    public static final String NAME = "name";
+    public static final String LOCATION = "location";
+
+    private String name;
+    private String location;
+
+    public void setName(String name) {
+        this.name = name;
+        mark(NAME);
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+        mark(LOCATION);
+    }
+}
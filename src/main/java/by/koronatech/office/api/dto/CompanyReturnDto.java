@@ -5,6 +5,7 @@ import lombok.*;
 @Setter
 @Getter
 @AllArgsConstructor
+@NoArgsConstructor
 public class CompanyReturnDto {
     private Long id;
     private String name;
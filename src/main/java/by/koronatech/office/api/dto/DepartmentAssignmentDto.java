@@ -0,0 +1,40 @@
+package by.koronatech.office.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentAssignmentDto {
+
+    public enum Operation {
+        // Adds the employees to toDepartmentId
+        ASSIGN,
+        // Removes the employees from fromDepartmentId
+        UNASSIGN,
+        // Moves the employees of fromDepartmentId to toDepartmentId
+        MOVE
+    }
+
+    @NotNull(message = "Operation cannot be null")
+    private Operation operation;
+
+    // Null for UNASSIGN and MOVE means every member of fromDepartmentId
+    private List<@NotNull(message = "Employee ID cannot be null")
+            @Positive(message = "Employee ID must be positive") Long> employeeIds;
+
+    @Positive(message = "Department ID must be positive")
+    private Long fromDepartmentId;
+
+    @Positive(message = "Department ID must be positive")
+    private Long toDepartmentId;
+}
@@ -0,0 +1,22 @@
+package by.koronatech.office.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DepartmentAssignmentResultDto {
+
+    private DepartmentAssignmentDto.Operation operation;
+    // Memberships inserted into and deleted from employee_department
+    private int added;
+    private int removed;
+    // Distinct employees whose departments changed
+    private int employees;
+}
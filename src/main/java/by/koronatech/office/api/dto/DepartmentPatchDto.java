@@ -0,0 +1,26 @@
+package by.koronatech.office.api.dto;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class DepartmentPatchDto extends PatchDto {
+
+    public static final String COMPANY = "company";
+    public static final String NAME = "name";
+
+    // Company name, as in DepartmentDto
+    private String company;
+    private String name;
+
+    public void setCompany(String company) {
+        this.company = company;
+        mark(COMPANY);
+    }
+
+    public void setName(String name) {
+        this.name = name;
+        mark(NAME);
+    }
+}
@@ -5,6 +5,7 @@ import lombok.*;
 @Setter
 @Getter
 @AllArgsConstructor
+@NoArgsConstructor
 public class DepartmentReturnDto {
     private Long id;
     private String company;
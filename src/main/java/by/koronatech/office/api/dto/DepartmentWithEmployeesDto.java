@@ -0,0 +1,16 @@
+package by.koronatech.office.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class DepartmentWithEmployeesDto {
+    private DepartmentReturnDto department;
+    private List<EmployeeDto> employees;
+}
@@ -0,0 +1,19 @@
+package by.koronatech.office.api.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EarnerDto {
+
+    private Long employeeId;
+    private BigDecimal salary;
+}
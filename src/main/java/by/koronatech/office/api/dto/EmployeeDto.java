@@ -2,14 +2,18 @@ package by.koronatech.office.api.dto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 
 @Getter
 @Setter
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class EmployeeDto {
 
     private Long id;
@@ -17,4 +21,7 @@ public class EmployeeDto {
     private BigDecimal salary;
     private List<String> departmentNames;
     private boolean manager;
+    private Long supervisorId;
+    // Pass back in UpdateDto to update only this version
+    private Long version;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package by.koronatech.office.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeePageDto<T> {
+
+    // EmployeeDto, or a map of the requested fields when fields= is given
+    private List<T> items;
+    // Pass as cursor to get the next page; null on the last page
+    private String nextCursor;
+}
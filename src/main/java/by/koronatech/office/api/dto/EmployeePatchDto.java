@@ -0,0 +1,40 @@
+package by.koronatech.office.api.dto;
+
+import java.math.BigDecimal;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+public class EmployeePatchDto extends PatchDto {
+
+    public static final String NAME = "name";
+    public static final String SALARY = "salary";
+    public static final String MANAGER = "manager";
+
+    private String name;
+    private BigDecimal salary;
+    private Boolean manager;
+
+    // Not a field to change: when set, the patch applies only to this version
+    private Long version;
+
+    public void setName(String name) {
+        this.name = name;
+        mark(NAME);
+    }
+
+    public void setSalary(BigDecimal salary) {
+        this.salary = salary;
+        mark(SALARY);
+    }
+
+    public void setManager(Boolean manager) {
+        this.manager = manager;
+        mark(MANAGER);
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
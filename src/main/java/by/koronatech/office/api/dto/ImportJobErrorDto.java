@@ -0,0 +1,17 @@
+package by.koronatech.office.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobErrorDto {
+
+    private int row;
+    private String field;
+    private String message;
+}
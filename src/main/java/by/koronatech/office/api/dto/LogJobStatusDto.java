@@ -0,0 +1,19 @@
+package by.koronatech.office.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LogJobStatusDto {
+
+    private String id;
+    // PROCESSING, CREATED or FAILED
+    private String status;
+}
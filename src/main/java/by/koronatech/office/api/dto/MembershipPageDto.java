@@ -0,0 +1,22 @@
+package by.koronatech.office.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MembershipPageDto {
+
+    // Number of employees matching the expression, over all pages
+    private long total;
+    private List<EmployeeDto> items;
+    // Pass as cursor to get the next page; null on the last page
+    private String nextCursor;
+}
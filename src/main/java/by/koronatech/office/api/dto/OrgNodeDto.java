@@ -0,0 +1,21 @@
+package by.koronatech.office.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrgNodeDto {
+
+    private Long id;
+    private String name;
+    private Long supervisorId;
+    // Distance from the employee the query started at
+    private int depth;
+}
@@ -0,0 +1,31 @@
+package by.koronatech.office.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Base of the JSON Merge Patch (RFC 7396) bodies. Jackson only calls the setters of the
+ * properties present in the document, so the setters record which fields were sent:
+ * an absent field is left unchanged, while an explicit null is a request to clear it.
+ */
+public abstract class PatchDto {
+
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    @JsonIgnore
+    private final Set<String> present = new HashSet<>();
+
+    protected void mark(String field) {
+        present.add(field);
+    }
+
+    public boolean has(String field) {
+        return present.contains(field);
+    }
+
+    @JsonIgnore
+    public boolean isEmpty() {
+        return present.isEmpty();
+    }
+}
@@ -0,0 +1,24 @@
+package by.koronatech.office.api.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalaryBandsDto {
+
+    private String groupBy;
+    // Band 0 is below the first bound and the last band is at or above the last one
+    private List<BigDecimal> bounds;
+    // Employee count per band, by department or company ID; groups without employees are left out
+    private Map<Long, List<Long>> counts;
+}
@@ -0,0 +1,21 @@
+package by.koronatech.office.api.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalaryBucketDto {
+
+    // Inclusive lower and exclusive upper bound
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+}
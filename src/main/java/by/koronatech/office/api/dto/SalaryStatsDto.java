@@ -0,0 +1,28 @@
+package by.koronatech.office.api.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalaryStatsDto {
+
+    private Long id;
+    private long headcount;
+    private long managerCount;
+    private BigDecimal totalSalary;
+    private BigDecimal averageSalary;
+    private BigDecimal minSalary;
+    private BigDecimal maxSalary;
+    private BigDecimal medianSalary;
+    private BigDecimal p90Salary;
+    private BigDecimal p95Salary;
+    private BigDecimal p99Salary;
+}
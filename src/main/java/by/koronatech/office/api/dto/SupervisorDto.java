@@ -0,0 +1,16 @@
+package by.koronatech.office.api.dto;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+public class SupervisorDto {
+
+    // Null removes the employee (with their reports) from under the current supervisor
+    @Positive(message = "Supervisor ID must be positive")
+    private Long supervisorId;
+}
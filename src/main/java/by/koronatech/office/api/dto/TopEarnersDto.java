@@ -0,0 +1,19 @@
+package by.koronatech.office.api.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TopEarnersDto {
+
+    private Long companyId;
+    private List<EarnerDto> earners;
+}
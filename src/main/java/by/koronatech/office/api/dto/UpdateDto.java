@@ -23,4 +23,8 @@ public class UpdateDto {
     private BigDecimal salary;
 
     private boolean manager = false; // Default value
+
+    // Version from the last read; when set, the update fails with 409 if the employee has
+    // changed since. Without it the last write wins
+    private Long version;
 }
\ No newline at end of file
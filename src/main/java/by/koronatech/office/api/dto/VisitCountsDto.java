@@ -0,0 +1,21 @@
+package by.koronatech.office.api.dto;
+
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitCountsDto {
+
+    // Current count of every URL visited since the previous event
+    private Map<String, Long> counts;
+    // Visits of each of those URLs since the previous event
+    private Map<String, Long> deltas;
+}
@@ -0,0 +1,280 @@
+package by.koronatech.office.core.analytics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Employees stored column by column: one row per employee in primitive arrays, salaries as
+ * cents in a long and departments as ordinals into small dimension arrays. Rows loaded
+ * together are in id order and found by binary search; rows added later are appended and
+ * found through a small index until the next rebuild. Departments and companies that no
+ * longer exist keep their ordinals but are unknown to lookups and belong to no row.
+ * Not thread-safe.
+ */
+public final class EmployeeColumns {
+
+    public static final long NO_SALARY = Long.MIN_VALUE;
+
+    private static final int[] NO_DEPARTMENTS = new int[0];
+
+    private int size;
+    // Rows [0, sortedSize) are in ascending id order
+    private int sortedSize;
+    private long[] ids;
+    private long[] salaries;
+    private final BitSet managers = new BitSet();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+
+    // Department ordinals of row r are members[memberStart[r] .. memberStart[r + 1])
+    private int[] memberStart;
+    private int[] members;
+    private int memberCount;
+    // Rows whose departments changed after they were stored
+    private final BitSet moved = new BitSet();
+    private final Map<Integer, int[]> movedMembers = new HashMap<>();
+    private final Map<Long, Integer> appendedRows = new HashMap<>();
+
+    private final Map<Long, Integer> departmentOrdinals = new HashMap<>();
+    private long[] departmentIds = new long[16];
+    private int[] departmentCompanies = new int[16];
+    private int departmentCount;
+    private final BitSet removedDepartments = new BitSet();
+    private final Map<Long, Integer> companyOrdinals = new HashMap<>();
+    private long[] companyIds = new long[16];
+    private int companyCount;
+    private final BitSet removedCompanies = new BitSet();
+
+    public EmployeeColumns(int expectedRows) {
+        int capacity = Math.max(expectedRows, 16);
+        this.ids = new long[capacity];
+        this.salaries = new long[capacity];
+        this.memberStart = new int[capacity + 1];
+        this.members = new int[capacity];
+    }
+
+    /** Converts a salary to cents; values beyond the long range are clamped to it. */
+    public static long toCents(BigDecimal salary) {
+        if (salary == null) {
+            return NO_SALARY;
+        }
+        BigInteger cents = salary.movePointRight(2).setScale(0, RoundingMode.HALF_UP).toBigInteger();
+        return cents.bitLength() < 64 ? cents.longValue()
+                : cents.signum() > 0 ? Long.MAX_VALUE : NO_SALARY + 1;
+    }
+
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public int company(long companyId) {
+        Integer ordinal = companyOrdinals.get(companyId);
+        if (ordinal != null) {
+            removedCompanies.clear(ordinal);
+            return ordinal;
+        }
+        if (companyCount == companyIds.length) {
+            companyIds = Arrays.copyOf(companyIds, companyCount * 2);
+        }
+        companyIds[companyCount] = companyId;
+        companyOrdinals.put(companyId, companyCount);
+        return companyCount++;
+    }
+
+    /** Adds a department or moves it to another company; returns its ordinal. */
+    public int department(long departmentId, long companyId) {
+        int company = company(companyId);
+        Integer ordinal = departmentOrdinals.get(departmentId);
+        if (ordinal != null) {
+            departmentCompanies[ordinal] = company;
+            removedDepartments.clear(ordinal);
+            return ordinal;
+        }
+        if (departmentCount == departmentIds.length) {
+            departmentIds = Arrays.copyOf(departmentIds, departmentCount * 2);
+            departmentCompanies = Arrays.copyOf(departmentCompanies, departmentCount * 2);
+        }
+        departmentIds[departmentCount] = departmentId;
+        departmentCompanies[departmentCount] = company;
+        departmentOrdinals.put(departmentId, departmentCount);
+        return departmentCount++;
+    }
+
+    /**
+     * Makes the departments and companies match the given ones: adds new ones, moves
+     * departments to their current company and removes the rest, together with every
+     * row's membership in a removed department.
+     */
+    public void syncDimensions(Map<Long, Long> companyByDepartment, Collection<Long> companies) {
+        companies.forEach(this::company);
+        companyByDepartment.forEach(this::department);
+        BitSet gone = new BitSet();
+        for (int ordinal = 0; ordinal < departmentCount; ordinal++) {
+            if (!companyByDepartment.containsKey(departmentIds[ordinal]) && !removedDepartments.get(ordinal)) {
+                gone.set(ordinal);
+            }
+        }
+        for (int ordinal = 0; ordinal < companyCount; ordinal++) {
+            if (!companies.contains(companyIds[ordinal])) {
+                removedCompanies.set(ordinal);
+            }
+        }
+        if (gone.isEmpty()) {
+            return;
+        }
+        removedDepartments.or(gone);
+        for (int row = 0; row < size; row++) {
+            int count = departmentCount(row);
+            for (int i = 0; i < count; i++) {
+                if (gone.get(department(row, i))) {
+                    int[] kept = Arrays.stream(departmentsOf(row))
+                            .filter(department -> !gone.get(department)).toArray();
+                    moved.set(row);
+                    movedMembers.put(row, kept);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Ordinal of a known department, or -1. */
+    public int departmentOrdinal(long departmentId) {
+        Integer ordinal = departmentOrdinals.get(departmentId);
+        return ordinal != null && !removedDepartments.get(ordinal) ? ordinal : -1;
+    }
+
+    /** Ordinal of a known company, or -1. */
+    public int companyOrdinal(long companyId) {
+        Integer ordinal = companyOrdinals.get(companyId);
+        return ordinal != null && !removedCompanies.get(ordinal) ? ordinal : -1;
+    }
+
+    /** Adds a row while loading; rows must come in ascending id order. */
+    public void load(long id, long salary, boolean manager, int[] departments) {
+        append(id, salary, manager, departments);
+        sortedSize = size;
+    }
+
+    /** Stores the current state of an employee, adding a row when it is new. */
+    public void upsert(long id, long salary, boolean manager, int[] departments) {
+        int row = row(id);
+        if (row < 0) {
+            appendedRows.put(id, size);
+            append(id, salary, manager, departments);
+            return;
+        }
+        salaries[row] = salary;
+        managers.set(row, manager);
+        if (!Arrays.equals(departments, departmentsOf(row))) {
+            moved.set(row);
+            movedMembers.put(row, departments);
+        }
+    }
+
+    public void delete(long id) {
+        int row = row(id);
+        if (row >= 0) {
+            deleted.set(row);
+            deletedCount++;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int liveCount() {
+        return size - deletedCount;
+    }
+
+    public int deletedCount() {
+        return deletedCount;
+    }
+
+    public boolean isLive(int row) {
+        return !deleted.get(row);
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    public long salary(int row) {
+        return salaries[row];
+    }
+
+    public boolean isManager(int row) {
+        return managers.get(row);
+    }
+
+    public int departmentCount(int row) {
+        return moved.get(row) ? movedMembers.get(row).length : memberStart[row + 1] - memberStart[row];
+    }
+
+    public int department(int row, int index) {
+        return moved.get(row) ? movedMembers.get(row)[index] : members[memberStart[row] + index];
+    }
+
+    public int departmentCompany(int departmentOrdinal) {
+        return departmentCompanies[departmentOrdinal];
+    }
+
+    public int departments() {
+        return departmentCount;
+    }
+
+    public int companies() {
+        return companyCount;
+    }
+
+    public long departmentId(int ordinal) {
+        return departmentIds[ordinal];
+    }
+
+    public long companyId(int ordinal) {
+        return companyIds[ordinal];
+    }
+
+    private int row(long id) {
+        int row = Arrays.binarySearch(ids, 0, sortedSize, id);
+        if (row >= 0) {
+            return deleted.get(row) ? -1 : row;
+        }
+        Integer appended = appendedRows.get(id);
+        return appended != null && !deleted.get(appended) ? appended : -1;
+    }
+
+    private int[] departmentsOf(int row) {
+        if (moved.get(row)) {
+            return movedMembers.get(row);
+        }
+        return memberStart[row + 1] == memberStart[row] ? NO_DEPARTMENTS
+                : Arrays.copyOfRange(members, memberStart[row], memberStart[row + 1]);
+    }
+
+    private void append(long id, long salary, boolean manager, int[] departments) {
+        if (size == ids.length) {
+            int capacity = size + (size >> 1);
+            ids = Arrays.copyOf(ids, capacity);
+            salaries = Arrays.copyOf(salaries, capacity);
+            memberStart = Arrays.copyOf(memberStart, capacity + 1);
+        }
+        if (memberCount + departments.length > members.length) {
+            members = Arrays.copyOf(members, Math.max(memberCount + departments.length,
+                    members.length + (members.length >> 1)));
+        }
+        ids[size] = id;
+        salaries[size] = salary;
+        managers.set(size, manager);
+        System.arraycopy(departments, 0, members, memberCount, departments.length);
+        memberCount += departments.length;
+        memberStart[size + 1] = memberCount;
+        size++;
+    }
+}
@@ -0,0 +1,61 @@
+package by.koronatech.office.core.aop;
+
+import by.koronatech.office.core.cache.DataVersion;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Aspect
+@Component
+public class DataChangeAspect {
+
+    private final DataVersion dataVersion;
+
+    public DataChangeAspect(DataVersion dataVersion) {
+        this.dataVersion = dataVersion;
+    }
+
+    @Pointcut("target(by.koronatech.office.core.repository.CompanyRepository) "
+            + "|| target(by.koronatech.office.core.repository.DepartmentRepository) "
+            + "|| target(by.koronatech.office.core.repository.EmployeeRepository) "
+            + "|| target(by.koronatech.office.core.repository.EmployeeHierarchyRepository)")
+    void dataRepository() {
+    }
+
+    // Repository+ is needed: without a declaring type the pattern never matches the
+    // inherited CrudRepository methods of the Spring Data proxies
+    @After("dataRepository() && (execution(* org.springframework.data.repository.Repository+.save*(..)) "
+            + "|| execution(* org.springframework.data.repository.Repository+.delete*(..)))")
+    public void onSaveOrDelete() {
+        onWrite();
+    }
+
+    @After("dataRepository() && @annotation(org.springframework.data.jpa.repository.Modifying)")
+    public void onModifyingQuery() {
+        onWrite();
+    }
+
+    // Custom repository fragments that write with their own statements
+    @After("dataRepository() && (execution(* by.koronatech.office.core.repository.EmployeeUpdateRepository.*(..)) "
+            + "|| execution(* by.koronatech.office.core.repository.EmployeeMembershipRepository.*(..)))")
+    public void onCustomWrite() {
+        onWrite();
+    }
+
+    // Bumped after the statement so readers recompute early, and again once the transaction
+    // ends: a read made in between still saw the old rows and must not outlive the commit
+    private void onWrite() {
+        dataVersion.bump();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    dataVersion.bump();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package by.koronatech.office.core.aop;
+
+import by.koronatech.office.core.cache.ResponseCache;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Outermost advice, so the second invalidation runs after the write's transaction has committed
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ResponseCacheInvalidationAspect {
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheInvalidationAspect(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Around("execution(* by.koronatech.office.core.service.CompanyService.createCompany(..)) "
+            + "|| execution(* by.koronatech.office.core.service.CompanyService.updateCompany(..)) "
+            + "|| execution(* by.koronatech.office.core.service.CompanyService.patchCompany(..)) "
+            + "|| execution(* by.koronatech.office.core.service.CompanyService.deleteCompany(..)) "
+            + "|| execution(* by.koronatech.office.core.service.DepartmentService.createDepartment(..)) "
+            + "|| execution(* by.koronatech.office.core.service.DepartmentService.updateDepartment(..)) "
+            + "|| execution(* by.koronatech.office.core.service.DepartmentService.patchDepartment(..)) "
+            + "|| execution(* by.koronatech.office.core.service.DepartmentService.deleteDepartment(..))")
+    public Object invalidate(ProceedingJoinPoint joinPoint) throws Throwable {
+        // Before: stops responses read before the write from being stored while it runs.
+        // After: drops anything stored while it was still uncommitted.
+        responseCache.invalidateAll();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            responseCache.invalidateAll();
+        }
+    }
+}
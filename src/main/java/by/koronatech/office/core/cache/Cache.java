@@ -1,41 +1,131 @@
 package by.koronatech.office.core.cache;
 
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.core.datasource.RoutingContext;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Employee DTOs by ID. Each entry remembers the {@link DataVersion} it was read at and is
+ * only returned while that is still current, so any company, department or employee write
+ * makes every cached entry stale without tracking which ones it touched. Writes on other
+ * instances do not bump the version, so entries also expire after a TTL.
+ * Requests pinned to the primary skip the cache, and a row read from a replica shortly
+ * after a write is not cached, since the replica may not have the write yet.
+ */
 @Component
 public class Cache {
 
-    private final Map<Long, EmployeeDto> employeeCache;
+    private final Map<Long, Entry> employeeCache;
+    private final DataVersion dataVersion;
+    private final long ttlMs;
+    private final long replicaLagWindowMs;
+
+    // Access-ordered LinkedHashMap mutates on get(), so every access is guarded.
+    // A lock rather than synchronized keeps virtual threads from pinning their carrier.
+    private final ReentrantLock lock = new ReentrantLock();
 
     private final Logger logger = LoggerFactory.getLogger(this.getClass());
 
-    public Cache(@Value("${cache.employee.capacity:10}") int capacity) {
+    public Cache(@Value("${cache.employee.capacity:10}") int capacity,
+                 @Value("${cache.employee.ttl-ms:60000}") long ttlMs,
+                 @Value("${app.datasource.replicas.sticky-ms:5000}") long replicaLagWindowMs,
+                 DataVersion dataVersion) {
+        this.dataVersion = dataVersion;
+        this.ttlMs = ttlMs;
+        this.replicaLagWindowMs = replicaLagWindowMs;
         this.employeeCache = new LinkedHashMap<>(capacity, 0.75f, true) {
             @Override
-            protected boolean removeEldestEntry(final Map.Entry<Long, EmployeeDto> eldest) {
+            protected boolean removeEldestEntry(final Map.Entry<Long, Entry> eldest) {
                 return size() > capacity;
             }
         };
     }
 
+    /** Version to pass to {@link #putEmployee}; read it before loading the data to cache. */
+    public long version() {
+        return dataVersion.current();
+    }
+
     public EmployeeDto getEmployee(Long id) {
         logger.info("Checking cache for employee id: {}", id);
-        return employeeCache.get(id);
+        if (RoutingContext.isPinnedToPrimary()) {
+            return null;
+        }
+        long current = dataVersion.current();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry entry = employeeCache.get(id);
+            return isValid(entry, current, now) ? entry.employee : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns the current entries among the given IDs; missing and stale IDs are absent. */
+    public Map<Long, EmployeeDto> getEmployees(Collection<Long> ids) {
+        Map<Long, EmployeeDto> found = new HashMap<>();
+        if (RoutingContext.isPinnedToPrimary()) {
+            return found;
+        }
+        long current = dataVersion.current();
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            for (Long id : ids) {
+                Entry entry = employeeCache.get(id);
+                if (isValid(entry, current, now)) {
+                    found.put(id, entry.employee);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        logger.debug("Cache hits for {} of {} employees", found.size(), ids.size());
+        return found;
     }
 
-    public void putEmployee(Long id, EmployeeDto employeeDto) {
+    // Data read before a write that has since happened is not cached at all,
+    // nor is a replica's copy while it may still be catching up with the last write
+    public void putEmployee(Long id, EmployeeDto employeeDto, long version) {
+        if (version != dataVersion.current()) {
+            return;
+        }
+        if (RoutingContext.hasReadFromReplica()
+                && System.currentTimeMillis() - dataVersion.bumpedAtMillis() < replicaLagWindowMs) {
+            return;
+        }
         logger.debug("Caching employee with id: {}", id);
-        employeeCache.put(id, employeeDto);
+        lock.lock();
+        try {
+            employeeCache.put(id, new Entry(employeeDto, version, System.currentTimeMillis() + ttlMs));
+        } finally {
+            lock.unlock();
+        }
     }
 
     public void removeEmployee(Long id) {
         logger.debug("Removing employee with id: {} from cache", id);
-        employeeCache.remove(id);
+        lock.lock();
+        try {
+            employeeCache.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isValid(Entry entry, long version, long now) {
+        return entry != null && entry.version == version && entry.expiresAtMillis > now;
+    }
+
+    private record Entry(EmployeeDto employee, long version, long expiresAtMillis) {
     }
 }
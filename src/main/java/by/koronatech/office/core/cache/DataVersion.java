@@ -0,0 +1,28 @@
+package by.koronatech.office.core.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counter bumped on every write to companies, departments or employees on this instance.
+ * Read-side sharing keys on it, so nothing computed before a write is handed out after it.
+ */
+@Component
+public class DataVersion {
+
+    private final AtomicLong version = new AtomicLong();
+    private volatile long bumpedAtMillis;
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bumpedAtMillis() {
+        return bumpedAtMillis;
+    }
+
+    public void bump() {
+        bumpedAtMillis = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+}
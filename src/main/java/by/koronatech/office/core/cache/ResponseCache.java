@@ -0,0 +1,158 @@
+package by.koronatech.office.core.cache;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serialized responses of the reference-data GET endpoints, with a gzip copy made once
+ * at store time. LRU bounded by total bytes. Invalidated as a whole by company and
+ * department writes; the generation check keeps a response computed before a write
+ * from being stored after it.
+ */
+@Component
+public class ResponseCache {
+
+    private final long maxBytes;
+    private final long ttlMs;
+
+    private final Map<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long invalidatedAtMillis;
+    private long totalBytes;
+
+    public ResponseCache(@Value("${app.response-cache.max-bytes:16777216}") long maxBytes,
+                         @Value("${app.response-cache.ttl-ms:600000}") long ttlMs,
+                         MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.ttlMs = ttlMs;
+        Gauge.builder("response.cache.bytes", this, ResponseCache::bytes)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("response.cache.entries", this, ResponseCache::size)
+                .register(meterRegistry);
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public long invalidatedAtMillis() {
+        return invalidatedAtMillis;
+    }
+
+    public Entry get(String key) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.getExpiresAtMillis() < System.currentTimeMillis()) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the response unless the cache was invalidated after {@code generation} was read.
+     */
+    public void put(String key, long generation, String contentType,
+                    Map<String, String> headers, byte[] body) {
+        byte[] gzip = gzip(body);
+        Entry entry = new Entry(contentType, headers, body, gzip.length < body.length ? gzip : null,
+                System.currentTimeMillis() + ttlMs);
+        if (entry.size() > maxBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (this.generation.get() != generation) {
+                return;
+            }
+            remove(key);
+            entries.put(key, entry);
+            totalBytes += entry.size();
+            var eldest = entries.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                totalBytes -= eldest.next().getValue().size();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            invalidatedAtMillis = System.currentTimeMillis();
+            entries.clear();
+            totalBytes = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String key) {
+        Entry removed = entries.remove(key);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private double bytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final String contentType;
+        private final Map<String, String> headers;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final long expiresAtMillis;
+
+        long size() {
+            return body.length + (gzipBody != null ? gzipBody.length : 0);
+        }
+    }
+}
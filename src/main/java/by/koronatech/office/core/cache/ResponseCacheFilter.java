@@ -0,0 +1,148 @@
+package by.koronatech.office.core.cache;
+
+import by.koronatech.office.core.datasource.RoutingContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Serves cached GET responses straight from {@link ResponseCache}, before the dispatcher,
+ * so a hit runs no controller, mapper or Jackson. The key includes Accept (JSON, Smile
+ * or CBOR) and Origin (the CORS headers are stored with the body).
+ * Requests pinned to the primary bypass the cache, and a response read from a replica
+ * shortly after a write is not stored, since the replica may not have the write yet.
+ */
+@Component
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private static final String CACHE_HEADER = "X-Cache";
+
+    // Per-connection or per-response headers that must not be replayed
+    private static final Set<String> NOT_STORED = Set.of(
+            "set-cookie", "content-length", "content-type", "content-encoding",
+            "transfer-encoding", "date", "connection", "keep-alive");
+
+    private final ResponseCache cache;
+    private final List<Pattern> paths;
+    private final long replicaLagWindowMs;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypassed;
+
+    public ResponseCacheFilter(ResponseCache cache,
+                               @Value("${app.response-cache.paths}") List<String> paths,
+                               @Value("${app.datasource.replicas.sticky-ms:5000}") long replicaLagWindowMs,
+                               MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.paths = paths.stream().map(Pattern::compile).toList();
+        this.replicaLagWindowMs = replicaLagWindowMs;
+        this.hits = meterRegistry.counter("response.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("response.cache.requests", "result", "miss");
+        this.bypassed = meterRegistry.counter("response.cache.requests", "result", "bypass");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        for (Pattern path : paths) {
+            if (path.matcher(uri).matches()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        // The client wrote recently; a stored response may predate its write
+        if (RoutingContext.isPinnedToPrimary()) {
+            bypassed.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = key(request);
+        ResponseCache.Entry entry = cache.get(key);
+        if (entry != null) {
+            hits.increment();
+            write(request, response, entry);
+            return;
+        }
+
+        misses.increment();
+        long generation = cache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (wrapper.getStatus() == HttpServletResponse.SC_OK
+                && wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                && !mayLagLastWrite()) {
+            cache.put(key, generation, wrapper.getContentType(), storedHeaders(wrapper),
+                    wrapper.getContentAsByteArray());
+        }
+        wrapper.setHeader(CACHE_HEADER, "MISS");
+        wrapper.copyBodyToResponse();
+    }
+
+    // Replicas can trail the primary for up to the sticky window after a write
+    private boolean mayLagLastWrite() {
+        return RoutingContext.hasReadFromReplica()
+                && System.currentTimeMillis() - cache.invalidatedAtMillis() < replicaLagWindowMs;
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              ResponseCache.Entry entry) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        entry.getHeaders().forEach(response::setHeader);
+        response.setContentType(entry.getContentType());
+        response.setHeader(CACHE_HEADER, "HIT");
+        byte[] body = entry.getBody();
+        if (entry.getGzipBody() != null && acceptsGzip(request)) {
+            // An explicit Content-Encoding also stops the connector from compressing again
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = entry.getGzipBody();
+        }
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static Map<String, String> storedHeaders(HttpServletResponse response) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!NOT_STORED.contains(name.toLowerCase())) {
+                headers.put(name, String.join(", ", response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.contains("gzip")
+                && !acceptEncoding.replace(" ", "").contains("gzip;q=0");
+    }
+
+    private static String key(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return request.getRequestURI() + (query != null ? "?" + query : "")
+                + "|" + request.getHeader(HttpHeaders.ACCEPT)
+                + "|" + request.getHeader(HttpHeaders.ORIGIN);
+    }
+}
@@ -0,0 +1,93 @@
+package by.koronatech.office.core.cache;
+
+import by.koronatech.office.core.datasource.RoutingContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Coalesces identical concurrent reads: while a computation for a key is running,
+ * further callers with the same key wait for it and get its result (or exception)
+ * instead of running their own. Nothing is kept once the computation finishes, and a
+ * write (see {@link DataVersion}) makes later callers start a fresh computation.
+ * Callers pinned to the primary (see {@link RoutingContext}) never join a computation
+ * that may be reading from a lagging replica.
+ * The computation runs in its own read-only transaction, so callers must not open one:
+ * waiting callers then hold no database connection.
+ */
+public class SingleFlight<K, V> {
+
+    private final boolean enabled;
+    private final DataVersion dataVersion;
+    private final Map<FlightKey<K>, CompletableFuture<Flight<V>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter shared;
+    private final TransactionOperations readOnlyTransaction;
+
+    public SingleFlight(String name, boolean enabled, DataVersion dataVersion,
+                        MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.enabled = enabled;
+        this.dataVersion = dataVersion;
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        this.readOnlyTransaction = transaction;
+        this.executed = meterRegistry.counter("singleflight.calls", "name", name, "outcome", "executed");
+        this.shared = meterRegistry.counter("singleflight.calls", "name", name, "outcome", "shared");
+    }
+
+    public V execute(K key, Supplier<V> computation) {
+        if (!enabled) {
+            return readOnlyTransaction.execute(status -> computation.get());
+        }
+        FlightKey<K> flightKey = new FlightKey<>(key, dataVersion.current(), RoutingContext.isPinnedToPrimary());
+        CompletableFuture<Flight<V>> own = new CompletableFuture<>();
+        CompletableFuture<Flight<V>> running = inFlight.putIfAbsent(flightKey, own);
+        if (running != null) {
+            shared.increment();
+            Flight<V> flight = join(running);
+            // Followers inherit where the result came from, for the response cache
+            if (flight.fromReplica()) {
+                RoutingContext.markReplicaRead();
+            }
+            return flight.result();
+        }
+        executed.increment();
+        try {
+            V result = readOnlyTransaction.execute(status -> computation.get());
+            own.complete(new Flight<>(result, RoutingContext.hasReadFromReplica()));
+            return result;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, own);
+        }
+    }
+
+    private record FlightKey<K>(K key, long version, boolean primary) {
+    }
+
+    private record Flight<V>(V result, boolean fromReplica) {
+    }
+
+    private static <V> V join(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package by.koronatech.office.core.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty("app.datasource.pool.cores-multiplier")
+public class HikariPoolSizing implements BeanPostProcessor {
+    private static final Logger logger = LoggerFactory.getLogger(HikariPoolSizing.class);
+
+    private final Environment environment;
+
+    public HikariPoolSizing(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource dataSource) {
+            int multiplier = environment.getRequiredProperty(
+                    "app.datasource.pool.cores-multiplier", Integer.class);
+            int cores = Runtime.getRuntime().availableProcessors();
+            int poolSize = cores * multiplier + 1;
+            dataSource.setMaximumPoolSize(poolSize);
+            if (dataSource.getMinimumIdle() > poolSize) {
+                dataSource.setMinimumIdle(poolSize);
+            }
+            logger.info("Sized pool [{}] to {} connections ({} cores x {} + 1)",
+                    beanName, poolSize, cores, multiplier);
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,35 @@
+package by.koronatech.office.core.config;
+
+import by.koronatech.office.api.dto.CompanyReturnDto;
+import by.koronatech.office.api.dto.DepartmentReturnDto;
+import by.koronatech.office.core.cache.DataVersion;
+import by.koronatech.office.core.cache.SingleFlight;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<String, List<DepartmentReturnDto>> departmentsSingleFlight(
+            @Value("${app.single-flight.departments.enabled:true}") boolean enabled,
+            DataVersion dataVersion, MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager) {
+        return new SingleFlight<>("departments", enabled, dataVersion, meterRegistry,
+                transactionManager);
+    }
+
+    @Bean
+    public SingleFlight<BigDecimal, List<CompanyReturnDto>> highSalarySingleFlight(
+            @Value("${app.single-flight.high-salary.enabled:true}") boolean enabled,
+            DataVersion dataVersion, MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager) {
+        return new SingleFlight<>("companies-high-salary", enabled, dataVersion, meterRegistry,
+                transactionManager);
+    }
+}
@@ -0,0 +1,94 @@
+package by.koronatech.office.core.datasource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Polls each replica's replay lag and marks it unhealthy (reads fall back to the
+ * primary) while the lag is above the threshold, the replica is unreachable or it is
+ * not receiving WAL from the primary. Closes the replica pools on shutdown.
+ */
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final long NOT_RECEIVING = -1;
+
+    // Zero when everything received has been replayed, so an idle replica is not reported as lagging.
+    // A standby whose WAL receiver is gone has also replayed everything it received, however old,
+    // so that case is reported separately; pg_stat_wal_receiver shows its pid to any role
+    private static final String LAG_QUERY = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE pid IS NOT NULL) THEN "
+            + NOT_RECEIVING + " "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMs;
+    private final Map<String, Boolean> healthy = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, long maxLagMs) {
+        this.replicas = replicas;
+        this.maxLagMs = maxLagMs;
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public boolean isHealthy(String key) {
+        return healthy.getOrDefault(key, Boolean.FALSE);
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.lag-check-interval-ms:1000}")
+    public void checkLag() {
+        replicas.forEach((key, dataSource) -> {
+            boolean wasHealthy = isHealthy(key);
+            boolean nowHealthy;
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                long lagMs = resultSet.getLong(1);
+                nowHealthy = lagMs != NOT_RECEIVING && lagMs <= maxLagMs;
+                if (lagMs == NOT_RECEIVING && wasHealthy) {
+                    logger.warn("Replica [{}] is not receiving WAL from the primary, routing reads to primary",
+                            key);
+                } else if (!nowHealthy && wasHealthy) {
+                    logger.warn("Replica [{}] lag {} ms exceeds {} ms, routing reads to primary",
+                            key, lagMs, maxLagMs);
+                }
+            } catch (Exception e) {
+                nowHealthy = false;
+                if (wasHealthy) {
+                    logger.warn("Replica [{}] unreachable, routing reads to primary: {}",
+                            key, e.getMessage());
+                }
+            }
+            if (nowHealthy && !wasHealthy) {
+                logger.info("Replica [{}] is healthy, serving reads", key);
+            }
+            healthy.put(key, nowHealthy);
+        });
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach((key, dataSource) -> {
+            if (dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    logger.warn("Failed to close replica [{}] pool: {}", key, e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package by.koronatech.office.core.datasource;
+
+/**
+ * Per-request routing hints. Set by {@link ReadYourWritesFilter} when the client
+ * has written recently, so its reads see its own changes even if replicas lag.
+ * Also records whether the request read from a replica, so caches can tell a
+ * result that may be behind the primary.
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_PINNED = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    public static void pinToPrimary() {
+        PRIMARY_PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PRIMARY_PINNED.get());
+    }
+
+    public static void markReplicaRead() {
+        REPLICA_READ.set(Boolean.TRUE);
+    }
+
+    public static boolean hasReadFromReplica() {
+        return Boolean.TRUE.equals(REPLICA_READ.get());
+    }
+
+    public static void clear() {
+        PRIMARY_PINNED.remove();
+        REPLICA_READ.remove();
+    }
+}
@@ -0,0 +1,40 @@
+package by.koronatech.office.core.event;
+
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.model.EmployeeDepartment;
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Published by the employee write paths when an employee is created, changed or deleted.
+ * before is null for a new employee and after is null for a deleted one.
+ */
+public record EmployeeChange(Long employeeId, State before, State after) {
+
+    public static EmployeeChange created(Employee employee) {
+        return new EmployeeChange(employee.getId(), null, State.of(employee));
+    }
+
+    public static EmployeeChange updated(State before, Employee employee) {
+        return new EmployeeChange(employee.getId(), before, State.of(employee));
+    }
+
+    public static EmployeeChange deleted(Long employeeId, State before) {
+        return new EmployeeChange(employeeId, before, null);
+    }
+
+    /** The parts of an employee that department and company statistics depend on. */
+    public record State(BigDecimal salary, boolean manager, Set<Long> departmentIds, Set<Long> companyIds) {
+
+        public static State of(Employee employee) {
+            Set<Long> departmentIds = new HashSet<>();
+            Set<Long> companyIds = new HashSet<>();
+            for (EmployeeDepartment ed : employee.getEmployeeDepartments()) {
+                departmentIds.add(ed.getDepartment().getId());
+                companyIds.add(ed.getDepartment().getCompany().getId());
+            }
+            return new State(employee.getSalary(), employee.isManager(), departmentIds, companyIds);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package by.koronatech.office.core.event;
+
+import java.util.Set;
+
+/**
+ * Published when departments or companies change in a way that no {@link EmployeeChange}
+ * describes: a department moved to another company, or a department or company was deleted.
+ */
+public record OrganizationChange(Set<Long> departmentIds, Set<Long> companyIds) {
+}
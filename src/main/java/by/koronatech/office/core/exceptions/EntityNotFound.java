@@ -5,7 +5,8 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class EntityNotFound extends RuntimeException {
+    // Used for expected lookup misses, so no stack trace is captured
     public EntityNotFound(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
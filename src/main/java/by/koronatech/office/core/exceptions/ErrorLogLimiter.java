@@ -0,0 +1,36 @@
+package by.koronatech.office.core.exceptions;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed one-second window: the first {@code permitsPerSecond} events are logged,
+ * the rest are counted and reported with the first event of the next window.
+ */
+public class ErrorLogLimiter {
+
+    private final int permitsPerSecond;
+    // The window (epoch second) in the high 32 bits and the events counted in it in the low
+    // 32, so starting a window and counting in it cannot interleave
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicInteger suppressed = new AtomicInteger();
+
+    public ErrorLogLimiter(int permitsPerSecond) {
+        this.permitsPerSecond = permitsPerSecond;
+    }
+
+    /**
+     * Returns -1 if the event must not be logged, otherwise the number of events
+     * suppressed since the last logged one.
+     */
+    public int tryAcquire() {
+        long window = System.currentTimeMillis() / 1000;
+        // A caller whose clock read predates the current window counts in it
+        long current = state.updateAndGet(s -> window > s >>> 32 ? window << 32 | 1 : s + 1);
+        if ((current & 0xFFFFFFFFL) > permitsPerSecond) {
+            suppressed.incrementAndGet();
+            return -1;
+        }
+        return suppressed.getAndSet(0);
+    }
+}
@@ -1,72 +1,126 @@
 package by.koronatech.office.core.exceptions;
 
-import by.koronatech.office.core.exceptions.HttpStatusException;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import jakarta.validation.ValidationException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.util.DisconnectedClientHelper;
 
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final ErrorLogLimiter clientErrorLimiter;
+    private final ErrorLogLimiter serverErrorLimiter;
+
+    public GlobalExceptionHandler(
+            @Value("${app.errors.client-log-per-second:20}") int clientErrorsPerSecond,
+            @Value("${app.errors.server-log-per-second:50}") int serverErrorsPerSecond) {
+        this.clientErrorLimiter = new ErrorLogLimiter(clientErrorsPerSecond);
+        this.serverErrorLimiter = new ErrorLogLimiter(serverErrorsPerSecond);
+    }
+
+    // The single log event for a failed request; services throw without logging.
+    // 4xx are logged without a stack trace, 5xx with the cause's.
     @ExceptionHandler(HttpStatusException.class)
-    public ResponseEntity<String> handleHttpStatusException(HttpStatusException e) {
-        logger.error("Handling HttpStatusException (HTTP {}): {}",
-                e.getStatusCode(), e.getMessage(), e);
-        return new ResponseEntity<>(e.getMessage(),
-                HttpStatus.valueOf(e.getStatusCode()));
+    public ResponseEntity<String> handleHttpStatusException(HttpStatusException e,
+                                                            HttpServletRequest request) {
+        int status = e.getStatusCode();
+        if (status >= 500) {
+            int suppressed = serverErrorLimiter.tryAcquire();
+            if (suppressed >= 0) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.error("status={} method={} path={} suppressed={} error=\"{}\"",
+                        status, request.getMethod(), request.getRequestURI(), suppressed,
+                        e.getMessage(), cause);
+            }
+        } else {
+            logClientError(status, request, e.getMessage());
+        }
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.valueOf(status));
+    }
+
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflict(VersionConflictException e,
+                                                                     HttpServletRequest request) {
+        logClientError(e.getStatusCode(), request, e.getMessage());
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("error", e.getMessage());
+        body.put("current", e.getCurrent());
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(
-            MethodArgumentNotValidException ex) {
+            MethodArgumentNotValidException ex, HttpServletRequest request) {
         Map<String, String> errors = new HashMap<>();
         for (FieldError error : ex.getBindingResult().getFieldErrors()) {
             String message = error.getDefaultMessage()
                     != null ? error.getDefaultMessage() : "Validation error";
             errors.put(error.getField(), message);
         }
-        logger.error("Validation error (HTTP 400): {}", errors);
+        logClientError(400, request, errors.toString());
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<Map<String, String>> handleConstraintViolation(
-            ConstraintViolationException ex) {
+            ConstraintViolationException ex, HttpServletRequest request) {
         Map<String, String> errors = new HashMap<>();
         ex.getConstraintViolations().forEach(violation ->
                 errors.put(violation.getPropertyPath().toString(), violation.getMessage())
         );
-        logger.error("Constraint violation error (HTTP 400): {}", errors);
+        logClientError(400, request, errors.toString());
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(ValidationException.class)
-    public ResponseEntity<String> handleValidationException(ValidationException ex) {
-        logger.error("Validation exception (HTTP 400): {}", ex.getMessage());
+    public ResponseEntity<String> handleValidationException(ValidationException ex,
+                                                            HttpServletRequest request) {
+        logClientError(400, request, ex.getMessage());
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(EntityNotFound.class)
-    public ResponseEntity<String> handleEntityNotFound(EntityNotFound ex) {
-        logger.error("Entity not found (HTTP 404): {}", ex.getMessage());
+    public ResponseEntity<String> handleEntityNotFound(EntityNotFound ex,
+                                                       HttpServletRequest request) {
+        logClientError(404, request, ex.getMessage());
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<String> handleGenericException(Exception ex) {
-        logger.error("Unexpected error (HTTP 500): {}", ex.getMessage(), ex);
+    public ResponseEntity<String> handleGenericException(Exception ex, HttpServletRequest request) {
+        // A change feed client that went away; there is no response left to write
+        if (DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+            logger.debug("Client disconnected: {}", ex.getMessage());
+            return null;
+        }
+        int suppressed = serverErrorLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            logger.error("status=500 method={} path={} suppressed={} error=\"{}\"",
+                    request.getMethod(), request.getRequestURI(), suppressed, ex.getMessage(), ex);
+        }
         return new ResponseEntity<>("Internal server error",
                 HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    private void logClientError(int status, HttpServletRequest request, String error) {
+        int suppressed = clientErrorLimiter.tryAcquire();
+        if (suppressed >= 0) {
+            logger.warn("status={} method={} path={} suppressed={} error=\"{}\"",
+                    status, request.getMethod(), request.getRequestURI(), suppressed, error);
+        }
+    }
+}
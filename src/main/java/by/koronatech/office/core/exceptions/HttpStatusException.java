@@ -4,6 +4,17 @@ public class HttpStatusException extends RuntimeException {
     private final int statusCode;
 
     public HttpStatusException(int statusCode) {
+        this(statusCode, null, null);
+    }
+
+    public HttpStatusException(int statusCode, String message) {
+        this(statusCode, message, null);
+    }
+
+    // Expected 4xx outcomes are stackless: nobody reads their trace and filling it in
+    // is most of what a rejected request costs. 5xx keep theirs for diagnosis.
+    public HttpStatusException(int statusCode, String message, Throwable cause) {
+        super(message, cause, false, statusCode >= 500);
         this.statusCode = statusCode;
     }
 
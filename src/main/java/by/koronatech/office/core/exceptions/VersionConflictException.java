@@ -0,0 +1,20 @@
+package by.koronatech.office.core.exceptions;
+
+/**
+ * 409 for an update made against a version that is no longer current. Carries the current
+ * state so the client can merge and retry without another read.
+ */
+public class VersionConflictException extends HttpStatusException {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Object current;
+
+    public VersionConflictException(String message, Object current) {
+        super(409, message);
+        this.current = current;
+    }
+
+    public Object getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,288 @@
+package by.koronatech.office.core.idempotency;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.model.IdempotencyRecord;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Makes POSTs to the create endpoints idempotent when the client sends an Idempotency-Key.
+ * The first request with a key runs and its response is stored; repeats get the stored
+ * response back. Repeats arriving while the first is still running wait for it on this
+ * instance, and get 409 if it is running on another one.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final IdempotencyStore store;
+    private final HandlerExceptionResolver exceptionResolver;
+    private final List<String> paths;
+    private final long waitMs;
+
+    // Requests being processed on this instance; duplicates wait on the leader's future
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Qualifier("handlerExceptionResolver") HandlerExceptionResolver exceptionResolver,
+                             @Value("${app.idempotency.paths}") List<String> paths,
+                             @Value("${app.idempotency.wait-ms:30000}") long waitMs) {
+        this.store = store;
+        this.exceptionResolver = exceptionResolver;
+        this.paths = paths;
+        this.waitMs = waitMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || request.getHeader(HEADER) == null
+                || !paths.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            fail(request, response, new HttpStatusException(400,
+                    HEADER + " must be 1 to " + MAX_KEY_LENGTH + " characters"));
+            return;
+        }
+
+        HttpServletRequest body = request;
+        String fingerprint;
+        if (isMultipart(request)) {
+            try {
+                fingerprint = multipartFingerprint(request);
+            } catch (IOException | ServletException | IllegalStateException e) {
+                // A malformed or oversized upload; the handler rejects it the usual way
+                filterChain.doFilter(request, response);
+                return;
+            }
+        } else {
+            CachedBodyRequest cached = new CachedBodyRequest(request);
+            fingerprint = sha256(cached.body);
+            body = cached;
+        }
+        String storeKey = request.getRequestURI() + " " + key;
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            StoredResponse stored = store.findInMemory(storeKey);
+            if (stored != null) {
+                replay(request, response, stored, fingerprint);
+                return;
+            }
+
+            CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(storeKey, own);
+            if (leader != null) {
+                try {
+                    stored = leader.get(waitMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    stored = null;
+                }
+                if (stored != null) {
+                    replay(request, response, stored, fingerprint);
+                    return;
+                }
+                // The leader failed without storing a result; try to become the leader
+                continue;
+            }
+            try {
+                process(storeKey, fingerprint, body, request, response, filterChain, own);
+            } finally {
+                own.complete(null);
+                inFlight.remove(storeKey, own);
+            }
+            return;
+        }
+        fail(request, response, new HttpStatusException(409,
+                "Request with this " + HEADER + " is still being processed, retry later"));
+    }
+
+    private void process(String storeKey, String fingerprint, HttpServletRequest body,
+                         HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain, CompletableFuture<StoredResponse> own)
+            throws ServletException, IOException {
+        Optional<IdempotencyRecord> holder = store.claim(storeKey, fingerprint);
+        if (holder.isPresent()) {
+            IdempotencyRecord record = holder.get();
+            if (record.getStatus() == null) {
+                fail(request, response, new HttpStatusException(409,
+                        "Request with this " + HEADER + " is still being processed, retry later"));
+            } else {
+                StoredResponse stored = store.toResponse(record);
+                own.complete(stored);
+                replay(request, response, stored, fingerprint);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(body, wrapper);
+            // Server errors are not final: the client should be able to retry them
+            if (wrapper.getStatus() < 500) {
+                own.complete(store.complete(storeKey, fingerprint, wrapper.getStatus(),
+                        wrapper.getContentType(), wrapper.getContentAsByteArray()));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                store.release(storeKey);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response,
+                        StoredResponse stored, String fingerprint) throws IOException {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            fail(request, response, new HttpStatusException(422,
+                    HEADER + " was already used for a different request"));
+            return;
+        }
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    // Goes through GlobalExceptionHandler so filter errors look and log like the rest
+    private void fail(HttpServletRequest request, HttpServletResponse response, HttpStatusException e) {
+        exceptionResolver.resolveException(request, response, null, e);
+    }
+
+    private static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase()
+                .startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    // The boundary parameter is left out, as clients pick a new one for every retry. The
+    // parts are parsed by the container, which keeps them for the multipart resolver
+    private static String multipartFingerprint(HttpServletRequest request)
+            throws IOException, ServletException {
+        MediaType type = MediaType.parseMediaType(request.getContentType());
+        MessageDigest digest = sha256();
+        digest.update((type.getType() + "/" + type.getSubtype()).getBytes(StandardCharsets.UTF_8));
+        for (Part part : request.getParts()) {
+            digest.update((byte) 0);
+            digest.update(part.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = part.getInputStream()) {
+                in.transferTo(new DigestOutputStream(OutputStream.nullOutputStream(), digest));
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256(byte[] bytes) {
+        return HexFormat.of().formatHex(sha256().digest(bytes));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package by.koronatech.office.core.idempotency;
+
+import by.koronatech.office.core.model.IdempotencyRecord;
+import by.koronatech.office.core.repository.IdempotencyRecordRepository;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Idempotency results in Postgres, fronted by an in-memory LRU of recent small
+ * results bounded by total bytes. Postgres is the source of truth: claims go through it, so two instances
+ * never both run the same key.
+ */
+@Component
+public class IdempotencyStore {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final long ttlMs;
+    private final long leaseMs;
+    private final int maxMemoryBodyBytes;
+    private final long maxMemoryBytes;
+
+    private final Map<String, StoredResponse> recent = new LinkedHashMap<>(64, 0.75f, true);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long memoryBytes;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${app.idempotency.ttl-ms:86400000}") long ttlMs,
+                            @Value("${app.idempotency.lease-ms:120000}") long leaseMs,
+                            @Value("${app.idempotency.memory-max-bytes:16777216}") long maxMemoryBytes,
+                            @Value("${app.idempotency.memory-max-body-bytes:65536}") int maxMemoryBodyBytes) {
+        this.repository = repository;
+        this.ttlMs = ttlMs;
+        this.leaseMs = leaseMs;
+        this.maxMemoryBodyBytes = maxMemoryBodyBytes;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public StoredResponse findInMemory(String key) {
+        lock.lock();
+        try {
+            StoredResponse response = recent.get(key);
+            if (response != null && response.getExpiresAtMillis() < System.currentTimeMillis()) {
+                forget(key);
+                return null;
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Claims the key for this request. Returns empty when the claim succeeded,
+     * otherwise the record currently holding the key (a result or another claim).
+     */
+    @Transactional
+    public Optional<IdempotencyRecord> claim(String key, String fingerprint) {
+        Instant now = Instant.now();
+        if (repository.claim(key, fingerprint, now, now.plusMillis(leaseMs)) > 0) {
+            return Optional.empty();
+        }
+        // The failed upsert locked the holding row, so it is still there
+        IdempotencyRecord holder = repository.findById(key).orElseThrow();
+        if (holder.getStatus() != null) {
+            remember(key, toResponse(holder));
+        }
+        return Optional.of(holder);
+    }
+
+    @Transactional
+    public StoredResponse complete(String key, String fingerprint, int status,
+                                   String contentType, byte[] body) {
+        long expiresAt = System.currentTimeMillis() + ttlMs;
+        StoredResponse response = new StoredResponse(fingerprint, status, contentType, body, expiresAt);
+        if (repository.complete(key, status, contentType, body, Instant.ofEpochMilli(expiresAt)) == 0) {
+            logger.warn("Idempotency claim for [{}] expired before the request finished", key);
+        }
+        remember(key, response);
+        return response;
+    }
+
+    @Transactional
+    public void release(String key) {
+        repository.release(key);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:600000}")
+    @Transactional
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            logger.info("Deleted {} expired idempotency records", deleted);
+        }
+    }
+
+    public StoredResponse toResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getFingerprint(), record.getStatus(), record.getContentType(),
+                record.getBody() != null ? record.getBody() : new byte[0],
+                record.getExpiresAt().toEpochMilli());
+    }
+
+    private void remember(String key, StoredResponse response) {
+        if (response.getBody().length > maxMemoryBodyBytes || size(key, response) > maxMemoryBytes) {
+            return;
+        }
+        lock.lock();
+        try {
+            forget(key);
+            recent.put(key, response);
+            memoryBytes += size(key, response);
+            var eldest = recent.entrySet().iterator();
+            while (memoryBytes > maxMemoryBytes && eldest.hasNext()) {
+                var entry = eldest.next();
+                memoryBytes -= size(entry.getKey(), entry.getValue());
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void forget(String key) {
+        StoredResponse removed = recent.remove(key);
+        if (removed != null) {
+            memoryBytes -= size(key, removed);
+        }
+    }
+
+    // Keys count too, so empty bodies cannot grow the map without bound
+    private static long size(String key, StoredResponse response) {
+        return response.getBody().length + key.length();
+    }
+}
@@ -0,0 +1,153 @@
+package by.koronatech.office.core.index;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Parses and evaluates a membership expression such as
+ * {@code department:1 and department:2 and not department:3} or
+ * {@code (company:1 or company:2) and not department:7}. The operators may also be written
+ * as {@code &}, {@code |} and {@code !}; not binds tightest, then and, then or.
+ */
+final class MembershipExpression {
+
+    static final int MAX_LENGTH = 1000;
+    // Binds before MAX_LENGTH does: 50 of the shortest terms, company:N, take about 500 characters
+    static final int MAX_TERMS = 50;
+
+    /** Resolves the atoms of an expression; returned bitmaps must not be modified. */
+    interface Sets {
+
+        RoaringBitmap all();
+
+        RoaringBitmap department(long id);
+
+        RoaringBitmap company(long id);
+    }
+
+    private final String text;
+    private final Sets sets;
+    private int pos;
+    private int terms;
+
+    private MembershipExpression(String text, Sets sets) {
+        this.text = text;
+        this.sets = sets;
+    }
+
+    static RoaringBitmap evaluate(String text, Sets sets) {
+        if (text == null || text.isBlank() || text.length() > MAX_LENGTH) {
+            throw new HttpStatusException(400, "Expression must be 1 to " + MAX_LENGTH + " characters");
+        }
+        MembershipExpression expression = new MembershipExpression(text, sets);
+        RoaringBitmap result = expression.or();
+        expression.skipSpaces();
+        if (expression.pos < text.length()) {
+            throw expression.error("unexpected '" + text.charAt(expression.pos) + "'");
+        }
+        return result;
+    }
+
+    private RoaringBitmap or() {
+        List<RoaringBitmap> operands = new ArrayList<>();
+        operands.add(and());
+        while (accept("|") || acceptWord("or")) {
+            operands.add(and());
+        }
+        // The horizontal union merges container by container; FastAggregation.or is slower
+        // on the sparse array containers these sets are made of
+        return operands.size() == 1 ? operands.get(0) : FastAggregation.horizontal_or(operands);
+    }
+
+    // Negated factors are subtracted from the others, so "a and not b" never builds the complement of b
+    private RoaringBitmap and() {
+        List<RoaringBitmap> included = new ArrayList<>();
+        List<RoaringBitmap> excluded = new ArrayList<>();
+        do {
+            boolean negated = false;
+            while (accept("!") || acceptWord("not")) {
+                negated = !negated;
+            }
+            (negated ? excluded : included).add(factor());
+        } while (accept("&") || acceptWord("and"));
+
+        RoaringBitmap result = included.isEmpty() ? sets.all()
+                : included.size() == 1 ? included.get(0)
+                : FastAggregation.and(included.iterator());
+        if (!excluded.isEmpty()) {
+            result = RoaringBitmap.andNot(result, excluded.size() == 1 ? excluded.get(0)
+                    : FastAggregation.horizontal_or(excluded));
+        }
+        return result;
+    }
+
+    private RoaringBitmap factor() {
+        if (accept("(")) {
+            RoaringBitmap inner = or();
+            if (!accept(")")) {
+                throw error("missing ')'");
+            }
+            return inner;
+        }
+        if (++terms > MAX_TERMS) {
+            throw new HttpStatusException(400, "Expression must have at most " + MAX_TERMS + " terms");
+        }
+        skipSpaces();
+        int start = pos;
+        while (pos < text.length() && Character.isLetter(text.charAt(pos))) {
+            pos++;
+        }
+        String kind = text.substring(start, pos).toLowerCase(Locale.ROOT);
+        if (!accept(":")) {
+            throw error("expected department:<id> or company:<id>");
+        }
+        int idStart = pos;
+        while (pos < text.length() && Character.isDigit(text.charAt(pos))) {
+            pos++;
+        }
+        if (idStart == pos || pos - idStart > 18) {
+            throw error("expected an ID after '" + kind + ":'");
+        }
+        long id = Long.parseLong(text.substring(idStart, pos));
+        return switch (kind) {
+            case "department" -> sets.department(id);
+            case "company" -> sets.company(id);
+            default -> throw error("unknown set '" + kind + "'");
+        };
+    }
+
+    private boolean accept(String symbol) {
+        skipSpaces();
+        if (text.startsWith(symbol, pos)) {
+            pos += symbol.length();
+            return true;
+        }
+        return false;
+    }
+
+    // A word operator must not run into the next token, so "notes:1" is not "not es:1"
+    private boolean acceptWord(String word) {
+        skipSpaces();
+        int end = pos + word.length();
+        if (text.regionMatches(true, pos, word, 0, word.length())
+                && (end == text.length() || !Character.isLetterOrDigit(text.charAt(end)))) {
+            pos = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void skipSpaces() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private HttpStatusException error(String message) {
+        return new HttpStatusException(400, "Invalid expression at position " + pos + ": " + message);
+    }
+}
@@ -0,0 +1,279 @@
+package by.koronatech.office.core.index;
+
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.event.OrganizationChange;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.sql.DataSource;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One compressed bitmap of employee IDs per department, plus one of all employees, so that
+ * set questions over departments and companies are answered without joins. Each company has a
+ * bitmap too, the union of its departments'. Built on startup, updated from {@link EmployeeChange}
+ * events and rebuilt periodically; changes made during a rebuild are replayed onto it.
+ */
+@Component
+public class MembershipIndex {
+    private static final Logger logger = LoggerFactory.getLogger(MembershipIndex.class);
+
+    private static final String DEPARTMENTS_SQL = "SELECT id, company_id FROM department";
+    private static final String MEMBERS_SQL = "SELECT e.id, ed.department_id "
+            + "FROM employee e LEFT JOIN employee_department ed ON ed.employee_id = e.id";
+    // Bitmaps hold 32-bit values compared as unsigned
+    public static final long MAX_ID = 0xFFFFFFFFL;
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final JdbcTemplate jdbcTemplate;
+    // Not read-only, so the index never misses a change a lagging replica has not applied yet
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Sets current;
+    private List<Recorded> pending;
+
+    public MembershipIndex(DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.membership.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Returns up to {@code limit} IDs of the employees matching the expression, in ascending
+     * order and after {@code afterId}, together with the total number of matches.
+     * See {@link MembershipExpression} for the syntax.
+     */
+    public Page page(String expression, long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (current == null) {
+                throw new HttpStatusException(503, "Membership index is still loading, retry later");
+            }
+            // The result may be one of the live bitmaps, so it is only read under the lock
+            RoaringBitmap result = MembershipExpression.evaluate(expression, current);
+            List<Long> ids = new ArrayList<>(Math.min(limit, result.getCardinality()));
+            PeekableIntIterator iterator = result.getIntIterator();
+            if (afterId >= 0) {
+                iterator.advanceIfNeeded((int) (afterId + 1));
+            }
+            while (iterator.hasNext() && ids.size() < limit) {
+                ids.add(Integer.toUnsignedLong(iterator.next()));
+            }
+            return new Page(result.getLongCardinality(), ids, iterator.hasNext());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record Page(long total, List<Long> ids, boolean hasMore) {
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChange(EmployeeChange change) {
+        record(change);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChange(OrganizationChange change) {
+        record(change);
+    }
+
+    @Scheduled(initialDelayString = "${app.membership.refresh-initial-delay-ms:0}",
+            fixedDelayString = "${app.membership.refresh-interval-ms:3600000}")
+    public void refresh() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Sets fresh = null;
+        try {
+            fresh = load();
+        } catch (Exception e) {
+            logger.error("Failed to load the membership index: {}", e.getMessage(), e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (fresh != null) {
+                for (Recorded recorded : pending) {
+                    fresh.apply(recorded);
+                }
+                logger.info("Loaded membership index of {} employees in {} departments and {} "
+                                + "companies in {} ms ({} bytes), replayed {} changes",
+                        fresh.all.getLongCardinality(), fresh.departments.size(), fresh.companies.size(),
+                        (System.nanoTime() - start) / 1_000_000,
+                        fresh.sizeInBytes(), pending.size());
+                current = fresh;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Object change) {
+        // Read before taking the write lock, so queries never wait on the database
+        Recorded recorded = new Recorded(change,
+                change instanceof OrganizationChange ? loadDepartmentsByCompany() : null);
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(recorded);
+            }
+            if (current != null) {
+                current.apply(recorded);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Sets load() {
+        Sets sets = new Sets();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(MEMBERS_SQL, (RowCallbackHandler) rs -> {
+            int id = toInt(rs.getLong(1));
+            sets.all.add(id);
+            long departmentId = rs.getLong(2);
+            if (!rs.wasNull()) {
+                sets.departments.computeIfAbsent(departmentId, key -> new RoaringBitmap()).add(id);
+            }
+        }));
+        sets.all.runOptimize();
+        sets.departments.values().forEach(RoaringBitmap::runOptimize);
+        loadDepartmentsByCompany().forEach((companyId, departmentIds) -> sets.unionCompany(companyId, departmentIds));
+        return sets;
+    }
+
+    private Map<Long, List<Long>> loadDepartmentsByCompany() {
+        Map<Long, List<Long>> byCompany = new HashMap<>();
+        jdbcTemplate.query(DEPARTMENTS_SQL, (RowCallbackHandler) rs ->
+                byCompany.computeIfAbsent(rs.getLong(2), key -> new ArrayList<>()).add(rs.getLong(1)));
+        return byCompany;
+    }
+
+    /** A change with the departments by company read when it arrived, for organization changes. */
+    private record Recorded(Object change, Map<Long, List<Long>> departmentsByCompany) {
+    }
+
+    private static int toInt(long id) {
+        if (id < 0 || id > MAX_ID) {
+            throw new IllegalStateException("Employee ID " + id + " does not fit the membership index");
+        }
+        return (int) id;
+    }
+
+    // Companies get their own bitmaps so that a company costs a lookup rather than a union
+    private final class Sets implements MembershipExpression.Sets {
+
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> departments = new HashMap<>();
+        private final Map<Long, RoaringBitmap> companies = new HashMap<>();
+
+        @Override
+        public RoaringBitmap all() {
+            return all;
+        }
+
+        @Override
+        public RoaringBitmap department(long id) {
+            return departments.getOrDefault(id, EMPTY);
+        }
+
+        @Override
+        public RoaringBitmap company(long id) {
+            return companies.getOrDefault(id, EMPTY);
+        }
+
+        // Applied as the employee's latest memberships, so replaying a change is harmless
+        void apply(Recorded recorded) {
+            if (recorded.change() instanceof OrganizationChange organizationChange) {
+                apply(organizationChange, recorded.departmentsByCompany());
+                return;
+            }
+            EmployeeChange employeeChange = (EmployeeChange) recorded.change();
+            int id = toInt(employeeChange.employeeId());
+            EmployeeChange.State before = employeeChange.before();
+            EmployeeChange.State after = employeeChange.after();
+            if (before != null) {
+                remove(id, departments, before.departmentIds(),
+                        after != null ? after.departmentIds() : Set.of());
+                remove(id, companies, before.companyIds(),
+                        after != null ? after.companyIds() : Set.of());
+            }
+            if (after == null) {
+                all.remove(id);
+                return;
+            }
+            all.add(id);
+            add(id, departments, after.departmentIds());
+            add(id, companies, after.companyIds());
+        }
+
+        // Departments were deleted or moved between companies: rebuild the companies involved
+        private void apply(OrganizationChange change, Map<Long, List<Long>> byCompany) {
+            change.departmentIds().forEach(departments::remove);
+            for (Long companyId : change.companyIds()) {
+                companies.remove(companyId);
+                unionCompany(companyId, byCompany.getOrDefault(companyId, List.of()));
+            }
+        }
+
+        void unionCompany(Long companyId, List<Long> departmentIds) {
+            RoaringBitmap union = new RoaringBitmap();
+            for (Long departmentId : departmentIds) {
+                union.or(department(departmentId));
+            }
+            union.runOptimize();
+            companies.put(companyId, union);
+        }
+
+        private static void remove(int id, Map<Long, RoaringBitmap> sets, Set<Long> before, Set<Long> after) {
+            for (Long key : before) {
+                RoaringBitmap bitmap = sets.get(key);
+                if (bitmap != null && !after.contains(key)) {
+                    bitmap.remove(id);
+                }
+            }
+        }
+
+        private static void add(int id, Map<Long, RoaringBitmap> sets, Set<Long> keys) {
+            for (Long key : keys) {
+                sets.computeIfAbsent(key, k -> new RoaringBitmap()).add(id);
+            }
+        }
+
+        long sizeInBytes() {
+            long bytes = all.getLongSizeInBytes();
+            for (RoaringBitmap bitmap : departments.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            for (RoaringBitmap bitmap : companies.values()) {
+                bytes += bitmap.getLongSizeInBytes();
+            }
+            return bytes;
+        }
+    }
+}
@@ -10,6 +10,8 @@ import org.mapstruct.Mapping;
 @Mapper(componentModel = "spring")
 public interface CreateEmployeeMapper {
     @Mapping(target = "employeeDepartments", ignore = true)
+    @Mapping(target = "supervisor", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Employee toEntity(CreateEmployeeDto dto);
 
     default Employee toEntityWithDepartments(CreateEmployeeDto dto,
@@ -15,10 +15,13 @@ public interface EmployeeMapper {
 
     @Mapping(target = "departmentNames",
             expression = "java(mapDepartments(employee.getEmployeeDepartments()))")
+    @Mapping(target = "supervisorId", source = "supervisor.id")
     EmployeeDto toDto(Employee employee);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "employeeDepartments", ignore = true)
+    @Mapping(target = "supervisor", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @Mapping(target = "name", source = "name", defaultValue = "")
     @Mapping(target = "salary", source = "salary", defaultValue = "0")
     Employee toEntity(CreateEmployeeDto dto);
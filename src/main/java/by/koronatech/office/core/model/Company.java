@@ -14,11 +14,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Setter
 @Getter
 @Builder
 @Entity
+@DynamicUpdate
 @NoArgsConstructor
 @AllArgsConstructor
 @ToString
@@ -5,9 +5,11 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.AllArgsConstructor;
@@ -16,6 +18,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Setter
 @Getter
@@ -24,6 +27,8 @@ import lombok.ToString;
 @NoArgsConstructor
 @ToString
 @Entity
+@DynamicUpdate
+@Table(indexes = @Index(name = "idx_department_company", columnList = "company_id"))
 public class Department {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -3,10 +3,16 @@ package by.koronatech.office.core.model;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
@@ -16,6 +22,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Setter
 @Getter
@@ -24,6 +32,10 @@ import lombok.ToString;
 @AllArgsConstructor
 @ToString
 @Entity
+@DynamicUpdate
+@Table(indexes = {
+        @Index(name = "idx_employee_salary_id", columnList = "salary, id"),
+        @Index(name = "idx_employee_supervisor", columnList = "supervisor_id")})
 public class Employee {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -33,6 +45,17 @@ public class Employee {
     @Column(nullable = false)
     private boolean manager = false; // Initialize with default value
 
+    // Bumped on every change; updates are conditional on it. The default fills existing rows
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Reporting line; employee_hierarchy holds its transitive closure
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supervisor_id")
+    @ToString.Exclude
+    private Employee supervisor;
+
     @OneToMany(mappedBy = "employee", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private Set<EmployeeDepartment> employeeDepartments = new HashSet<>();  // Initialize here
@@ -42,9 +65,12 @@ public class Employee {
             this.employeeDepartments = new HashSet<>();
         }
 
-        // Clear existing associations and sync the Department side
+        // Clear existing associations and sync the Department side. An unloaded
+        // Department collection is left alone: syncing it would fetch every member.
         for (EmployeeDepartment ed : new HashSet<>(this.employeeDepartments)) {
-            ed.getDepartment().getEmployeeDepartments().remove(ed);
+            if (Hibernate.isInitialized(ed.getDepartment().getEmployeeDepartments())) {
+                ed.getDepartment().getEmployeeDepartments().remove(ed);
+            }
         }
         this.employeeDepartments.clear();
 
@@ -55,7 +81,9 @@ public class Employee {
                 ed.setEmployee(this);
                 ed.setDepartment(department);
                 this.employeeDepartments.add(ed);
-                department.getEmployeeDepartments().add(ed); // Sync the Department side
+                if (Hibernate.isInitialized(department.getEmployeeDepartments())) {
+                    department.getEmployeeDepartments().add(ed); // Sync the Department side
+                }
             });
         }
     }
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -21,7 +22,9 @@ import lombok.ToString;
 @AllArgsConstructor
 @ToString
 @Entity
-@Table(name = "employee_department")
+@Table(name = "employee_department", indexes = {
+        @Index(name = "idx_employee_department_department_employee", columnList = "department_id, employee_id"),
+        @Index(name = "idx_employee_department_employee", columnList = "employee_id")})
 public class EmployeeDepartment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,50 @@
+package by.koronatech.office.core.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Closure table of the reporting hierarchy: one row per (supervisor, report) pair at any
+ * distance, depth 1 being a direct report. Employees have no row for themselves.
+ * Rows are maintained by {@code EmployeeHierarchyRepository} whenever a supervisor changes.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@IdClass(EmployeeHierarchy.Key.class)
+@Table(name = "employee_hierarchy", indexes = {
+        @Index(name = "idx_employee_hierarchy_ancestor_depth", columnList = "ancestorId, depth, descendantId"),
+        @Index(name = "idx_employee_hierarchy_descendant_depth", columnList = "descendantId, depth, ancestorId")})
+public class EmployeeHierarchy {
+    @Id
+    private Long ancestorId;
+
+    @Id
+    private Long descendantId;
+
+    private int depth;
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -0,0 +1,55 @@
+package by.koronatech.office.core.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+@Setter
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Entity
+@Table(name = "import_job")
+public class ImportJob {
+    @Id
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private ImportJobStatus status;
+
+    private int totalRows;
+
+    // Rows before this index are committed; a resumed job continues from here
+    private int processedRows;
+    private int createdRows;
+    private int failedRows;
+
+    private boolean cancelRequested;
+
+    private Instant createdAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+
+    // processedRows when the current run started, for the throughput figure
+    private int runStartRow;
+
+    private String message;
+
+    // Instance working the job and its last sign of life; another instance takes over once it expires
+    @Column(length = 36)
+    private String owner;
+    private Instant heartbeatAt;
+}
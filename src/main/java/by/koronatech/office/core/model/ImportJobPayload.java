@@ -0,0 +1,28 @@
+package by.koronatech.office.core.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Submitted rows of an import job, kept apart from {@link ImportJob}
+ * so that progress polling does not load them.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "import_job_payload")
+public class ImportJobPayload {
+    @Id
+    private String jobId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String rows;
+}
@@ -0,0 +1,48 @@
+package by.koronatech.office.core.monitoring;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PoolSaturationMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(PoolSaturationMonitor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final double thresholdMs;
+
+    public PoolSaturationMonitor(MeterRegistry meterRegistry,
+                                 @Value("${app.datasource.pool.acquire-alert-threshold-ms:100}")
+                                 double thresholdMs) {
+        this.meterRegistry = meterRegistry;
+        this.thresholdMs = thresholdMs;
+    }
+
+    // Timer.max is a decaying maximum, so each check looks at the recent window only
+    @Scheduled(fixedDelayString = "${app.datasource.pool.monitor-interval-ms:10000}")
+    public void checkAcquireTime() {
+        for (Timer timer : meterRegistry.find("hikaricp.connections.acquire").timers()) {
+            String pool = timer.getId().getTag("pool");
+            double maxMs = timer.max(TimeUnit.MILLISECONDS);
+            if (maxMs > thresholdMs) {
+                logger.warn("Connection pool [{}] saturated: max acquire {} ms > {} ms, "
+                                + "active={}, idle={}, pending={}",
+                        pool, Math.round(maxMs), Math.round(thresholdMs),
+                        gauge("hikaricp.connections.active", pool),
+                        gauge("hikaricp.connections.idle", pool),
+                        gauge("hikaricp.connections.pending", pool));
+            }
+        }
+    }
+
+    private long gauge(String name, String pool) {
+        Gauge gauge = meterRegistry.find(name).tag("pool", pool).gauge();
+        return gauge != null ? Math.round(gauge.value()) : -1;
+    }
+}
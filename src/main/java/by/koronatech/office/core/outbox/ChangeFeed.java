@@ -0,0 +1,393 @@
+package by.koronatech.office.core.outbox;
+
+import by.koronatech.office.api.dto.ChangeDto;
+import by.koronatech.office.api.dto.ChangePageDto;
+import by.koronatech.office.core.datasource.RoutingContext;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.model.OutboxEvent;
+import by.koronatech.office.core.push.SenderPool;
+import by.koronatech.office.core.repository.OutboxEventRepository;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Serves the outbox as a feed of changes after a sequence number, by long polling or SSE.
+ * Waiting clients hold no request thread: one dispatcher thread reads the outbox once per
+ * distinct position when a local commit wakes it, and at least every poll interval to
+ * pick up commits made by other instances. It never writes to a stream itself: it hands each
+ * stream one batch at a time to a sender pool, and reads again for it once the batch is
+ * written, so a slow client holds up neither the feed nor the other clients.
+ */
+@Component
+public class ChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+
+    private final OutboxEventRepository repository;
+    private final int maxBatch;
+    private final long maxWaitMs;
+    private final long streamTimeoutMs;
+    private final long heartbeatMs;
+    private final int maxSubscribers;
+    private final long retentionMs;
+    private final long sendTimeoutMs;
+
+    private final ScheduledExecutorService dispatcher;
+    private final SenderPool sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakePending = new AtomicBoolean();
+    private long lastHeartbeat = System.currentTimeMillis();
+
+    public ChangeFeed(OutboxEventRepository repository,
+                      @Value("${app.changes.max-batch:1000}") int maxBatch,
+                      @Value("${app.changes.poll-interval-ms:1000}") long pollIntervalMs,
+                      @Value("${app.changes.max-wait-ms:30000}") long maxWaitMs,
+                      @Value("${app.changes.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                      @Value("${app.changes.heartbeat-ms:15000}") long heartbeatMs,
+                      @Value("${app.changes.max-subscribers:1000}") int maxSubscribers,
+                      @Value("${app.changes.retention-ms:604800000}") long retentionMs,
+                      @Value("${app.changes.sender-threads:4}") int senderThreads,
+                      @Value("${app.changes.send-timeout-ms:10000}") long sendTimeoutMs) {
+        this.repository = repository;
+        this.maxBatch = maxBatch;
+        this.maxWaitMs = maxWaitMs;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.heartbeatMs = heartbeatMs;
+        this.maxSubscribers = maxSubscribers;
+        this.retentionMs = retentionMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.sender = new SenderPool("change-feed-sender", senderThreads);
+        this.dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(() -> {
+                // A replica would only show a commit after its lag, long after the wake-up
+                RoutingContext.pinToPrimary();
+                runnable.run();
+            }, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(this::dispatch, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns up to limit changes after the given sequence number. When there are none
+     * yet, waits up to waitMs for the next commit and returns an empty page on timeout.
+     */
+    public DeferredResult<ChangePageDto> poll(Long after, int limit, long waitMs) {
+        if (limit < 1 || limit > maxBatch) {
+            throw new HttpStatusException(400, "limit must be between 1 and " + maxBatch);
+        }
+        if (waitMs < 0 || waitMs > maxWaitMs) {
+            throw new HttpStatusException(400, "waitMs must be between 0 and " + maxWaitMs);
+        }
+        long position = start(after);
+        List<ChangeDto> changes = read(position, limit);
+        if (!changes.isEmpty() || waitMs == 0) {
+            DeferredResult<ChangePageDto> result = new DeferredResult<>();
+            result.setResult(page(changes, position));
+            return result;
+        }
+        DeferredResult<ChangePageDto> result = new DeferredResult<>(waitMs, page(List.of(), position));
+        Poll poll = new Poll(position, limit, result);
+        result.onCompletion(() -> subscribers.remove(poll));
+        register(poll);
+        return result;
+    }
+
+    /**
+     * Streams every change after the given sequence number as an SSE "change" event whose
+     * ID is the sequence number, so a reconnecting client resumes from Last-Event-ID.
+     */
+    public SseEmitter stream(Long after) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Stream stream = new Stream(start(after), emitter);
+        register(stream);
+        emitter.onCompletion(() -> subscribers.remove(stream));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(stream));
+        return emitter;
+    }
+
+    /** Called after a local commit wrote to the outbox; wake-ups arriving together run once. */
+    public void wake() {
+        if (!subscribers.isEmpty() && wakePending.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                wakePending.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.changes.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = repository.deleteCreatedBefore(Instant.now().minusMillis(retentionMs));
+        if (deleted > 0) {
+            logger.info("Deleted {} change events older than {} ms", deleted, retentionMs);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber instanceof Stream stream) {
+                stream.emitter.complete();
+            }
+        }
+    }
+
+    // No after means "from now on"; a position older than the retained events is rejected,
+    // since the client would silently miss the purged changes
+    private long start(Long after) {
+        if (after == null) {
+            Long head = repository.findMaxId();
+            return head != null ? head : 0;
+        }
+        if (after < 0) {
+            throw new HttpStatusException(400, "after cannot be negative");
+        }
+        Long oldest = repository.findMinId();
+        if (oldest != null && after < oldest - 1) {
+            throw new HttpStatusException(410, "Changes after " + after + " were deleted, "
+                    + "the oldest available is " + oldest + "; reload the data and start from the latest");
+        }
+        return after;
+    }
+
+    private void register(Subscriber subscriber) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new HttpStatusException(503, "Too many change feed subscribers, retry later");
+        }
+        subscribers.add(subscriber);
+        // Covers a commit that landed between the caller's read and the registration
+        wake();
+    }
+
+    private void dispatch() {
+        try {
+            if (subscribers.isEmpty()) {
+                return;
+            }
+            dropStalled();
+            Map<Long, List<Subscriber>> byPosition = new HashMap<>();
+            for (Subscriber subscriber : subscribers) {
+                // A stream still writing its last batch is read for once the write is done
+                if (!subscriber.ready()) {
+                    continue;
+                }
+                byPosition.computeIfAbsent(subscriber.position, p -> new ArrayList<>()).add(subscriber);
+            }
+            boolean more = false;
+            for (Map.Entry<Long, List<Subscriber>> entry : byPosition.entrySet()) {
+                List<ChangeDto> changes = read(entry.getKey(), maxBatch);
+                if (changes.isEmpty()) {
+                    continue;
+                }
+                more |= changes.size() == maxBatch;
+                for (Subscriber subscriber : entry.getValue()) {
+                    if (!subscriber.deliver(changes)) {
+                        subscribers.remove(subscriber);
+                    }
+                }
+            }
+            heartbeat();
+            if (more) {
+                wake();
+            }
+        } catch (Exception e) {
+            // Keeps the scheduled dispatch alive; the next run retries from the same positions
+            logger.warn("Change feed dispatch failed", e);
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        if (now - lastHeartbeat < heartbeatMs) {
+            return;
+        }
+        lastHeartbeat = now;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber instanceof Stream stream && stream.ready()) {
+                stream.deliver(List.of());
+            }
+        }
+    }
+
+    // The blocked write cannot be cut short; the stream is dropped, its client reconnects
+    // from Last-Event-ID, and the sender pool runs a thread in place of the blocked one
+    private void dropStalled() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber instanceof Stream stream && stream.markStalled(now)) {
+                subscribers.remove(stream);
+                sender.standIn();
+                logger.warn("Dropped a change feed stream whose write took over {} ms", sendTimeoutMs);
+            }
+        }
+    }
+
+    private List<ChangeDto> read(long after, int limit) {
+        List<OutboxEvent> events = repository.findAfter(after, PageRequest.of(0, limit));
+        List<ChangeDto> changes = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            changes.add(ChangeDto.builder()
+                    .seq(event.getId())
+                    .entityType(event.getEntityType())
+                    .entityId(event.getEntityId())
+                    .operation(event.getOperation())
+                    .createdAt(event.getCreatedAt())
+                    .build());
+        }
+        return changes;
+    }
+
+    private static ChangePageDto page(List<ChangeDto> changes, long after) {
+        return ChangePageDto.builder()
+                .items(changes)
+                .next(changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq())
+                .build();
+    }
+
+    private abstract static class Subscriber {
+
+        // Written only by the dispatcher thread once registered
+        volatile long position;
+
+        Subscriber(long position) {
+            this.position = position;
+        }
+
+        // Returns false when the subscriber is done and should be dropped
+        abstract boolean deliver(List<ChangeDto> changes);
+
+        boolean ready() {
+            return true;
+        }
+    }
+
+    private static final class Poll extends Subscriber {
+
+        private final int limit;
+        private final DeferredResult<ChangePageDto> result;
+
+        Poll(long position, int limit, DeferredResult<ChangePageDto> result) {
+            super(position);
+            this.limit = limit;
+            this.result = result;
+        }
+
+        @Override
+        boolean deliver(List<ChangeDto> changes) {
+            result.setResult(page(changes.subList(0, Math.min(limit, changes.size())), position));
+            return false;
+        }
+    }
+
+    private final class Stream extends Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Guarded by this; sendingSince is 0 while no batch is being written
+        private List<ChangeDto> pending;
+        private boolean scheduled;
+        private long sendingSince;
+        private boolean stalled;
+
+        Stream(long position, SseEmitter emitter) {
+            super(position);
+            this.emitter = emitter;
+        }
+
+        @Override
+        synchronized boolean ready() {
+            return !scheduled;
+        }
+
+        // Hands the changes, or a heartbeat when there are none, to a sender thread
+        @Override
+        boolean deliver(List<ChangeDto> changes) {
+            synchronized (this) {
+                if (scheduled) {
+                    return !stalled;
+                }
+                pending = changes;
+                scheduled = true;
+            }
+            if (!changes.isEmpty()) {
+                position = changes.get(changes.size() - 1).getSeq();
+            }
+            sender.execute(this::send);
+            return true;
+        }
+
+        synchronized boolean markStalled(long now) {
+            if (stalled || sendingSince == 0 || now - sendingSince < sendTimeoutMs) {
+                return false;
+            }
+            stalled = true;
+            return true;
+        }
+
+        private void send() {
+            List<ChangeDto> changes;
+            synchronized (this) {
+                changes = pending;
+                pending = null;
+                sendingSince = System.currentTimeMillis();
+            }
+            boolean sent = write(changes);
+            boolean dropped;
+            synchronized (this) {
+                sendingSince = 0;
+                dropped = stalled;
+                // Stays scheduled once dropped, so nothing more is handed over
+                scheduled = dropped || !sent;
+            }
+            if (dropped) {
+                sender.release();
+                emitter.complete();
+            } else if (!sent) {
+                subscribers.remove(this);
+            } else if (!changes.isEmpty()) {
+                wake();
+            }
+        }
+
+        private boolean write(List<ChangeDto> changes) {
+            try {
+                if (changes.isEmpty()) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                for (ChangeDto change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getSeq()))
+                            .name("change")
+                            .data(change));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package by.koronatech.office.core.outbox;
+
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.model.OutboxEvent.EntityType;
+import by.koronatech.office.core.model.OutboxEvent.Operation;
+import by.koronatech.office.core.repository.OutboxEventRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Records changes in the outbox table as part of the transaction that makes them.
+ * Events are collected while the transaction runs and written with one insert just
+ * before it commits, under a lock that makes sequence order match commit order.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository repository;
+    private final ChangeFeed changeFeed;
+    private final TransactionTemplate transactionTemplate;
+
+    public OutboxWriter(OutboxEventRepository repository, ChangeFeed changeFeed,
+                        PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.changeFeed = changeFeed;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void append(EntityType entityType, Long entityId, Operation operation) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Callers are expected to be transactional; this keeps a stray write from being lost
+            Pending pending = new Pending();
+            pending.add(entityType, entityId, operation);
+            transactionTemplate.executeWithoutResult(status -> pending.write());
+            changeFeed.wake();
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new Pending();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.add(entityType, entityId, operation);
+    }
+
+    // Published synchronously, so it runs inside the employee write's transaction
+    @EventListener
+    public void onEmployeeChange(EmployeeChange change) {
+        append(EntityType.EMPLOYEE, change.employeeId(), change.before() == null ? Operation.CREATED
+                : change.after() == null ? Operation.DELETED : Operation.UPDATED);
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final List<String> types = new ArrayList<>();
+        private final List<Long> ids = new ArrayList<>();
+        private final List<String> operations = new ArrayList<>();
+
+        void add(EntityType entityType, Long entityId, Operation operation) {
+            types.add(entityType.name());
+            ids.add(entityId);
+            operations.add(operation.name());
+        }
+
+        void write() {
+            repository.lock();
+            repository.insertAll(types.toArray(new String[0]), ids.toArray(new Long[0]),
+                    operations.toArray(new String[0]), Instant.now());
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write();
+        }
+
+        @Override
+        public void afterCommit() {
+            changeFeed.wake();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(OutboxWriter.this);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package by.koronatech.office.core.push;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BinaryOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans server-sent events out to subscribers without letting a slow one hold up the others.
+ * Publishing only queues the event per subscriber; a small sender pool writes each queue,
+ * one subscriber at a time. A queued event with the same key as a new one is replaced by it
+ * (or merged with it), so a slow client gets the latest state rather than every step, and a
+ * full queue drops its oldest event and tells the client with an "overflow" event.
+ * A write blocks its sender thread while the client is not reading, so a subscriber whose
+ * queue takes longer than the send timeout to write is dropped, and the pool runs a thread
+ * in place of the blocked one until the write returns.
+ */
+@Component
+public class EventBroadcaster {
+
+    public static final String VISITS = "visits";
+    public static final String JOBS = "jobs";
+    public static final Set<String> TOPICS = Set.of(VISITS, JOBS);
+
+    private static final Logger logger = LoggerFactory.getLogger(EventBroadcaster.class);
+
+    private static final String HEARTBEAT = "";
+
+    private final Executor sender;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final long sendTimeoutMs;
+    private final int maxSubscribers;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public EventBroadcaster(@Value("${app.push.sender-threads:4}") int senderThreads,
+                            @Value("${app.push.buffer-size:256}") int bufferSize,
+                            @Value("${app.push.timeout-ms:1800000}") long timeoutMs,
+                            @Value("${app.push.send-timeout-ms:10000}") long sendTimeoutMs,
+                            @Value("${app.push.max-subscribers:1000}") int maxSubscribers) {
+        this(new SenderPool("event-sender", senderThreads), bufferSize, timeoutMs, sendTimeoutMs, maxSubscribers);
+    }
+
+    public EventBroadcaster(Executor sender, int bufferSize, long timeoutMs, long sendTimeoutMs,
+                            int maxSubscribers) {
+        this.sender = sender;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    public SseEmitter subscribe(Set<String> topics) {
+        return subscribe(new SseEmitter(timeoutMs), topics);
+    }
+
+    public SseEmitter subscribe(SseEmitter emitter, Set<String> topics) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new HttpStatusException(503, "Too many event stream subscribers, retry later");
+        }
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(topics));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public boolean hasSubscribers(String topic) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.topics.contains(topic)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Queues data as a topic event; it replaces a still queued event with the same key. */
+    public void publish(String topic, String key, Object data) {
+        publish(topic, key, data, (queued, next) -> next);
+    }
+
+    /** Queues data as a topic event, merged into a still queued event with the same key. */
+    public <T> void publish(String topic, String key, T data, BinaryOperator<T> merge) {
+        @SuppressWarnings("unchecked")
+        BinaryOperator<Object> merger = (BinaryOperator<Object>) merge;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.topics.contains(topic)) {
+                subscriber.offer(topic + ":" + key, topic, data, merger);
+            }
+        }
+    }
+
+    // Also finds clients that went away while nothing was published to them
+    @Scheduled(fixedDelayString = "${app.push.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(HEARTBEAT, HEARTBEAT, null, (queued, next) -> next);
+        }
+    }
+
+    // The blocked write cannot be cut short; the subscriber is dropped and its client reconnects
+    @Scheduled(fixedDelayString = "${app.push.stall-check-ms:1000}")
+    public void dropStalled() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.markStalled(now)) {
+                subscribers.remove(subscriber);
+                if (sender instanceof SenderPool pool) {
+                    pool.standIn();
+                }
+                logger.warn("Dropped an event stream subscriber whose write took over {} ms", sendTimeoutMs);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sender instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    private record Queued(String name, Object data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> topics;
+
+        // Guarded by this; scheduled stays true once the subscriber is dropped,
+        // sendingSince is 0 while no batch is being written
+        private final LinkedHashMap<String, Queued> queue = new LinkedHashMap<>();
+        private int dropped;
+        private boolean scheduled;
+        private long sendingSince;
+        private boolean stalled;
+
+        Subscriber(SseEmitter emitter, Set<String> topics) {
+            this.emitter = emitter;
+            this.topics = topics;
+        }
+
+        void offer(String key, String name, Object data, BinaryOperator<Object> merge) {
+            synchronized (this) {
+                Queued queued = queue.get(key);
+                if (queued != null) {
+                    queue.put(key, new Queued(name, merge.apply(queued.data(), data)));
+                } else {
+                    if (queue.size() >= bufferSize) {
+                        Iterator<Map.Entry<String, Queued>> oldest = queue.entrySet().iterator();
+                        oldest.next();
+                        oldest.remove();
+                        dropped++;
+                    }
+                    queue.put(key, new Queued(name, data));
+                }
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        synchronized boolean markStalled(long now) {
+            if (stalled || sendingSince == 0 || now - sendingSince < sendTimeoutMs) {
+                return false;
+            }
+            stalled = true;
+            queue.clear();
+            return true;
+        }
+
+        // Runs on one sender thread at a time, until the queue is empty or the subscriber is dropped
+        private void drain() {
+            while (true) {
+                List<Queued> batch;
+                int lost;
+                synchronized (this) {
+                    if (queue.isEmpty() && dropped == 0) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(queue.values());
+                    queue.clear();
+                    lost = dropped;
+                    dropped = 0;
+                    sendingSince = System.currentTimeMillis();
+                }
+                boolean sent = write(lost, batch);
+                boolean wasStalled;
+                synchronized (this) {
+                    sendingSince = 0;
+                    wasStalled = stalled;
+                    if (!sent) {
+                        queue.clear();
+                    }
+                }
+                if (wasStalled) {
+                    if (sender instanceof SenderPool pool) {
+                        pool.release();
+                    }
+                    emitter.complete();
+                    return;
+                }
+                if (!sent) {
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+
+        private boolean write(int lost, List<Queued> batch) {
+            try {
+                if (lost > 0) {
+                    emitter.send(SseEmitter.event().name("overflow").data(Map.of("dropped", lost)));
+                }
+                for (Queued queued : batch) {
+                    emitter.send(queued.name().isEmpty()
+                            ? SseEmitter.event().comment("heartbeat")
+                            : SseEmitter.event().name(queued.name()).data(queued.data()));
+                }
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the emitter
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package by.koronatech.office.core.push;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed pool of threads writing to SSE clients. A write to a stalled client blocks its
+ * thread until the container's write timeout, and cannot be interrupted; the owner writes such
+ * a client off with standIn(), which starts a thread in place of the blocked one until the
+ * write returns and release() is called, so stalled clients never use up the pool.
+ */
+public class SenderPool extends ThreadPoolExecutor {
+
+    private final int threads;
+
+    // Guarded by this
+    private int standIns;
+
+    public SenderPool(String name, int threads) {
+        super(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), newThreadFactory(name));
+        this.threads = threads;
+    }
+
+    public synchronized void standIn() {
+        standIns++;
+        setMaximumPoolSize(threads + standIns);
+        setCorePoolSize(threads + standIns);
+    }
+
+    public synchronized void release() {
+        standIns--;
+        setCorePoolSize(threads + standIns);
+        setMaximumPoolSize(threads + standIns);
+    }
+
+    private static ThreadFactory newThreadFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
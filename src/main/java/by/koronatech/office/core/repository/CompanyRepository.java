@@ -30,4 +30,8 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     List<Company> findCompaniesWithHighSalaryEmployeesNative(@Param("salary") BigDecimal salary);
     
     Optional<Company> findByName(String name);
+
+    // One round trip for a batch of IDs; the array binds as a single parameter
+    @Query(nativeQuery = true, value = "SELECT * FROM company WHERE id = ANY(:ids)")
+    List<Company> findAllByIds(@Param("ids") Long[] ids);
 }
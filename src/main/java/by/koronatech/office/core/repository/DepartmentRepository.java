@@ -19,6 +19,16 @@ public interface DepartmentRepository extends JpaRepository<Department, Long> {
 
     List<Department> findByCompanyId(Long companyId);
 
+    // One round trip for a batch of IDs; the array binds as a single parameter
+    @Query(nativeQuery = true, value = "SELECT * FROM department WHERE id = ANY(:ids)")
+    List<Department> findAllByIds(@Param("ids") Long[] ids);
+
+    // (department ID, company ID) of those that exist, row-locked until commit so bulk
+    // reassignments of the same departments run one after another
+    @Query(nativeQuery = true,
+            value = "SELECT id, company_id FROM department WHERE id = ANY(:ids) ORDER BY id FOR UPDATE")
+    List<Object[]> lockAllByIds(@Param("ids") Long[] ids);
+
     @Modifying
     @Transactional
     @Query(nativeQuery = true, value = "DELETE FROM employee_department WHERE department_id = :departmentId")
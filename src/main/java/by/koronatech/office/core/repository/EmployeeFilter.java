@@ -0,0 +1,37 @@
+package by.koronatech.office.core.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Criteria of the filtered employee listing. Null fields are not filtered on.
+ * afterValue/afterId are the sort key and id of the last row of the previous page.
+ */
+@Getter
+@Builder(toBuilder = true)
+@ToString
+public class EmployeeFilter {
+
+    public enum Sort { ID, NAME, SALARY }
+
+    private final BigDecimal minSalary;
+    private final BigDecimal maxSalary;
+    private final Boolean manager;
+    private final Long companyId;
+    private final List<Long> departmentIds;
+    private final String namePrefix;
+
+    @Builder.Default
+    private final Sort sort = Sort.ID;
+    private final boolean descending;
+    private final int limit;
+    private final Object afterValue;
+    private final Long afterId;
+
+    public boolean hasSalaryRange() {
+        return minSalary != null || maxSalary != null;
+    }
+}
@@ -0,0 +1,13 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.Employee;
+import jakarta.persistence.Tuple;
+import java.util.List;
+import java.util.Map;
+
+public interface EmployeeFilterRepository {
+    List<Employee> findByFilter(EmployeeFilter filter);
+
+    // Same page, reading only the given field name to attribute paths
+    List<Tuple> findFieldsByFilter(EmployeeFilter filter, Map<String, String> paths);
+}
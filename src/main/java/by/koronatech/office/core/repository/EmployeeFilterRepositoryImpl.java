@@ -0,0 +1,131 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.model.EmployeeDepartment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.Session;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaCriteriaQuery;
+
+/**
+ * Builds one statement per filter. Every predicate can use an index (see the entity
+ * indexes and schema.sql): department and company filters are EXISTS semi-joins on
+ * employee_department, so an employee in several matching departments appears once.
+ * Pages continue after the previous page's last (sort key, id) instead of using an offset.
+ */
+public class EmployeeFilterRepositoryImpl implements EmployeeFilterRepository {
+
+    // Same expression as idx_employee_name_prefix, so both LIKE and ORDER BY use the index
+    private static final String NAME_COLLATION = "\"C\"";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Employee> findByFilter(EmployeeFilter filter) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        JpaCriteriaQuery<Employee> query = cb.createQuery(Employee.class);
+        Root<Employee> employee = query.from(Employee.class);
+        query.select(employee);
+        return findPage(cb, query, employee, filter);
+    }
+
+    @Override
+    public List<Tuple> findFieldsByFilter(EmployeeFilter filter, Map<String, String> paths) {
+        HibernateCriteriaBuilder cb = entityManager.unwrap(Session.class).getCriteriaBuilder();
+        JpaCriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(FieldProjectionRepository.selections(employee, paths));
+        return findPage(cb, query, employee, filter);
+    }
+
+    private <T> List<T> findPage(HibernateCriteriaBuilder cb, JpaCriteriaQuery<T> query,
+                                 Root<Employee> employee, EmployeeFilter filter) {
+        Path<Long> id = employee.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (filter.getMinSalary() != null) {
+            where.add(cb.greaterThanOrEqualTo(employee.get("salary"), filter.getMinSalary()));
+        }
+        if (filter.getMaxSalary() != null) {
+            where.add(cb.lessThanOrEqualTo(employee.get("salary"), filter.getMaxSalary()));
+        }
+        if (filter.getManager() != null) {
+            where.add(cb.equal(employee.get("manager"), filter.getManager()));
+        }
+        if (filter.getNamePrefix() != null) {
+            where.add(cb.like(lowerName(cb, employee), LikePatterns.prefix(filter.getNamePrefix()), '\\'));
+        }
+        if (filter.getDepartmentIds() != null && !filter.getDepartmentIds().isEmpty()) {
+            Subquery<Long> inDepartments = query.subquery(Long.class);
+            Root<EmployeeDepartment> ed = inDepartments.from(EmployeeDepartment.class);
+            inDepartments.select(ed.get("id")).where(
+                    cb.equal(ed.get("employee"), employee),
+                    ed.get("department").get("id").in(filter.getDepartmentIds()));
+            where.add(cb.exists(inDepartments));
+        }
+        if (filter.getCompanyId() != null) {
+            Subquery<Long> inCompany = query.subquery(Long.class);
+            Root<EmployeeDepartment> ed = inCompany.from(EmployeeDepartment.class);
+            Join<Object, Object> department = ed.join("department");
+            inCompany.select(ed.get("id")).where(
+                    cb.equal(ed.get("employee"), employee),
+                    cb.equal(department.get("company").get("id"), filter.getCompanyId()));
+            where.add(cb.exists(inCompany));
+        }
+
+        Expression<? extends Comparable<?>> key = switch (filter.getSort()) {
+            case ID -> id;
+            case NAME -> lowerName(cb, employee);
+            case SALARY -> employee.get("salary");
+        };
+        if (filter.getAfterId() != null) {
+            where.add(after(cb, key, id, filter));
+        }
+
+        query.where(where.toArray(Predicate[]::new));
+        if (filter.getSort() == EmployeeFilter.Sort.ID) {
+            query.orderBy(filter.isDescending() ? cb.desc(id) : cb.asc(id));
+        } else if (filter.isDescending()) {
+            query.orderBy(cb.desc(key), cb.desc(id));
+        } else {
+            query.orderBy(cb.asc(key), cb.asc(id));
+        }
+        return entityManager.createQuery(query)
+                .setMaxResults(filter.getLimit())
+                .getResultList();
+    }
+
+    // (key, id) > (afterValue, afterId), or < when descending
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static Predicate after(HibernateCriteriaBuilder cb, Expression<? extends Comparable<?>> key,
+                                   Path<Long> id, EmployeeFilter filter) {
+        boolean desc = filter.isDescending();
+        Predicate afterId = desc ? cb.lessThan(id, filter.getAfterId()) : cb.greaterThan(id, filter.getAfterId());
+        if (filter.getSort() == EmployeeFilter.Sort.ID) {
+            return afterId;
+        }
+        Comparable value = (Comparable) filter.getAfterValue();
+        Expression<Comparable> k = (Expression<Comparable>) (Expression<?>) key;
+        // The redundant bound is what the planner turns into an index range start;
+        // the OR alone would make it walk the index from the beginning
+        return cb.and(desc ? cb.lessThanOrEqualTo(k, value) : cb.greaterThanOrEqualTo(k, value),
+                cb.or(desc ? cb.lessThan(k, value) : cb.greaterThan(k, value),
+                        cb.and(cb.equal(k, value), afterId)));
+    }
+
+    private static Expression<String> lowerName(HibernateCriteriaBuilder cb, Root<Employee> employee) {
+        return cb.collate(cb.lower(employee.get("name")), NAME_COLLATION);
+    }
+}
@@ -0,0 +1,79 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.EmployeeHierarchy;
+import jakarta.persistence.Tuple;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Reads and maintains the employee_hierarchy closure table. A move touches only the rows
+ * linking the moved subtree to its old and new supervisors' chains, and every read is a
+ * single index range scan whatever the depth. Reads return plain tuples: large org charts
+ * are mapped straight to DTOs without a projection proxy per row.
+ */
+@org.springframework.stereotype.Repository
+public interface EmployeeHierarchyRepository extends Repository<EmployeeHierarchy, EmployeeHierarchy.Key> {
+
+    // Serializes hierarchy changes until commit, so concurrent moves cannot form a cycle
+    @Query(nativeQuery = true,
+            value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('employee_hierarchy'))")
+    int lock();
+
+    @Query(nativeQuery = true, value = "SELECT EXISTS (SELECT 1 FROM employee_hierarchy "
+            + "WHERE ancestor_id = :ancestorId AND descendant_id = :descendantId)")
+    boolean isReport(@Param("ancestorId") Long ancestorId, @Param("descendantId") Long descendantId);
+
+    // Unlinks the subtree rooted at :id from all of its supervisors above it
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM employee_hierarchy "
+            + "WHERE ancestor_id IN (SELECT ancestor_id FROM employee_hierarchy WHERE descendant_id = :id) "
+            + "AND (descendant_id = :id OR descendant_id IN "
+            + "(SELECT descendant_id FROM employee_hierarchy WHERE ancestor_id = :id))")
+    int detachSubtree(@Param("id") Long id);
+
+    // Links every member of the subtree rooted at :id to :supervisorId and its supervisors
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO employee_hierarchy (ancestor_id, descendant_id, depth) "
+            + "SELECT a.ancestor_id, d.descendant_id, a.depth + d.depth + 1 FROM "
+            + "(SELECT ancestor_id, depth FROM employee_hierarchy WHERE descendant_id = :supervisorId "
+            + "UNION ALL SELECT CAST(:supervisorId AS bigint), 0) a CROSS JOIN "
+            + "(SELECT descendant_id, depth FROM employee_hierarchy WHERE ancestor_id = :id "
+            + "UNION ALL SELECT CAST(:id AS bigint), 0) d")
+    int attachSubtree(@Param("id") Long id, @Param("supervisorId") Long supervisorId);
+
+    // Removes :id from the hierarchy; its reports move one level up with their subtrees
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE employee_hierarchy SET depth = depth - 1 "
+            + "WHERE ancestor_id IN (SELECT ancestor_id FROM employee_hierarchy WHERE descendant_id = :id) "
+            + "AND descendant_id IN (SELECT descendant_id FROM employee_hierarchy WHERE ancestor_id = :id)")
+    int shortenPathsThrough(@Param("id") Long id);
+
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "DELETE FROM employee_hierarchy WHERE ancestor_id = :id OR descendant_id = :id")
+    int deleteNode(@Param("id") Long id);
+
+    @Query(nativeQuery = true, value = "SELECT id FROM employee WHERE supervisor_id = :id")
+    List<Long> findDirectReportIds(@Param("id") Long id);
+
+    @Modifying
+    @Query(nativeQuery = true,
+            value = "UPDATE employee SET supervisor_id = :supervisorId, version = version + 1 "
+                    + "WHERE supervisor_id = :id")
+    int reassignDirectReports(@Param("id") Long id, @Param("supervisorId") Long supervisorId);
+
+    @Query(nativeQuery = true, value = "SELECT e.id AS id, e.name AS name, "
+            + "e.supervisor_id AS \"supervisorId\", h.depth AS depth "
+            + "FROM employee_hierarchy h JOIN employee e ON e.id = h.descendant_id "
+            + "WHERE h.ancestor_id = :id AND h.depth <= :maxDepth ORDER BY h.depth, h.descendant_id")
+    List<Tuple> findReports(@Param("id") Long id, @Param("maxDepth") int maxDepth);
+
+    @Query(nativeQuery = true, value = "SELECT e.id AS id, e.name AS name, "
+            + "e.supervisor_id AS \"supervisorId\", h.depth AS depth "
+            + "FROM employee_hierarchy h JOIN employee e ON e.id = h.ancestor_id "
+            + "WHERE h.descendant_id = :id ORDER BY h.depth")
+    List<Tuple> findChain(@Param("id") Long id);
+}
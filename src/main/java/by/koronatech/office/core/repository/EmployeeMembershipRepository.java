@@ -0,0 +1,20 @@
+package by.koronatech.office.core.repository;
+
+import java.util.List;
+
+/**
+ * Set-based changes of employee_department. Each method is one statement whatever the number
+ * of employees, and returns the IDs of the employees whose membership it changed.
+ * A null employeeIds means every member of the source department.
+ */
+public interface EmployeeMembershipRepository {
+
+    /** Adds the employees to the department; employees already in it are skipped. */
+    List<Long> assignDepartment(Long[] employeeIds, Long departmentId);
+
+    /** Adds the members of one department to another, skipping those already in it. */
+    List<Long> copyMembers(Long[] employeeIds, Long fromDepartmentId, Long toDepartmentId);
+
+    /** Removes the employees from the department. */
+    List<Long> unassignDepartment(Long[] employeeIds, Long departmentId);
+}
@@ -0,0 +1,67 @@
+package by.koronatech.office.core.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.util.List;
+
+/**
+ * INSERT ... SELECT and DELETE with RETURNING, so the rows are never loaded as entities and
+ * the caller still learns exactly which employees changed. NOT EXISTS keeps repeated
+ * requests from adding a membership twice.
+ */
+public class EmployeeMembershipRepositoryImpl implements EmployeeMembershipRepository {
+
+    private static final String ASSIGN = "INSERT INTO employee_department (employee_id, department_id) "
+            + "SELECT e.id, :departmentId FROM employee e WHERE e.id = ANY(:ids) "
+            + "AND NOT EXISTS (SELECT 1 FROM employee_department m "
+            + "WHERE m.employee_id = e.id AND m.department_id = :departmentId) "
+            + "RETURNING employee_id";
+    private static final String COPY = "INSERT INTO employee_department (employee_id, department_id) "
+            + "SELECT DISTINCT ed.employee_id, :toId FROM employee_department ed "
+            + "WHERE ed.department_id = :fromId%s "
+            + "AND NOT EXISTS (SELECT 1 FROM employee_department m "
+            + "WHERE m.employee_id = ed.employee_id AND m.department_id = :toId) "
+            + "RETURNING employee_id";
+    private static final String UNASSIGN = "DELETE FROM employee_department "
+            + "WHERE department_id = :departmentId%s RETURNING employee_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> assignDepartment(Long[] employeeIds, Long departmentId) {
+        return ids(entityManager.createNativeQuery(ASSIGN)
+                .setParameter("ids", employeeIds)
+                .setParameter("departmentId", departmentId));
+    }
+
+    @Override
+    public List<Long> copyMembers(Long[] employeeIds, Long fromDepartmentId, Long toDepartmentId) {
+        Query query = entityManager.createNativeQuery(COPY.formatted(employeeFilter(employeeIds, "ed.")))
+                .setParameter("fromId", fromDepartmentId)
+                .setParameter("toId", toDepartmentId);
+        return ids(withEmployees(query, employeeIds));
+    }
+
+    @Override
+    public List<Long> unassignDepartment(Long[] employeeIds, Long departmentId) {
+        Query query = entityManager.createNativeQuery(UNASSIGN.formatted(employeeFilter(employeeIds, "")))
+                .setParameter("departmentId", departmentId);
+        return ids(withEmployees(query, employeeIds));
+    }
+
+    private static String employeeFilter(Long[] employeeIds, String alias) {
+        return employeeIds != null ? " AND " + alias + "employee_id = ANY(:ids)" : "";
+    }
+
+    private static Query withEmployees(Query query, Long[] employeeIds) {
+        return employeeIds != null ? query.setParameter("ids", employeeIds) : query;
+    }
+
+    private static List<Long> ids(Query query) {
+        @SuppressWarnings("unchecked")
+        List<Number> rows = query.getResultList();
+        return rows.stream().map(Number::longValue).toList();
+    }
+}
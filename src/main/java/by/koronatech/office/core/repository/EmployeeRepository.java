@@ -10,10 +10,12 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeFilterRepository,
+        EmployeeUpdateRepository, EmployeeMembershipRepository {
     Page<Employee> findByEmployeeDepartmentsDepartmentName(
             String departmentName,
             Pageable pageable
@@ -22,6 +24,33 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
     @Query("SELECT DISTINCT e FROM Employee e JOIN e.employeeDepartments ed WHERE ed.department.id = :departmentId")
     List<Employee> findByDepartmentId(@Param("departmentId") Long departmentId);
 
+    // Every employee that has a department, with all of their departments, in one statement
+    @Query("SELECT DISTINCT e FROM Employee e JOIN FETCH e.employeeDepartments ed JOIN FETCH ed.department")
+    List<Employee> findAllWithDepartments();
+
     @Query(nativeQuery = true, value = "SELECT employee_id FROM employee_department WHERE department_id = :departmentId")
     List<Long> findEmployeeIdsByDepartmentId(@Param("departmentId") Long departmentId);
-}
\ No newline at end of file
+
+    // (employee ID, department name) pairs, for responses that ask for departmentNames only
+    @Query("SELECT ed.employee.id, ed.department.name FROM EmployeeDepartment ed WHERE ed.employee.id IN :ids")
+    List<Object[]> findDepartmentNames(@Param("ids") Collection<Long> ids);
+
+    // (department ID, company ID, department name) of each department the employee is in
+    @Query("SELECT d.id, c.id, d.name FROM EmployeeDepartment ed JOIN ed.department d "
+            + "LEFT JOIN d.company c WHERE ed.employee.id = :id")
+    List<Object[]> findDepartmentsOf(@Param("id") Long id);
+
+    @Query("SELECT ed.employee.id, ed.department.name FROM EmployeeDepartment ed")
+    List<Object[]> findAllDepartmentNames();
+
+    // One round trip for a batch of IDs; the array binds as a single parameter
+    @Query(nativeQuery = true, value = "SELECT * FROM employee WHERE id = ANY(:ids)")
+    List<Employee> findAllByIds(@Param("ids") Long[] ids);
+
+    // (employee ID, salary, manager, department ID, company ID), one row per membership and a
+    // row with null department for employees in none
+    @Query(nativeQuery = true, value = "SELECT e.id, e.salary, e.manager, d.id AS department_id, d.company_id "
+            + "FROM employee e LEFT JOIN employee_department ed ON ed.employee_id = e.id "
+            + "LEFT JOIN department d ON d.id = ed.department_id WHERE e.id = ANY(:ids)")
+    List<Object[]> findMembershipStates(@Param("ids") Long[] ids);
+}
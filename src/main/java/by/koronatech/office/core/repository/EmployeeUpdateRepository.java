@@ -0,0 +1,25 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.Employee;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+public interface EmployeeUpdateRepository {
+
+    /**
+     * Sets the given columns (name, salary, manager) in one statement, without loading the
+     * employee first; columns that are not given are not written. With an expected version
+     * the row is only changed while it still has that version. Empty when the employee does
+     * not exist or its version has moved on.
+     */
+    Optional<UpdatedEmployee> updateIfVersion(Long id, Map<String, Object> columns, Long expectedVersion);
+
+    // Reloads a loaded employee whose row was changed by a statement that bypassed the session
+    void refresh(Employee employee);
+
+    // The row as written, and the salary and manager flag it had before
+    record UpdatedEmployee(String name, BigDecimal salary, boolean manager, Long supervisorId,
+                           long version, BigDecimal previousSalary, boolean previousManager) {
+    }
+}
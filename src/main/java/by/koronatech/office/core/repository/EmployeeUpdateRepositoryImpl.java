@@ -0,0 +1,70 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.Employee;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Only the given columns are written, so a partial update sends and logs just what changed.
+ * The update is a compare-and-set on the version column: under concurrent writers the row
+ * lock serializes them and every writer after the first sees a version that no longer
+ * matches, so no update is silently overwritten. The self-join reads the row as it was
+ * before the statement, which the change events need. It locks the row itself: a plain join
+ * would keep the statement's snapshot of the row while the update waited on a concurrent
+ * writer, and report that writer's predecessor as the previous state.
+ */
+public class EmployeeUpdateRepositoryImpl implements EmployeeUpdateRepository {
+
+    // Column names are spliced into the statement, so only these are accepted
+    private static final Set<String> COLUMNS = Set.of("name", "salary", "manager");
+    private static final String FROM = " FROM (SELECT id, salary, manager FROM employee WHERE id = :id FOR UPDATE) old"
+            + " WHERE e.id = old.id";
+    private static final String VERSION_CONDITION = " AND e.version = :version";
+    private static final String RETURNING = " RETURNING e.name, e.salary, e.manager, e.supervisor_id, "
+            + "e.version, old.salary, old.manager";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<UpdatedEmployee> updateIfVersion(Long id, Map<String, Object> columns,
+                                                     Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE employee e SET ");
+        for (String column : columns.keySet()) {
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Cannot update employee column " + column);
+            }
+            sql.append(column).append(" = :").append(column).append(", ");
+        }
+        sql.append("version = e.version + 1").append(FROM);
+        if (expectedVersion != null) {
+            sql.append(VERSION_CONDITION);
+        }
+        Query query = entityManager.createNativeQuery(sql.append(RETURNING).toString())
+                .setParameter("id", id);
+        columns.forEach(query::setParameter);
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        return Optional.of(new UpdatedEmployee((String) row[0], (BigDecimal) row[1], (Boolean) row[2],
+                row[3] != null ? ((Number) row[3]).longValue() : null, ((Number) row[4]).longValue(),
+                (BigDecimal) row[5], (Boolean) row[6]));
+    }
+
+    @Override
+    public void refresh(Employee employee) {
+        entityManager.refresh(employee);
+    }
+}
@@ -0,0 +1,48 @@
+package by.koronatech.office.core.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.List;
+import java.util.Map;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reads only the requested columns of an entity. Each selection is aliased by its field
+ * name, and a nested path such as "company.name" joins only when it is selected.
+ */
+@Repository
+public class FieldProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /** Every row of the entity ordered by ID, with the given field name to attribute paths. */
+    public List<Tuple> findAll(Class<?> entity, Map<String, String> paths) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<?> root = query.from(entity);
+        query.multiselect(selections(root, paths)).orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    static List<Selection<?>> selections(Root<?> root, Map<String, String> paths) {
+        return paths.entrySet().stream()
+                .<Selection<?>>map(field -> attribute(root, field.getValue()).alias(field.getKey()))
+                .toList();
+    }
+
+    // A to-one ".id" resolves to the foreign key column without a join
+    private static Path<?> attribute(Root<?> root, String path) {
+        Path<?> attribute = root;
+        for (String name : path.split("\\.")) {
+            attribute = attribute.get(name);
+        }
+        return attribute;
+    }
+}
@@ -0,0 +1,40 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.IdempotencyRecord;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Takes the key unless a live claim or result holds it; returns 0 when it is taken
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO idempotency_record "
+            + "(idempotency_key, fingerprint, created_at, expires_at) VALUES (:key, :fingerprint, :now, :leaseUntil) "
+            + "ON CONFLICT (idempotency_key) DO UPDATE SET fingerprint = EXCLUDED.fingerprint, "
+            + "status = NULL, content_type = NULL, body = NULL, "
+            + "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at "
+            + "WHERE idempotency_record.expires_at < :now")
+    int claim(@Param("key") String key, @Param("fingerprint") String fingerprint,
+              @Param("now") Instant now, @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = :status, r.contentType = :contentType, "
+            + "r.body = :body, r.expiresAt = :expiresAt "
+            + "WHERE r.idempotencyKey = :key AND r.status IS NULL")
+    int complete(@Param("key") String key, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") byte[] body,
+                 @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.status IS NULL")
+    int release(@Param("key") String key);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
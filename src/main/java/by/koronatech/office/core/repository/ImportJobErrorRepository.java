@@ -0,0 +1,12 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.ImportJobError;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobErrorRepository extends JpaRepository<ImportJobError, Long> {
+    Page<ImportJobError> findByJobIdOrderByRowIndexAscIdAsc(String jobId, Pageable pageable);
+}
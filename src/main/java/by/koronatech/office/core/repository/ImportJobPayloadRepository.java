@@ -0,0 +1,9 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.ImportJobPayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ImportJobPayloadRepository extends JpaRepository<ImportJobPayload, String> {
+}
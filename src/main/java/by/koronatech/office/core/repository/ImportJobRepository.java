@@ -0,0 +1,64 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.ImportJob;
+import by.koronatech.office.core.model.ImportJobStatus;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// State changes are conditional updates, so the worker and a concurrent cancel never overwrite each other
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+    @Query("SELECT j FROM ImportJob j WHERE j.status IN :statuses "
+            + "AND (j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore) ORDER BY j.createdAt")
+    List<ImportJob> findAbandoned(@Param("statuses") Collection<ImportJobStatus> statuses,
+                                  @Param("staleBefore") Instant staleBefore);
+
+    @Query("SELECT j.cancelRequested FROM ImportJob j WHERE j.id = :id")
+    boolean isCancelRequested(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.status = :to, j.startedAt = :now, j.runStartRow = j.processedRows, "
+            + "j.owner = :owner, j.heartbeatAt = :now "
+            + "WHERE j.id = :id AND j.status IN :from "
+            + "AND (j.owner = :owner OR j.heartbeatAt IS NULL OR j.heartbeatAt < :staleBefore)")
+    int markRunning(@Param("id") String id, @Param("from") Collection<ImportJobStatus> from,
+                    @Param("to") ImportJobStatus to, @Param("owner") String owner,
+                    @Param("now") Instant now, @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.heartbeatAt = :now "
+            + "WHERE j.id IN :ids AND j.owner = :owner AND j.status IN :statuses")
+    int heartbeat(@Param("ids") Collection<String> ids, @Param("owner") String owner,
+                  @Param("statuses") Collection<ImportJobStatus> statuses, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.processedRows = :processedRows, "
+            + "j.createdRows = j.createdRows + :created, j.failedRows = j.failedRows + :failed "
+            + "WHERE j.id = :id AND j.owner = :owner")
+    int recordProgress(@Param("id") String id, @Param("owner") String owner,
+                       @Param("processedRows") int processedRows,
+                       @Param("created") int created, @Param("failed") int failed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.status = :to, j.finishedAt = :now, j.message = :message "
+            + "WHERE j.id = :id AND j.status = :from")
+    int transition(@Param("id") String id, @Param("from") ImportJobStatus from,
+                   @Param("to") ImportJobStatus to, @Param("now") Instant now,
+                   @Param("message") String message);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE ImportJob j SET j.cancelRequested = true WHERE j.id = :id AND j.status = :status")
+    int requestCancel(@Param("id") String id, @Param("status") ImportJobStatus status);
+}
@@ -0,0 +1,18 @@
+package by.koronatech.office.core.repository;
+
+import java.util.Locale;
+
+/** LIKE patterns built from user input, escaped with a backslash, the PostgreSQL default. */
+public final class LikePatterns {
+
+    private LikePatterns() {
+    }
+
+    /** Matches names starting with the input, lowercased; wildcards in it are matched literally. */
+    public static String prefix(String input) {
+        return input.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,46 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.OutboxEvent;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Held until commit: the IDs a transaction takes are visible before any later ones,
+    // so a reader that has seen ID n will never be handed a smaller one afterwards
+    @Query(nativeQuery = true, value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('outbox_event'))")
+    int lock();
+
+    // All of a transaction's events in one statement, numbered in array order
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO outbox_event (entity_type, entity_id, operation, created_at) "
+            + "SELECT t.entity_type, t.entity_id, t.operation, :createdAt "
+            + "FROM unnest(CAST(:types AS varchar[]), CAST(:ids AS bigint[]), CAST(:operations AS varchar[])) "
+            + "WITH ORDINALITY AS t(entity_type, entity_id, operation, n) ORDER BY t.n")
+    int insertAll(@Param("types") String[] types, @Param("ids") Long[] ids,
+                  @Param("operations") String[] operations, @Param("createdAt") Instant createdAt);
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.id > :after ORDER BY e.id")
+    List<OutboxEvent> findAfter(@Param("after") long after, Pageable pageable);
+
+    @Query("SELECT max(e.id) FROM OutboxEvent e")
+    Long findMaxId();
+
+    @Query("SELECT min(e.id) FROM OutboxEvent e")
+    Long findMinId();
+
+    // Keeps the newest event, so the oldest one left still shows how far purging went
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxEvent e WHERE e.createdAt < :before "
+            + "AND e.id < (SELECT max(o.id) FROM OutboxEvent o)")
+    int deleteCreatedBefore(@Param("before") Instant before);
+}
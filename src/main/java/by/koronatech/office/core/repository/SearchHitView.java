@@ -0,0 +1,11 @@
+package by.koronatech.office.core.repository;
+
+public interface SearchHitView {
+    String getType();
+
+    Long getId();
+
+    String getName();
+
+    Double getScore();
+}
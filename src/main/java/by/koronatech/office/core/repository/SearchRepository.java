@@ -0,0 +1,44 @@
+package by.koronatech.office.core.repository;
+
+import by.koronatech.office.core.model.Employee;
+import java.util.List;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Name search over employees, departments and companies (indexes in schema.sql).
+ * Prefix hits are read in index order, so each branch stops after :limit rows.
+ * Fuzzy hits are ranked among at most :candidates trigram matches per table, which keeps
+ * common names from turning the search into a scan of every similar row.
+ */
+@org.springframework.stereotype.Repository
+public interface SearchRepository extends Repository<Employee, Long> {
+
+    @Query(nativeQuery = true, value = "SELECT type, id, name, score FROM ("
+            + "(SELECT 'EMPLOYEE' AS type, id, name, 1 + word_similarity(:query, name) AS score "
+            + "FROM employee WHERE lower(name) COLLATE \"C\" LIKE :prefix "
+            + "ORDER BY lower(name) COLLATE \"C\" LIMIT :limit) "
+            + "UNION ALL (SELECT 'DEPARTMENT', id, name, 1 + word_similarity(:query, name) "
+            + "FROM department WHERE lower(name) COLLATE \"C\" LIKE :prefix "
+            + "ORDER BY lower(name) COLLATE \"C\" LIMIT :limit) "
+            + "UNION ALL (SELECT 'COMPANY', id, name, 1 + word_similarity(:query, name) "
+            + "FROM company WHERE lower(name) COLLATE \"C\" LIKE :prefix "
+            + "ORDER BY lower(name) COLLATE \"C\" LIMIT :limit)"
+            + ") hits ORDER BY score DESC, name LIMIT :limit")
+    List<SearchHitView> searchByPrefix(@Param("query") String query,
+                                       @Param("prefix") String prefix,
+                                       @Param("limit") int limit);
+
+    @Query(nativeQuery = true, value = "SELECT type, id, name, word_similarity(:query, name) AS score FROM ("
+            + "(SELECT 'EMPLOYEE' AS type, id, name FROM employee "
+            + "WHERE :query <% name LIMIT :candidates) "
+            + "UNION ALL (SELECT 'DEPARTMENT', id, name FROM department "
+            + "WHERE :query <% name LIMIT :candidates) "
+            + "UNION ALL (SELECT 'COMPANY', id, name FROM company "
+            + "WHERE :query <% name LIMIT :candidates)"
+            + ") hits ORDER BY score DESC, name LIMIT :limit")
+    List<SearchHitView> searchBySimilarity(@Param("query") String query,
+                                           @Param("candidates") int candidates,
+                                           @Param("limit") int limit);
+}
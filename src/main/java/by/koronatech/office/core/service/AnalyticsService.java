@@ -0,0 +1,16 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.api.dto.SalaryBandsDto;
+import by.koronatech.office.api.dto.SalaryBucketDto;
+import by.koronatech.office.api.dto.TopEarnersDto;
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface AnalyticsService {
+
+    List<SalaryBucketDto> getSalaryHistogram(int buckets, Long companyId, Long departmentId);
+
+    List<TopEarnersDto> getTopEarners(int limit, Long companyId);
+
+    SalaryBandsDto getSalaryBands(List<BigDecimal> bounds, String groupBy);
+}
@@ -1,20 +1,29 @@
 package by.koronatech.office.core.service;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CompanyDto;
+import by.koronatech.office.api.dto.CompanyPatchDto;
 import by.koronatech.office.api.dto.CompanyReturnDto;
 import by.koronatech.office.api.dto.EmployeeDto;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 public interface CompanyService {
     List<CompanyReturnDto> getAllCompanies();
 
+    List<Map<String, Object>> getAllCompanyFields(String fields);
+
     CompanyReturnDto getCompanyById(Long id);
 
+    List<BatchItemDto<CompanyReturnDto>> getCompaniesByIds(List<Long> ids);
+
     CompanyDto createCompany(CompanyDto companyDto);
 
     CompanyDto updateCompany(Long id, CompanyDto updatedCompanyDto);
 
+    CompanyDto patchCompany(Long id, CompanyPatchDto patch);
+
     void deleteCompany(Long companyId);
 
     List<EmployeeDto> findEmployeesByDepartment(Long companyId, String departmentName);
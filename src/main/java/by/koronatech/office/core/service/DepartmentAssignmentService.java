@@ -0,0 +1,9 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.api.dto.DepartmentAssignmentDto;
+import by.koronatech.office.api.dto.DepartmentAssignmentResultDto;
+
+public interface DepartmentAssignmentService {
+
+    DepartmentAssignmentResultDto reassign(DepartmentAssignmentDto request);
+}
@@ -1,18 +1,27 @@
 package by.koronatech.office.core.service;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.DepartmentDto;
+import by.koronatech.office.api.dto.DepartmentPatchDto;
 import by.koronatech.office.api.dto.DepartmentReturnDto;
 
 import java.util.List;
+import java.util.Map;
 
 public interface DepartmentService {
     List<DepartmentReturnDto> getAllDepartments();
 
+    List<Map<String, Object>> getAllDepartmentFields(String fields);
+
     DepartmentReturnDto getDepartmentById(Long id);
 
+    List<BatchItemDto<DepartmentReturnDto>> getDepartmentsByIds(List<Long> ids);
+
     DepartmentDto createDepartment(DepartmentDto departmentDto);
 
     DepartmentDto updateDepartment(Long id, DepartmentDto updatedDepartmentDto);
 
+    DepartmentDto patchDepartment(Long id, DepartmentPatchDto patch);
+
     void deleteDepartment(Long id);
 }
@@ -0,0 +1,35 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import java.io.OutputStream;
+import java.util.Locale;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+public interface EmployeeExportService {
+
+    /** Writes every employee to the stream as it is read; the stream is not closed. */
+    void export(Format format, OutputStream out);
+
+    @Getter
+    @RequiredArgsConstructor
+    enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String contentType;
+
+        public String getExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new HttpStatusException(400, "Unsupported export format: " + value);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.api.dto.OrgNodeDto;
+import java.util.List;
+
+public interface EmployeeHierarchyService {
+
+    void setSupervisor(Long id, Long supervisorId);
+
+    List<OrgNodeDto> findReports(Long id, Integer maxDepth);
+
+    List<OrgNodeDto> findChain(Long id);
+
+    void removeFromHierarchy(Long id);
+}
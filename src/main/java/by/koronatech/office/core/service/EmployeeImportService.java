@@ -0,0 +1,20 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.api.dto.CreateEmployeeDto;
+import by.koronatech.office.api.dto.ImportJobDto;
+import by.koronatech.office.api.dto.ImportJobErrorDto;
+import java.util.List;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface EmployeeImportService {
+
+    ImportJobDto submit(List<CreateEmployeeDto> rows);
+
+    ImportJobDto submit(MultipartFile file);
+
+    ImportJobDto getJob(String id);
+
+    ImportJobDto cancel(String id);
+
+    List<ImportJobErrorDto> getErrors(String id, int page, int size);
+}
@@ -1,8 +1,11 @@
 package by.koronatech.office.core.service;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CreateEmployeeDto;
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.api.dto.EmployeePageDto;
 import by.koronatech.office.api.dto.UpdateDto;
+import by.koronatech.office.core.repository.EmployeeFilter;
 import java.util.List;
 import java.util.Map;
 
@@ -12,13 +15,24 @@ public interface EmployeeService {
 
     List<EmployeeDto> getAllEmployees();
 
+    List<Map<String, Object>> getAllEmployeeFields(String fields);
+
     public Map<String, Object> bulkCreateEmployees(List<CreateEmployeeDto> employeeDtos);
 
     List<EmployeeDto> findAllEmployeesByDepartment(String department);
 
+    Map<Long, List<EmployeeDto>> findAllEmployeesByDepartmentId();
+
+    EmployeePageDto<EmployeeDto> filterEmployees(EmployeeFilter filter, String sort, String cursor);
+
+    EmployeePageDto<Map<String, Object>> filterEmployeeFields(EmployeeFilter filter, String sort,
+                                                              String cursor, String fields);
+
     EmployeeDto updateEmployee(Long id, UpdateDto employeeDto);
 
     EmployeeDto findEmployeeById(Long employeeId);
 
+    List<BatchItemDto<EmployeeDto>> findEmployeesByIds(List<Long> ids);
+
     void deleteEmployee(Long employeeId);
 }
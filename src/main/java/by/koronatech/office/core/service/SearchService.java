@@ -0,0 +1,8 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.api.dto.SearchHitDto;
+import java.util.List;
+
+public interface SearchService {
+    List<SearchHitDto> searchByName(String query, int limit);
+}
@@ -0,0 +1,15 @@
+package by.koronatech.office.core.service;
+
+import by.koronatech.office.api.dto.SalaryStatsDto;
+import java.util.List;
+
+public interface StatsService {
+
+    List<SalaryStatsDto> getDepartmentStats();
+
+    SalaryStatsDto getDepartmentStats(Long id);
+
+    List<SalaryStatsDto> getCompanyStats();
+
+    SalaryStatsDto getCompanyStats(Long id);
+}
@@ -0,0 +1,573 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.EarnerDto;
+import by.koronatech.office.api.dto.SalaryBandsDto;
+import by.koronatech.office.api.dto.SalaryBucketDto;
+import by.koronatech.office.api.dto.TopEarnersDto;
+import by.koronatech.office.core.analytics.EmployeeColumns;
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.event.OrganizationChange;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.service.AnalyticsService;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Answers salary questions from an in-memory {@link EmployeeColumns} snapshot instead of
+ * joining the tables in the database. The snapshot is built on startup, kept current from
+ * {@link EmployeeChange} events and rebuilt periodically to drop deleted rows. Queries
+ * split the rows into chunks scanned in parallel on a dedicated pool.
+ */
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+    private static final Logger logger = LoggerFactory.getLogger(AnalyticsServiceImpl.class);
+
+    private static final String DEPARTMENTS_SQL = "SELECT id, company_id FROM department";
+    private static final String COMPANIES_SQL = "SELECT id FROM company";
+    private static final String COUNT_SQL = "SELECT count(*) FROM employee";
+    // Same merge join as the export: each employee's departments arrive on adjacent rows
+    private static final String EMPLOYEES_SQL = "SELECT e.id, e.salary, e.manager, ed.department_id "
+            + "FROM employee e LEFT JOIN employee_department ed ON ed.employee_id = e.id "
+            + "ORDER BY e.id";
+
+    private static final int MAX_BUCKETS = 1000;
+    private static final int MAX_TOP_EARNERS = 100;
+    private static final int MAX_BOUNDS = 50;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MIN_CHUNK_ROWS = 16 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Not read-only: the snapshot must not miss changes a lagging replica has not applied yet
+    private final TransactionTemplate transactionTemplate;
+    private final ForkJoinPool pool;
+    private final boolean enabled;
+
+    // Queries hold the read lock; changes and the snapshot swap hold the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private EmployeeColumns columns;
+    // Changes that arrived while a new snapshot was being loaded, replayed onto it
+    private List<Recorded> pending;
+
+    public AnalyticsServiceImpl(DataSource dataSource,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.analytics.enabled:true}") boolean enabled,
+                                @Value("${app.analytics.parallelism:0}") int parallelism,
+                                @Value("${app.analytics.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.pool = new ForkJoinPool(parallelism > 0
+                ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public List<SalaryBucketDto> getSalaryHistogram(int buckets, Long companyId, Long departmentId) {
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            throw new HttpStatusException(400, "buckets must be between 1 and " + MAX_BUCKETS);
+        }
+        lock.readLock().lock();
+        try {
+            EmployeeColumns snapshot = snapshot();
+            int company = companyId == null ? -1 : ordinal(snapshot.companyOrdinal(companyId), "Company", companyId);
+            int department = departmentId == null ? -1
+                    : ordinal(snapshot.departmentOrdinal(departmentId), "Department", departmentId);
+
+            long[] range = scan(snapshot, () -> new long[] {Long.MAX_VALUE, Long.MIN_VALUE}, (acc, from, to) -> {
+                for (int row = from; row < to; row++) {
+                    long salary = snapshot.salary(row);
+                    if (salary != EmployeeColumns.NO_SALARY && snapshot.isLive(row)
+                            && matches(snapshot, row, company, department)) {
+                        acc[0] = Math.min(acc[0], salary);
+                        acc[1] = Math.max(acc[1], salary);
+                    }
+                }
+            }, (a, b) -> new long[] {Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+            if (range[0] > range[1]) {
+                return List.of();
+            }
+
+            // Equal-width buckets over [min, max]; cuts[i] is the lower bound of bucket i
+            long span = range[1] - range[0] + 1;
+            int count = (int) Math.min(buckets, span);
+            long[] cuts = new long[count + 1];
+            for (int i = 0; i <= count; i++) {
+                cuts[i] = range[0] + (long) Math.floor((double) span * i / count);
+            }
+            cuts[count] = range[1] + 1;
+
+            long[] counts = scan(snapshot, () -> new long[count], (acc, from, to) -> {
+                for (int row = from; row < to; row++) {
+                    long salary = snapshot.salary(row);
+                    if (salary != EmployeeColumns.NO_SALARY && snapshot.isLive(row)
+                            && matches(snapshot, row, company, department)) {
+                        acc[band(cuts, salary) - 1]++;
+                    }
+                }
+            }, AnalyticsServiceImpl::sum);
+
+            List<SalaryBucketDto> result = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                result.add(SalaryBucketDto.builder()
+                        .from(EmployeeColumns.fromCents(cuts[i]))
+                        .to(EmployeeColumns.fromCents(cuts[i + 1]))
+                        .count(counts[i])
+                        .build());
+            }
+            logger.info("Computed salary histogram with {} buckets over {} employees", count, snapshot.liveCount());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TopEarnersDto> getTopEarners(int limit, Long companyId) {
+        if (limit < 1 || limit > MAX_TOP_EARNERS) {
+            throw new HttpStatusException(400, "limit must be between 1 and " + MAX_TOP_EARNERS);
+        }
+        lock.readLock().lock();
+        try {
+            EmployeeColumns snapshot = snapshot();
+            int only = companyId == null ? -1 : ordinal(snapshot.companyOrdinal(companyId), "Company", companyId);
+            int companies = snapshot.companies();
+
+            TopN[] top = scan(snapshot, () -> new TopN[companies], (acc, from, to) -> {
+                for (int row = from; row < to; row++) {
+                    long salary = snapshot.salary(row);
+                    if (salary == EmployeeColumns.NO_SALARY || !snapshot.isLive(row)) {
+                        continue;
+                    }
+                    int departments = snapshot.departmentCount(row);
+                    for (int i = 0; i < departments; i++) {
+                        int company = snapshot.departmentCompany(snapshot.department(row, i));
+                        if ((only < 0 || company == only) && firstOfCompany(snapshot, row, i, company)) {
+                            if (acc[company] == null) {
+                                acc[company] = new TopN(limit);
+                            }
+                            acc[company].offer(salary, row);
+                        }
+                    }
+                }
+            }, (a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] = a[i] == null ? b[i] : b[i] == null ? a[i] : a[i].merge(b[i]);
+                }
+                return a;
+            });
+
+            List<TopEarnersDto> result = new ArrayList<>();
+            for (int company = 0; company < companies; company++) {
+                if (top[company] != null) {
+                    result.add(top[company].toDto(snapshot, snapshot.companyId(company)));
+                }
+            }
+            result.sort((a, b) -> Long.compare(a.getCompanyId(), b.getCompanyId()));
+            logger.info("Computed top {} earners for {} companies", limit, result.size());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public SalaryBandsDto getSalaryBands(List<BigDecimal> bounds, String groupBy) {
+        if (bounds == null || bounds.isEmpty() || bounds.size() > MAX_BOUNDS) {
+            throw new HttpStatusException(400, "bounds must have 1 to " + MAX_BOUNDS + " values");
+        }
+        long[] cuts = new long[bounds.size()];
+        for (int i = 0; i < cuts.length; i++) {
+            if (bounds.get(i) == null) {
+                throw new HttpStatusException(400, "bounds must not contain nulls");
+            }
+            cuts[i] = EmployeeColumns.toCents(bounds.get(i));
+            if (i > 0 && cuts[i] <= cuts[i - 1]) {
+                throw new HttpStatusException(400, "bounds must be in ascending order");
+            }
+        }
+        boolean byCompany = "company".equalsIgnoreCase(groupBy);
+        if (!byCompany && !"department".equalsIgnoreCase(groupBy)) {
+            throw new HttpStatusException(400, "groupBy must be department or company");
+        }
+        int bands = cuts.length + 1;
+
+        lock.readLock().lock();
+        try {
+            EmployeeColumns snapshot = snapshot();
+            int groups = byCompany ? snapshot.companies() : snapshot.departments();
+            long[] counts = scan(snapshot, () -> new long[groups * bands], (acc, from, to) -> {
+                for (int row = from; row < to; row++) {
+                    long salary = snapshot.salary(row);
+                    if (salary == EmployeeColumns.NO_SALARY || !snapshot.isLive(row)) {
+                        continue;
+                    }
+                    int band = band(cuts, salary);
+                    int departments = snapshot.departmentCount(row);
+                    for (int i = 0; i < departments; i++) {
+                        int department = snapshot.department(row, i);
+                        if (!byCompany) {
+                            acc[department * bands + band]++;
+                        } else {
+                            int company = snapshot.departmentCompany(department);
+                            if (firstOfCompany(snapshot, row, i, company)) {
+                                acc[company * bands + band]++;
+                            }
+                        }
+                    }
+                }
+            }, AnalyticsServiceImpl::sum);
+
+            Map<Long, List<Long>> byGroup = new LinkedHashMap<>();
+            for (int group = 0; group < groups; group++) {
+                long[] row = Arrays.copyOfRange(counts, group * bands, (group + 1) * bands);
+                if (Arrays.stream(row).anyMatch(count -> count > 0)) {
+                    byGroup.put(byCompany ? snapshot.companyId(group) : snapshot.departmentId(group),
+                            Arrays.stream(row).boxed().toList());
+                }
+            }
+            logger.info("Computed {} salary bands for {} {} groups", bands, byGroup.size(), groupBy);
+            return SalaryBandsDto.builder()
+                    .groupBy(groupBy.toLowerCase(Locale.ROOT))
+                    .bounds(bounds)
+                    .counts(byGroup)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChange(EmployeeChange change) {
+        record(change);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChange(OrganizationChange change) {
+        record(change);
+    }
+
+    /** Loads a new snapshot and swaps it in; changes made meanwhile are replayed onto it. */
+    @Scheduled(initialDelayString = "${app.analytics.refresh-initial-delay-ms:0}",
+            fixedDelayString = "${app.analytics.refresh-interval-ms:3600000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        EmployeeColumns fresh = null;
+        try {
+            fresh = load();
+        } catch (Exception e) {
+            logger.error("Failed to load the analytics snapshot: {}", e.getMessage(), e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (fresh != null) {
+                for (Recorded recorded : pending) {
+                    apply(fresh, recorded);
+                }
+                logger.info("Loaded analytics snapshot of {} employees in {} ms, replayed {} changes",
+                        fresh.liveCount(), (System.nanoTime() - start) / 1_000_000, pending.size());
+                columns = fresh;
+            }
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void record(Object change) {
+        if (!enabled) {
+            return;
+        }
+        // Read before taking the write lock, so queries never wait on the database
+        Dimensions dimensions = needsDimensions(change) ? loadDimensions() : null;
+        Recorded recorded = new Recorded(change, dimensions);
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(recorded);
+            }
+            if (columns != null) {
+                apply(columns, recorded);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Organization changes may add, move or delete departments and companies; an employee
+    // change needs them when it names a department the snapshot does not know yet
+    private boolean needsDimensions(Object change) {
+        if (change instanceof OrganizationChange) {
+            return true;
+        }
+        EmployeeChange.State after = ((EmployeeChange) change).after();
+        if (after == null || after.departmentIds().isEmpty()) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return columns == null || after.departmentIds().stream()
+                    .anyMatch(id -> columns.departmentOrdinal(id) < 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Changes are applied as the employee's latest state, so replaying one that the snapshot
+    // already contains leaves it unchanged
+    private void apply(EmployeeColumns snapshot, Recorded recorded) {
+        if (recorded.dimensions() != null) {
+            recorded.dimensions().applyTo(snapshot);
+        }
+        if (recorded.change() instanceof OrganizationChange) {
+            return;
+        }
+        EmployeeChange employeeChange = (EmployeeChange) recorded.change();
+        EmployeeChange.State after = employeeChange.after();
+        if (after == null) {
+            snapshot.delete(employeeChange.employeeId());
+            return;
+        }
+        // A department deleted meanwhile is unknown and left out
+        int[] departments = after.departmentIds().stream()
+                .mapToInt(snapshot::departmentOrdinal)
+                .filter(ordinal -> ordinal >= 0)
+                .sorted()
+                .toArray();
+        snapshot.upsert(employeeChange.employeeId(), EmployeeColumns.toCents(after.salary()),
+                after.manager(), departments);
+    }
+
+    private EmployeeColumns load() {
+        Long count = jdbcTemplate.queryForObject(COUNT_SQL, Long.class);
+        EmployeeColumns snapshot = new EmployeeColumns((int) Math.min(count != null ? count : 0, Integer.MAX_VALUE - 8));
+        loadDimensions().applyTo(snapshot);
+        EmployeeRows rows = new EmployeeRows(snapshot);
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(EMPLOYEES_SQL, rows));
+        rows.finish();
+        return snapshot;
+    }
+
+    private Dimensions loadDimensions() {
+        Map<Long, Long> companyByDepartment = new HashMap<>();
+        jdbcTemplate.query(DEPARTMENTS_SQL, (RowCallbackHandler) rs ->
+                companyByDepartment.put(rs.getLong(1), rs.getLong(2)));
+        return new Dimensions(companyByDepartment, new HashSet<>(jdbcTemplate.queryForList(COMPANIES_SQL, Long.class)));
+    }
+
+    private EmployeeColumns snapshot() {
+        if (columns == null) {
+            throw new HttpStatusException(503, enabled
+                    ? "Analytics snapshot is still loading, retry later" : "Analytics is disabled");
+        }
+        return columns;
+    }
+
+    private static int ordinal(int ordinal, String kind, Long id) {
+        if (ordinal < 0) {
+            throw new HttpStatusException(404, kind + " with ID " + id + " not found");
+        }
+        return ordinal;
+    }
+
+    private static boolean matches(EmployeeColumns snapshot, int row, int company, int department) {
+        if (company < 0 && department < 0) {
+            return true;
+        }
+        int departments = snapshot.departmentCount(row);
+        for (int i = 0; i < departments; i++) {
+            int ordinal = snapshot.department(row, i);
+            if ((department < 0 || ordinal == department)
+                    && (company < 0 || snapshot.departmentCompany(ordinal) == company)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // True for the first of the row's departments that belongs to the company, so an employee
+    // in several departments of one company is counted once
+    private static boolean firstOfCompany(EmployeeColumns snapshot, int row, int index, int company) {
+        for (int i = 0; i < index; i++) {
+            if (snapshot.departmentCompany(snapshot.department(row, i)) == company) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Number of cuts at or below the salary
+    private static int band(long[] cuts, long salary) {
+        int found = Arrays.binarySearch(cuts, salary);
+        return found >= 0 ? found + 1 : -found - 1;
+    }
+
+    private static long[] sum(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] += b[i];
+        }
+        return a;
+    }
+
+    // Each query loops over its chunk itself, so the per-row code is not behind a shared call site
+    private <T> T scan(EmployeeColumns snapshot, Supplier<T> identity, ChunkVisitor<T> visitor,
+                       BinaryOperator<T> combine) {
+        int size = snapshot.size();
+        int chunkRows = Math.max(MIN_CHUNK_ROWS, size / (pool.getParallelism() * CHUNKS_PER_THREAD) + 1);
+        int chunks = (size + chunkRows - 1) / chunkRows;
+        return pool.submit(() -> IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+            T acc = identity.get();
+            visitor.visit(acc, chunk * chunkRows, Math.min(size, (chunk + 1) * chunkRows));
+            return acc;
+        }).reduce(combine).orElseGet(identity)).join();
+    }
+
+    /** A change with the departments and companies read when it arrived, if it needed them. */
+    private record Recorded(Object change, Dimensions dimensions) {
+    }
+
+    private record Dimensions(Map<Long, Long> companyByDepartment, Set<Long> companies) {
+
+        void applyTo(EmployeeColumns snapshot) {
+            snapshot.syncDimensions(companyByDepartment, companies);
+        }
+    }
+
+    private interface ChunkVisitor<T> {
+
+        void visit(T acc, int from, int to);
+    }
+
+    /** The highest salaries seen, kept sorted in descending order. */
+    private static final class TopN {
+
+        private final long[] salaries;
+        private final int[] rows;
+        private int size;
+
+        TopN(int limit) {
+            this.salaries = new long[limit];
+            this.rows = new int[limit];
+        }
+
+        void offer(long salary, int row) {
+            if (size == salaries.length && salary <= salaries[size - 1]) {
+                return;
+            }
+            int i = size < salaries.length ? size++ : size - 1;
+            while (i > 0 && salaries[i - 1] < salary) {
+                salaries[i] = salaries[i - 1];
+                rows[i] = rows[i - 1];
+                i--;
+            }
+            salaries[i] = salary;
+            rows[i] = row;
+        }
+
+        TopN merge(TopN other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.salaries[i], other.rows[i]);
+            }
+            return this;
+        }
+
+        TopEarnersDto toDto(EmployeeColumns snapshot, long companyId) {
+            List<EarnerDto> earners = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                earners.add(EarnerDto.builder()
+                        .employeeId(snapshot.id(rows[i]))
+                        .salary(EmployeeColumns.fromCents(salaries[i]))
+                        .build());
+            }
+            return TopEarnersDto.builder().companyId(companyId).earners(earners).build();
+        }
+    }
+
+    /** Collects the departments of one employee and adds its row when the next one starts. */
+    private static final class EmployeeRows implements RowCallbackHandler {
+
+        private final EmployeeColumns snapshot;
+        private int[] departments = new int[4];
+        private int departmentCount;
+        private long id = -1;
+        private long salary;
+        private boolean manager;
+
+        EmployeeRows(EmployeeColumns snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowId = rs.getLong(1);
+            if (rowId != id) {
+                finish();
+                id = rowId;
+                salary = EmployeeColumns.toCents(rs.getBigDecimal(2));
+                manager = rs.getBoolean(3);
+            }
+            long departmentId = rs.getLong(4);
+            if (!rs.wasNull()) {
+                int ordinal = snapshot.departmentOrdinal(departmentId);
+                if (ordinal >= 0) {
+                    if (departmentCount == departments.length) {
+                        departments = Arrays.copyOf(departments, departmentCount * 2);
+                    }
+                    departments[departmentCount++] = ordinal;
+                }
+            }
+        }
+
+        void finish() {
+            if (id < 0) {
+                return;
+            }
+            int[] sorted = Arrays.copyOf(departments, departmentCount);
+            Arrays.sort(sorted);
+            snapshot.load(id, salary, manager, sorted);
+            departmentCount = 0;
+        }
+    }
+}
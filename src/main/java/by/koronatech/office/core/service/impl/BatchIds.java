@@ -0,0 +1,46 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.BatchItemDto;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Request handling shared by the batch-by-ID lookups. */
+final class BatchIds {
+
+    static final int MAX_IDS = 1000;
+
+    private BatchIds() {
+    }
+
+    /** Validates the requested IDs and returns each one once, for a single = ANY(?) query. */
+    static Long[] distinct(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new HttpStatusException(400, "At least one ID is required");
+        }
+        if (ids.size() > MAX_IDS) {
+            throw new HttpStatusException(400, "At most " + MAX_IDS + " IDs can be requested at once");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new HttpStatusException(400, "IDs must be positive, got " + id);
+            }
+            distinct.add(id);
+        }
+        return distinct.toArray(new Long[0]);
+    }
+
+    // One entry per requested position, duplicates included, so clients can zip by index
+    static <T> List<BatchItemDto<T>> inRequestOrder(List<Long> ids, Map<Long, T> found) {
+        List<BatchItemDto<T>> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T item = found.get(id);
+            items.add(new BatchItemDto<>(id, item != null, item));
+        }
+        return items;
+    }
+}
@@ -1,8 +1,12 @@
 package by.koronatech.office.core.service.impl;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CompanyDto;
+import by.koronatech.office.api.dto.CompanyPatchDto;
 import by.koronatech.office.api.dto.CompanyReturnDto;
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.core.cache.SingleFlight;
+import by.koronatech.office.core.event.OrganizationChange;
 import by.koronatech.office.core.exceptions.EntityNotFound;
 import by.koronatech.office.core.exceptions.HttpStatusException;
 import by.koronatech.office.core.mapper.CompanyMapper;
@@ -11,28 +15,59 @@ import by.koronatech.office.core.model.Company;
 import by.koronatech.office.core.model.Department;
 import by.koronatech.office.core.model.Employee;
 import by.koronatech.office.core.model.EmployeeDepartment;
+import by.koronatech.office.core.model.OutboxEvent.EntityType;
+import by.koronatech.office.core.model.OutboxEvent.Operation;
+import by.koronatech.office.core.outbox.OutboxWriter;
 import by.koronatech.office.core.repository.CompanyRepository;
 import by.koronatech.office.core.repository.DepartmentRepository;
 import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.repository.FieldProjectionRepository;
 import by.koronatech.office.core.service.CompanyService;
-import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
 public class CompanyServiceImpl implements CompanyService {
     private static final Logger logger = LoggerFactory.getLogger(CompanyServiceImpl.class);
 
+    // Selectable fields in CompanyReturnDto order
+    private static final Map<String, String> COMPANY_FIELDS;
+
+    static {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(Fields.ID, "id");
+        fields.put("name", "name");
+        fields.put("location", "location");
+        COMPANY_FIELDS = Collections.unmodifiableMap(fields);
+    }
+
     private final CompanyRepository companyRepository;
     private final CompanyMapper companyMapper;
     private final CompanyReturnMapper companyReturnMapper;
+    private final SingleFlight<BigDecimal, List<CompanyReturnDto>> highSalarySingleFlight;
+    private final FieldProjectionRepository projectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final OutboxWriter outboxWriter;
 
     @Autowired
     private final EmployeeServiceImpl employeeService;
@@ -44,22 +79,36 @@ public class CompanyServiceImpl implements CompanyService {
     private EmployeeRepository employeeRepository;
 
     @Override
+    @Transactional(readOnly = true)
     public List<CompanyReturnDto> getAllCompanies() {
         try {
             List<CompanyReturnDto> companies = companyReturnMapper.toDtos(companyRepository.findAll());
             logger.info("Retrieved all companies: {} found", companies.size());
             return companies;
         } catch (Exception e) {
-            logger.error("Failed to retrieve companies (HTTP 500): {}", e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to retrieve companies", e);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllCompanyFields(String fields) {
+        List<String> selected = Fields.parse(fields, COMPANY_FIELDS);
+        try {
+            List<Map<String, Object>> companies = Fields.toRows(projectionRepository.findAll(
+                    Company.class, Fields.paths(selected, COMPANY_FIELDS)), selected, COMPANY_FIELDS);
+            logger.info("Retrieved all companies with fields {}: {} found", selected, companies.size());
+            return companies;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve companies with selected fields", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CompanyReturnDto getCompanyById(Long id) {
         if (id == null) {
-            logger.error("Get company failed (HTTP 400): ID is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Get company failed: ID is null");
         }
         try {
             Company company = companyRepository.findById(id)
@@ -68,42 +117,54 @@ public class CompanyServiceImpl implements CompanyService {
             logger.info("Retrieved company ID [{}]", id);
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Company not found for ID [{}] (HTTP 404): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve company ID [" + id + "]", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<CompanyReturnDto>> getCompaniesByIds(List<Long> ids) {
+        Long[] distinct = BatchIds.distinct(ids);
+        try {
+            Map<Long, CompanyReturnDto> found = new HashMap<>();
+            for (Company company : companyRepository.findAllByIds(distinct)) {
+                found.put(company.getId(), companyReturnMapper.toDto(company));
+            }
+            logger.info("Retrieved companies by ID: {} of {} found", found.size(), distinct.length);
+            return BatchIds.inRequestOrder(ids, found);
         } catch (Exception e) {
-            logger.error("Failed to retrieve company ID [{}] (HTTP 500): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to retrieve companies by ID", e);
         }
     }
 
     @Override
+    @Transactional
     public CompanyDto createCompany(CompanyDto companyDto) {
         if (companyDto == null) {
-            logger.error("Create company failed (HTTP 400): DTO is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Create company failed: DTO is null");
         }
         try {
             Company company = companyMapper.toEntity(companyDto);
             Company savedCompany = companyRepository.save(company);
+            outboxWriter.append(EntityType.COMPANY, savedCompany.getId(), Operation.CREATED);
             CompanyDto result = companyMapper.toDto(savedCompany);
             logger.info("Created company [{}]", result.getName());
             return result;
         } catch (Exception e) {
-            logger.error("Failed to create company [{}] (HTTP 500): {}",
-                    companyDto.getName() != null ? companyDto.getName() : "null", e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to create company [" + companyDto.getName() + "]", e);
         }
     }
 
     @Override
+    @Transactional
     public CompanyDto updateCompany(Long id, CompanyDto companyDto) {
         if (id == null || companyDto == null) {
-            logger.error("Update company failed (HTTP 400): ID or DTO is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Update company failed: ID or DTO is null");
         }
         if (companyDto.getName() == null || companyDto.getLocation() == null) {
-            logger.error("Update company failed (HTTP 400): Name or location is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Update company failed: Name or location is null");
         }
         try {
             Company existingCompany = companyRepository.findById(id)
@@ -111,15 +172,46 @@ public class CompanyServiceImpl implements CompanyService {
             existingCompany.setName(companyDto.getName());
             existingCompany.setLocation(companyDto.getLocation());
             Company savedCompany = companyRepository.save(existingCompany);
+            outboxWriter.append(EntityType.COMPANY, id, Operation.UPDATED);
             CompanyDto result = companyMapper.toDto(savedCompany);
             logger.info("Updated company ID [{}]", id);
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Company not found for ID [{}] (HTTP 404): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to update company ID [" + id + "]", e);
+        }
+    }
+
+    // Merge patch over the loaded company; @DynamicUpdate makes the flush write only the
+    // columns whose value actually changed, and nothing when none did
+    @Override
+    @Transactional
+    public CompanyDto patchCompany(Long id, CompanyPatchDto patch) {
+        if (id == null || patch == null) {
+            throw new HttpStatusException(400, "Patch company failed: ID or patch is null");
+        }
+        try {
+            Company company = companyRepository.findById(id)
+                    .orElseThrow(() -> new HttpStatusException(404, "Company not found by id: " + id));
+            CompanyDto merged = CompanyDto.builder()
+                    .name(patch.has(CompanyPatchDto.NAME) ? patch.getName() : company.getName())
+                    .location(patch.has(CompanyPatchDto.LOCATION) ? patch.getLocation() : company.getLocation())
+                    .build();
+            Set<ConstraintViolation<CompanyDto>> violations = validator.validate(merged);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            company.setName(merged.getName());
+            company.setLocation(merged.getLocation());
+            CompanyDto result = companyMapper.toDto(companyRepository.save(company));
+            outboxWriter.append(EntityType.COMPANY, id, Operation.UPDATED);
+            logger.info("Patched company ID [{}]", id);
+            return result;
+        } catch (HttpStatusException | ConstraintViolationException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Failed to update company ID [{}] (HTTP 500): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to patch company ID [" + id + "]", e);
         }
     }
 
@@ -127,13 +219,11 @@ public class CompanyServiceImpl implements CompanyService {
     @Transactional
     public void deleteCompany(Long id) {
         if (id == null) {
-            logger.error("Delete company failed (HTTP 400): ID is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Delete company failed: ID is null");
         }
         try {
             if (!companyRepository.existsById(id)) {
-                logger.error("Company not found for ID [{}] (HTTP 404)", id);
-                throw new HttpStatusException(404);
+                throw new HttpStatusException(404, "Company not found for ID [" + id + "]");
             }
             // Find all departments for the company
             List<Department> departments = departmentRepository.findByCompanyId(id);
@@ -143,35 +233,36 @@ public class CompanyServiceImpl implements CompanyService {
                 // Load department with employeeDepartments
                 Department fullDepartment = departmentRepository.findById(departmentId)
                         .orElseThrow(() -> new EntityNotFound("Department not found: " + departmentId));
-                // Process employeeDepartments
-                for (EmployeeDepartment ed : fullDepartment.getEmployeeDepartments()) {
+                // Process employeeDepartments; a copy, as deleting a member unlinks it from the department
+                for (EmployeeDepartment ed : new ArrayList<>(fullDepartment.getEmployeeDepartments())) {
                     Employee employee = ed.getEmployee();
                     logger.info("Processing employee ID [{}] for department ID [{}]", employee.getId(), departmentId);
-                    // Clear employee's employeeDepartments to avoid constraints
-                    employee.getEmployeeDepartments().clear();
-                    employeeRepository.save(employee); // Update employee to persist cleared associations
-                    // Delete the employee
-                    employeeRepository.delete(employee);
+                    employeeService.deleteMember(employee.getId());
                     logger.info("Deleted employee ID [{}] for department ID [{}]", employee.getId(), departmentId);
                 }
             }
             // Delete the company (cascades to departments and employeeDepartments)
             companyRepository.deleteById(id);
+            for (Department department : departments) {
+                outboxWriter.append(EntityType.DEPARTMENT, department.getId(), Operation.DELETED);
+            }
+            outboxWriter.append(EntityType.COMPANY, id, Operation.DELETED);
+            eventPublisher.publishEvent(new OrganizationChange(
+                    departments.stream().map(Department::getId).collect(Collectors.toSet()), Set.of(id)));
             logger.info("Deleted company ID [{}]", id);
         } catch (HttpStatusException e) {
-            logger.error("HttpStatusException while deleting company ID [{}] : {}", id, e.getMessage());
             throw e;
         } catch (Exception e) {
-            logger.error("Failed to delete company ID [{}] (HTTP 500): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to delete company ID [" + id + "]", e);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<EmployeeDto> findEmployeesByDepartment(Long companyId, String departmentName) {
         if (companyId == null || departmentName == null || departmentName.isEmpty()) {
-            logger.error("Find employees by department failed (HTTP 400): Company ID or department name is null/empty");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400,
+                    "Find employees by department failed: Company ID or department name is null/empty");
         }
         try {
             List<Employee> employees = companyRepository
@@ -183,29 +274,29 @@ public class CompanyServiceImpl implements CompanyService {
                     companyId, departmentName, result.size());
             return result;
         } catch (Exception e) {
-            logger.error("Failed to retrieve employees for company ID [{}] and department [{}] (HTTP 500): {}",
-                    companyId, departmentName, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500,
+                    "Failed to retrieve employees for company ID [" + companyId
+                            + "] and department [" + departmentName + "]", e);
         }
     }
 
+    // Not @Transactional: identical concurrent calls share one read, run in its own transaction
     @Override
     public List<CompanyReturnDto> findCompaniesWithHighSalaryEmployeesNative(BigDecimal salary) {
         if (salary == null) {
-            logger.error("Find companies with high salary employees failed (HTTP 400): Salary is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Find companies with high salary employees failed: Salary is null");
         }
         try {
-            List<Company> companies = companyRepository
-                    .findCompaniesWithHighSalaryEmployeesNative(salary);
-            List<CompanyReturnDto> result = companyReturnMapper.toDtos(companies);
+            // 5000 and 5000.00 are the same query
+            List<CompanyReturnDto> result = highSalarySingleFlight.execute(salary.stripTrailingZeros(), () ->
+                    Collections.unmodifiableList(companyReturnMapper.toDtos(companyRepository
+                            .findCompaniesWithHighSalaryEmployeesNative(salary))));
             logger.info("Retrieved companies with high salary employees (>{}): {} found",
                     salary, result.size());
             return result;
         } catch (Exception e) {
-            logger.error("Failed to retrieve companies with high salary employees (>{}) (HTTP 500): {}",
-                    salary, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500,
+                    "Failed to retrieve companies with high salary employees (>" + salary + ")", e);
         }
     }
 
@@ -0,0 +1,182 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.DepartmentAssignmentDto;
+import by.koronatech.office.api.dto.DepartmentAssignmentDto.Operation;
+import by.koronatech.office.api.dto.DepartmentAssignmentResultDto;
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.service.DepartmentAssignmentService;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Moves employees between departments with one statement per membership change instead of
+ * rebuilding each employee's department set. The statements bump {@code DataVersion}
+ * through DataChangeAspect; statistics, the analytics snapshot and the membership index
+ * follow through one {@link EmployeeChange} per employee that changed.
+ */
+@Service
+@AllArgsConstructor
+public class DepartmentAssignmentServiceImpl implements DepartmentAssignmentService {
+    private static final Logger logger = LoggerFactory.getLogger(DepartmentAssignmentServiceImpl.class);
+
+    static final int MAX_EMPLOYEE_IDS = 10_000;
+
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional
+    public DepartmentAssignmentResultDto reassign(DepartmentAssignmentDto request) {
+        if (request == null || request.getOperation() == null) {
+            throw new HttpStatusException(400, "Reassignment failed: operation is null");
+        }
+        Operation operation = request.getOperation();
+        Long fromId = request.getFromDepartmentId();
+        Long toId = request.getToDepartmentId();
+        if (operation != Operation.ASSIGN && fromId == null) {
+            throw new HttpStatusException(400, operation + " requires fromDepartmentId");
+        }
+        if (operation != Operation.UNASSIGN && toId == null) {
+            throw new HttpStatusException(400, operation + " requires toDepartmentId");
+        }
+        if (operation == Operation.MOVE && fromId.equals(toId)) {
+            throw new HttpStatusException(400, "fromDepartmentId and toDepartmentId must differ");
+        }
+        if (operation == Operation.ASSIGN && request.getEmployeeIds() == null) {
+            throw new HttpStatusException(400, "ASSIGN requires employeeIds");
+        }
+        Long[] employeeIds = distinct(request.getEmployeeIds());
+
+        Map<Long, Long> companyByDepartment = lockDepartments(
+                operation != Operation.ASSIGN ? fromId : null, operation != Operation.UNASSIGN ? toId : null);
+        try {
+            List<Long> added = operation == Operation.ASSIGN
+                    ? employeeRepository.assignDepartment(employeeIds, toId)
+                    : operation == Operation.MOVE
+                    ? employeeRepository.copyMembers(employeeIds, fromId, toId)
+                    : List.of();
+            List<Long> removed = operation != Operation.ASSIGN
+                    ? employeeRepository.unassignDepartment(employeeIds, fromId)
+                    : List.of();
+            int employees = publishChanges(new HashSet<>(added), new HashSet<>(removed),
+                    fromId, toId, companyByDepartment);
+            logger.info("{} of departments [{}] -> [{}]: {} memberships added, {} removed, {} employees changed",
+                    operation, fromId, toId, added.size(), removed.size(), employees);
+            return DepartmentAssignmentResultDto.builder()
+                    .operation(operation)
+                    .added(added.size())
+                    .removed(removed.size())
+                    .employees(employees)
+                    .build();
+        } catch (HttpStatusException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to " + operation + " employees of departments ["
+                    + fromId + "] -> [" + toId + "]", e);
+        }
+    }
+
+    // Null keeps the "every member" scope; an explicit list must be usable as one = ANY(?)
+    private static Long[] distinct(List<Long> ids) {
+        if (ids == null) {
+            return null;
+        }
+        if (ids.isEmpty()) {
+            throw new HttpStatusException(400, "employeeIds cannot be empty");
+        }
+        if (ids.size() > MAX_EMPLOYEE_IDS) {
+            throw new HttpStatusException(400,
+                    "At most " + MAX_EMPLOYEE_IDS + " employees can be reassigned at once");
+        }
+        Set<Long> distinct = new LinkedHashSet<>(ids.size() * 2);
+        for (Long id : ids) {
+            if (id == null || id <= 0) {
+                throw new HttpStatusException(400, "Employee IDs must be positive, got " + id);
+            }
+            distinct.add(id);
+        }
+        return distinct.toArray(new Long[0]);
+    }
+
+    // Returns the company of each locked department, and of every department seen later on
+    private Map<Long, Long> lockDepartments(Long... ids) {
+        Long[] requested = Arrays.stream(ids).filter(Objects::nonNull).toArray(Long[]::new);
+        Map<Long, Long> companyByDepartment = new HashMap<>();
+        for (Object[] row : departmentRepository.lockAllByIds(requested)) {
+            companyByDepartment.put(toLong(row[0]), toLong(row[1]));
+        }
+        for (Long id : requested) {
+            if (!companyByDepartment.containsKey(id)) {
+                throw new HttpStatusException(404, "Department not found with id: " + id);
+            }
+        }
+        return companyByDepartment;
+    }
+
+    // The state before is the state after with this request's changes undone
+    private int publishChanges(Set<Long> added, Set<Long> removed, Long fromId, Long toId,
+                               Map<Long, Long> companyByDepartment) {
+        Set<Long> changed = new HashSet<>(added);
+        changed.addAll(removed);
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        Map<Long, Member> members = new HashMap<>();
+        for (Object[] row : employeeRepository.findMembershipStates(changed.toArray(new Long[0]))) {
+            Member member = members.computeIfAbsent(toLong(row[0]),
+                    id -> new Member((BigDecimal) row[1], (Boolean) row[2], new HashSet<>()));
+            if (row[3] != null) {
+                Long departmentId = toLong(row[3]);
+                member.departmentIds().add(departmentId);
+                companyByDepartment.putIfAbsent(departmentId, toLong(row[4]));
+            }
+        }
+        members.forEach((id, member) -> {
+            Set<Long> before = new HashSet<>(member.departmentIds());
+            if (added.contains(id)) {
+                before.remove(toId);
+            }
+            if (removed.contains(id)) {
+                before.add(fromId);
+            }
+            eventPublisher.publishEvent(new EmployeeChange(id, member.state(before, companyByDepartment),
+                    member.state(member.departmentIds(), companyByDepartment)));
+        });
+        return changed.size();
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private record Member(BigDecimal salary, boolean manager, Set<Long> departmentIds) {
+
+        EmployeeChange.State state(Set<Long> departmentIds, Map<Long, Long> companyByDepartment) {
+            Set<Long> companyIds = new HashSet<>();
+            for (Long departmentId : departmentIds) {
+                Long companyId = companyByDepartment.get(departmentId);
+                if (companyId != null) {
+                    companyIds.add(companyId);
+                }
+            }
+            return new EmployeeChange.State(salary, manager, departmentIds, companyIds);
+        }
+    }
+}
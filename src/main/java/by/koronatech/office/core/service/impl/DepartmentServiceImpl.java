@@ -1,7 +1,11 @@
 package by.koronatech.office.core.service.impl;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.DepartmentDto;
+import by.koronatech.office.api.dto.DepartmentPatchDto;
 import by.koronatech.office.api.dto.DepartmentReturnDto;
+import by.koronatech.office.core.cache.SingleFlight;
+import by.koronatech.office.core.event.OrganizationChange;
 import by.koronatech.office.core.exceptions.EntityNotFound;
 import by.koronatech.office.core.exceptions.HttpStatusException;
 import by.koronatech.office.core.mapper.DepartmentMapper;
@@ -10,26 +14,56 @@ import by.koronatech.office.core.model.Company;
 import by.koronatech.office.core.model.Department;
 import by.koronatech.office.core.model.Employee;
 import by.koronatech.office.core.model.EmployeeDepartment;
+import by.koronatech.office.core.model.OutboxEvent.EntityType;
+import by.koronatech.office.core.model.OutboxEvent.Operation;
+import by.koronatech.office.core.outbox.OutboxWriter;
 import by.koronatech.office.core.repository.CompanyRepository;
 import by.koronatech.office.core.repository.DepartmentRepository;
 import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.repository.FieldProjectionRepository;
 import by.koronatech.office.core.service.DepartmentService;
-import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @AllArgsConstructor
 public class DepartmentServiceImpl implements DepartmentService {
     private static final Logger logger = LoggerFactory.getLogger(DepartmentServiceImpl.class);
 
+    // Selectable fields in DepartmentReturnDto order; company joins only when requested
+    private static final Map<String, String> DEPARTMENT_FIELDS;
+
+    static {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(Fields.ID, "id");
+        fields.put("company", "company.name");
+        fields.put("name", "name");
+        DEPARTMENT_FIELDS = Collections.unmodifiableMap(fields);
+    }
+
     private final CompanyRepository companyRepository;
     private final DepartmentMapper departmentMapper;
     private final DepartmentReturnMapper departmentReturnMapper;
+    private final SingleFlight<String, List<DepartmentReturnDto>> departmentsSingleFlight;
+    private final FieldProjectionRepository projectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final OutboxWriter outboxWriter;
 
     @Autowired
     private final EmployeeServiceImpl employeeService;
@@ -40,24 +74,39 @@ public class DepartmentServiceImpl implements DepartmentService {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    // Not @Transactional: identical concurrent calls share one read, run in its own transaction
     @Override
     public List<DepartmentReturnDto> getAllDepartments() {
         try {
-            List<DepartmentReturnDto> departments = departmentReturnMapper
-                    .toDtos(departmentRepository.findAll());
+            List<DepartmentReturnDto> departments = departmentsSingleFlight.execute("all", () ->
+                    Collections.unmodifiableList(departmentReturnMapper
+                            .toDtos(departmentRepository.findAll())));
             logger.info("Retrieved all departments: {} found", departments.size());
             return departments;
         } catch (Exception e) {
-            logger.error("Failed to retrieve departments (HTTP 500): {}", e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to retrieve departments", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllDepartmentFields(String fields) {
+        List<String> selected = Fields.parse(fields, DEPARTMENT_FIELDS);
+        try {
+            List<Map<String, Object>> departments = Fields.toRows(projectionRepository.findAll(
+                    Department.class, Fields.paths(selected, DEPARTMENT_FIELDS)), selected, DEPARTMENT_FIELDS);
+            logger.info("Retrieved all departments with fields {}: {} found", selected, departments.size());
+            return departments;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve departments with selected fields", e);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DepartmentReturnDto getDepartmentById(Long id) {
         if (id == null) {
-            logger.error("Get department failed (HTTP 400): ID is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Get department failed: ID is null");
         }
         try {
             Department department = departmentRepository.findById(id)
@@ -66,32 +115,45 @@ public class DepartmentServiceImpl implements DepartmentService {
             logger.info("Retrieved department ID [{}]", id);
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Department not found for ID [{}] (HTTP 404): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
         } catch (Exception e) {
-            logger.error("Failed to retrieveabban department ID [{}] (HTTP 500): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to retrieve department ID [" + id + "]", e);
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<DepartmentReturnDto>> getDepartmentsByIds(List<Long> ids) {
+        Long[] distinct = BatchIds.distinct(ids);
+        try {
+            Map<Long, DepartmentReturnDto> found = new HashMap<>();
+            for (Department department : departmentRepository.findAllByIds(distinct)) {
+                found.put(department.getId(), departmentReturnMapper.toDto(department));
+            }
+            logger.info("Retrieved departments by ID: {} of {} found", found.size(), distinct.length);
+            return BatchIds.inRequestOrder(ids, found);
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve departments by ID", e);
+        }
+    }
+
+    @Override
+    @Transactional
     public DepartmentDto createDepartment(DepartmentDto departmentDto) {
         if (departmentDto == null) {
-            logger.error("Create department failed (HTTP 400): DTO is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Create department failed: DTO is null");
         }
         try {
             Department department = departmentMapper.toEntity(departmentDto, companyRepository);
             Department savedDepartment = departmentRepository.save(department);
+            outboxWriter.append(EntityType.DEPARTMENT, savedDepartment.getId(), Operation.CREATED);
             DepartmentDto result = departmentMapper.toDto(savedDepartment);
             logger.info("Created department [{}]", result.getName());
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Entity not found for department [{}] (HTTP 404): {}", departmentDto.getName(), e.getMessage(), e);
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
         } catch (Exception e) {
-            logger.error("Failed to create department [{}] (HTTP 500): {}", departmentDto.getName(), e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to create department [" + departmentDto.getName() + "]", e);
         }
     }
 
@@ -99,8 +161,7 @@ public class DepartmentServiceImpl implements DepartmentService {
     @Transactional
     public DepartmentDto updateDepartment(Long id, DepartmentDto updatedDepartmentDto) {
         if (id == null || updatedDepartmentDto == null) {
-            logger.error("Update department failed (HTTP 400): ID or DTO is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Update department failed: ID or DTO is null");
         }
         try {
             Department existingDepartment = departmentRepository.findById(id)
@@ -108,17 +169,63 @@ public class DepartmentServiceImpl implements DepartmentService {
             existingDepartment.setName(updatedDepartmentDto.getName());
             Company company = companyRepository.findByName(updatedDepartmentDto.getCompany())
                     .orElseThrow(() -> new EntityNotFound("Company not found: " + updatedDepartmentDto.getCompany()));
+            Long previousCompanyId = existingDepartment.getCompany().getId();
             existingDepartment.setCompany(company);
             Department savedDepartment = departmentRepository.save(existingDepartment);
+            outboxWriter.append(EntityType.DEPARTMENT, id, Operation.UPDATED);
+            if (!previousCompanyId.equals(company.getId())) {
+                // Every member moves between companies; both are recounted
+                eventPublisher.publishEvent(new OrganizationChange(Set.of(), Set.of(previousCompanyId, company.getId())));
+            }
             DepartmentDto result = departmentMapper.toDto(savedDepartment);
             logger.info("Updated department ID [{}]", id);
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Entity not found for department ID [{}] (HTTP 404): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to update department ID [" + id + "]", e);
+        }
+    }
+
+    // Merge patch over the loaded department; the company is only looked up when the patch
+    // names a different one, and @DynamicUpdate writes only the changed columns
+    @Override
+    @Transactional
+    public DepartmentDto patchDepartment(Long id, DepartmentPatchDto patch) {
+        if (id == null || patch == null) {
+            throw new HttpStatusException(400, "Patch department failed: ID or patch is null");
+        }
+        try {
+            Department department = departmentRepository.findById(id)
+                    .orElseThrow(() -> new HttpStatusException(404, "Department not found with id: " + id));
+            Company previousCompany = department.getCompany();
+            DepartmentDto merged = DepartmentDto.builder()
+                    .company(patch.has(DepartmentPatchDto.COMPANY) ? patch.getCompany() : previousCompany.getName())
+                    .name(patch.has(DepartmentPatchDto.NAME) ? patch.getName() : department.getName())
+                    .build();
+            Set<ConstraintViolation<DepartmentDto>> violations = validator.validate(merged);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            if (!merged.getCompany().equals(previousCompany.getName())) {
+                department.setCompany(companyRepository.findByName(merged.getCompany())
+                        .orElseThrow(() -> new HttpStatusException(404, "Company not found: " + merged.getCompany())));
+            }
+            department.setName(merged.getName());
+            Department savedDepartment = departmentRepository.save(department);
+            outboxWriter.append(EntityType.DEPARTMENT, id, Operation.UPDATED);
+            if (!previousCompany.getId().equals(savedDepartment.getCompany().getId())) {
+                // Every member moves between companies; both are recounted
+                eventPublisher.publishEvent(new OrganizationChange(Set.of(),
+                        Set.of(previousCompany.getId(), savedDepartment.getCompany().getId())));
+            }
+            DepartmentDto result = departmentMapper.toDto(savedDepartment);
+            logger.info("Patched department ID [{}]", id);
+            return result;
+        } catch (HttpStatusException | ConstraintViolationException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Failed to update department ID [{}] (HTTP 500): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to patch department ID [" + id + "]", e);
         }
     }
 
@@ -126,33 +233,28 @@ public class DepartmentServiceImpl implements DepartmentService {
     @Transactional
     public void deleteDepartment(Long id) {
         if (id == null) {
-            logger.error("Delete department failed (HTTP 400): ID is null");
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Delete department failed: ID is null");
         }
         try {
             // Load department with employeeDepartments
             Department department = departmentRepository.findById(id)
                     .orElseThrow(() -> new EntityNotFound("Department not found: " + id));
-            // Process employeeDepartments
-            for (EmployeeDepartment ed : department.getEmployeeDepartments()) {
+            // Process employeeDepartments; a copy, as deleting a member unlinks it from the department
+            for (EmployeeDepartment ed : new ArrayList<>(department.getEmployeeDepartments())) {
                 Employee employee = ed.getEmployee();
                 logger.info("Processing employee ID [{}] for department ID [{}]", employee.getId(), id);
-                // Clear employee's employeeDepartments to avoid constraints
-                employee.getEmployeeDepartments().clear();
-                employeeRepository.save(employee); // Update employee to persist cleared associations
-                // Delete the employee
-                employeeRepository.delete(employee);
+                employeeService.deleteMember(employee.getId());
                 logger.info("Deleted employee ID [{}] for department ID [{}]", employee.getId(), id);
             }
             // Delete the department (cascades to employeeDepartments)
             departmentRepository.deleteById(id);
+            outboxWriter.append(EntityType.DEPARTMENT, id, Operation.DELETED);
+            eventPublisher.publishEvent(new OrganizationChange(Set.of(id), Set.of()));
             logger.info("Deleted department ID [{}]", id);
         } catch (HttpStatusException e) {
-            logger.error("HttpStatusException while deleting department ID [{}] : {}", id, e.getMessage());
             throw e;
         } catch (Exception e) {
-            logger.error("Failed to delete department ID [{}] (HTTP 500): {}", id, e.getMessage(), e);
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to delete department ID [" + id + "]", e);
         }
     }
 }
\ No newline at end of file
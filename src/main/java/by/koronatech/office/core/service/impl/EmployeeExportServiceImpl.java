@@ -0,0 +1,241 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.service.EmployeeExportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams all employees straight from a JDBC cursor to the response. The PostgreSQL driver
+ * only fetches fetch-size rows at a time inside a transaction, and rows are written as they
+ * arrive without entities or DTOs, so heap use does not grow with the table.
+ */
+@Service
+public class EmployeeExportServiceImpl implements EmployeeExportService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeExportServiceImpl.class);
+
+    // A merge join in id order: the rows of one employee are adjacent and nothing is sorted
+    private static final String EXPORT_SQL = "SELECT e.id, e.name, e.salary, e.manager, e.supervisor_id, "
+            + "d.name AS department_name FROM employee e "
+            + "LEFT JOIN employee_department ed ON ed.employee_id = e.id "
+            + "LEFT JOIN department d ON d.id = ed.department_id "
+            + "ORDER BY e.id";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    // Each export holds a connection for its whole duration
+    private final Semaphore permits;
+
+    public EmployeeExportServiceImpl(DataSource dataSource,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     @Value("${app.employee.export.fetch-size:1000}") int fetchSize,
+                                     @Value("${app.employee.export.max-concurrent:2}") int maxConcurrent) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // Read-only: goes to a replica when one is configured
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public void export(Format format, OutputStream out) {
+        if (!permits.tryAcquire()) {
+            throw new HttpStatusException(503, "Too many exports running, retry later");
+        }
+        long start = System.nanoTime();
+        try {
+            RowWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out);
+            EmployeeRows rows = new EmployeeRows(writer);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(EXPORT_SQL, rows));
+            rows.finish();
+            writer.flush();
+            logger.info("Exported {} employees as {} in {} ms",
+                    rows.count, format, (System.nanoTime() - start) / 1_000_000);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the transaction is already rolled back
+            logger.warn("Employee export as {} aborted: {}", format, e.getCause().getMessage());
+        } catch (IOException e) {
+            logger.warn("Employee export as {} aborted: {}", format, e.getMessage());
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Collects the department rows of one employee and writes it when the next one starts. */
+    private static final class EmployeeRows implements RowCallbackHandler {
+
+        private final RowWriter writer;
+        private final List<String> departmentNames = new ArrayList<>();
+        private long id = -1;
+        private String name;
+        private BigDecimal salary;
+        private boolean manager;
+        private Long supervisorId;
+        private long count;
+
+        EmployeeRows(RowWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowId = rs.getLong(1);
+            if (rowId != id) {
+                finish();
+                id = rowId;
+                name = rs.getString(2);
+                salary = rs.getBigDecimal(3);
+                manager = rs.getBoolean(4);
+                long supervisor = rs.getLong(5);
+                supervisorId = rs.wasNull() ? null : supervisor;
+            }
+            String department = rs.getString(6);
+            if (department != null) {
+                departmentNames.add(department);
+            }
+        }
+
+        void finish() {
+            if (id < 0) {
+                return;
+            }
+            try {
+                writer.write(id, name, salary, departmentNames, manager, supervisorId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            departmentNames.clear();
+            count++;
+        }
+    }
+
+    private interface RowWriter {
+
+        void write(long id, String name, BigDecimal salary, List<String> departmentNames,
+                   boolean manager, Long supervisorId) throws IOException;
+
+        void flush() throws IOException;
+    }
+
+    // RFC 4180; department names are joined with '|' into one column
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer out;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.out.write("id,name,salary,departmentNames,manager,supervisorId\r\n");
+        }
+
+        @Override
+        public void write(long id, String name, BigDecimal salary, List<String> departmentNames,
+                          boolean manager, Long supervisorId) throws IOException {
+            out.write(Long.toString(id));
+            out.write(',');
+            writeText(name);
+            out.write(',');
+            if (salary != null) {
+                out.write(salary.toPlainString());
+            }
+            out.write(',');
+            writeText(String.join("|", departmentNames));
+            out.write(',');
+            out.write(manager ? "true" : "false");
+            out.write(',');
+            if (supervisorId != null) {
+                out.write(supervisorId.toString());
+            }
+            out.write("\r\n");
+        }
+
+        private void writeText(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+
+    // One JSON object per line with the EmployeeDto field names
+    private final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator json;
+
+        NdjsonWriter(OutputStream out) throws IOException {
+            this.json = objectMapper.getFactory().createGenerator(out);
+            this.json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(long id, String name, BigDecimal salary, List<String> departmentNames,
+                          boolean manager, Long supervisorId) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", id);
+            json.writeStringField("name", name);
+            json.writeFieldName("salary");
+            json.writeNumber(salary);
+            json.writeArrayFieldStart("departmentNames");
+            for (String department : departmentNames) {
+                json.writeString(department);
+            }
+            json.writeEndArray();
+            json.writeBooleanField("manager", manager);
+            if (supervisorId != null) {
+                json.writeNumberField("supervisorId", supervisorId);
+            } else {
+                json.writeNullField("supervisorId");
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            json.flush();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.OrgNodeDto;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.model.OutboxEvent.EntityType;
+import by.koronatech.office.core.model.OutboxEvent.Operation;
+import by.koronatech.office.core.outbox.OutboxWriter;
+import by.koronatech.office.core.repository.EmployeeHierarchyRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.service.EmployeeHierarchyService;
+import jakarta.persistence.Tuple;
+import java.util.List;
+import java.util.Objects;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@AllArgsConstructor
+public class EmployeeHierarchyServiceImpl implements EmployeeHierarchyService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeHierarchyServiceImpl.class);
+
+    private final EmployeeRepository employeeRepository;
+    private final EmployeeHierarchyRepository hierarchyRepository;
+    private final OutboxWriter outboxWriter;
+
+    @Override
+    @Transactional
+    public void setSupervisor(Long id, Long supervisorId) {
+        if (id == null) {
+            throw new HttpStatusException(400, "Set supervisor failed: ID is null");
+        }
+        if (id.equals(supervisorId)) {
+            throw new HttpStatusException(400, "Employee cannot be their own supervisor");
+        }
+        hierarchyRepository.lock();
+        Employee employee = employeeRepository.findById(id).orElseThrow(
+                () -> new HttpStatusException(404, "Employee with ID " + id + " not found"));
+        Employee supervisor = null;
+        if (supervisorId != null) {
+            supervisor = employeeRepository.findById(supervisorId).orElseThrow(
+                    () -> new HttpStatusException(404, "Supervisor with ID " + supervisorId + " not found"));
+            if (hierarchyRepository.isReport(id, supervisorId)) {
+                throw new HttpStatusException(409, "Employee " + supervisorId
+                        + " reports to employee " + id + " and cannot become their supervisor");
+            }
+        }
+        Long currentId = employee.getSupervisor() != null ? employee.getSupervisor().getId() : null;
+        if (Objects.equals(currentId, supervisorId)) {
+            return;
+        }
+        try {
+            int removed = currentId != null ? hierarchyRepository.detachSubtree(id) : 0;
+            int added = supervisorId != null ? hierarchyRepository.attachSubtree(id, supervisorId) : 0;
+            employee.setSupervisor(supervisor);
+            employeeRepository.save(employee);
+            outboxWriter.append(EntityType.EMPLOYEE, id, Operation.UPDATED);
+            logger.info("Moved employee ID [{}] from supervisor [{}] to [{}]: {} links removed, {} added",
+                    id, currentId, supervisorId, removed, added);
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to set supervisor of employee ID [" + id + "]", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrgNodeDto> findReports(Long id, Integer maxDepth) {
+        if (maxDepth != null && maxDepth < 1) {
+            throw new HttpStatusException(400, "maxDepth must be positive");
+        }
+        requireEmployee(id);
+        try {
+            List<OrgNodeDto> reports = hierarchyRepository
+                    .findReports(id, maxDepth != null ? maxDepth : Integer.MAX_VALUE).stream()
+                    .map(EmployeeHierarchyServiceImpl::toDto)
+                    .toList();
+            logger.info("Retrieved reports of employee ID [{}]: {} found", id, reports.size());
+            return reports;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve reports of employee ID [" + id + "]", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<OrgNodeDto> findChain(Long id) {
+        requireEmployee(id);
+        try {
+            List<OrgNodeDto> chain = hierarchyRepository.findChain(id).stream()
+                    .map(EmployeeHierarchyServiceImpl::toDto)
+                    .toList();
+            logger.info("Retrieved management chain of employee ID [{}]: {} levels", id, chain.size());
+            return chain;
+        } catch (Exception e) {
+            throw new HttpStatusException(500,
+                    "Failed to retrieve management chain of employee ID [" + id + "]", e);
+        }
+    }
+
+    /**
+     * Takes an employee out of the hierarchy before it is deleted. Their direct reports
+     * move to their supervisor (or become top-level), keeping their own subtrees.
+     */
+    @Override
+    @Transactional
+    public void removeFromHierarchy(Long id) {
+        hierarchyRepository.lock();
+        Long supervisorId = employeeRepository.findById(id)
+                .map(Employee::getSupervisor)
+                .map(Employee::getId)
+                .orElse(null);
+        hierarchyRepository.shortenPathsThrough(id);
+        hierarchyRepository.deleteNode(id);
+        for (Long reportId : hierarchyRepository.findDirectReportIds(id)) {
+            outboxWriter.append(EntityType.EMPLOYEE, reportId, Operation.UPDATED);
+        }
+        hierarchyRepository.reassignDirectReports(id, supervisorId);
+    }
+
+    private void requireEmployee(Long id) {
+        if (id == null) {
+            throw new HttpStatusException(400, "Employee ID is null");
+        }
+        if (!employeeRepository.existsById(id)) {
+            throw new HttpStatusException(404, "Employee with ID " + id + " not found");
+        }
+    }
+
+    private static OrgNodeDto toDto(Tuple node) {
+        Number supervisorId = node.get("supervisorId", Number.class);
+        return OrgNodeDto.builder()
+                .id(node.get("id", Number.class).longValue())
+                .name(node.get("name", String.class))
+                .supervisorId(supervisorId != null ? supervisorId.longValue() : null)
+                .depth(node.get("depth", Number.class).intValue())
+                .build();
+    }
+}
@@ -0,0 +1,424 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.CreateEmployeeDto;
+import by.koronatech.office.api.dto.ImportJobDto;
+import by.koronatech.office.api.dto.ImportJobErrorDto;
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.model.Department;
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.model.ImportJob;
+import by.koronatech.office.core.model.ImportJobError;
+import by.koronatech.office.core.model.ImportJobPayload;
+import by.koronatech.office.core.model.ImportJobStatus;
+import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.repository.ImportJobErrorRepository;
+import by.koronatech.office.core.repository.ImportJobPayloadRepository;
+import by.koronatech.office.core.repository.ImportJobRepository;
+import by.koronatech.office.core.service.EmployeeImportService;
+import by.koronatech.office.core.validation.EmployeeBulkValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService {
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeImportServiceImpl.class);
+
+    private static final TypeReference<List<CreateEmployeeDto>> ROWS = new TypeReference<>() { };
+    private static final List<ImportJobStatus> UNFINISHED =
+            List.of(ImportJobStatus.QUEUED, ImportJobStatus.RUNNING);
+    private static final int MAX_ERROR_PAGE_SIZE = 1000;
+
+    private final ImportJobRepository jobRepository;
+    private final ImportJobPayloadRepository payloadRepository;
+    private final ImportJobErrorRepository errorRepository;
+    private final EmployeeRepository employeeRepository;
+    private final DepartmentRepository departmentRepository;
+    private final EmployeeBulkValidator bulkValidator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final Duration heartbeatTimeout;
+
+    // Lease owner id of this instance; a job is worked by the instance whose heartbeat is fresh
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Own bounded pool rather than an Executor bean, which would replace Boot's taskExecutor
+    private final ThreadPoolExecutor executor;
+
+    // Jobs queued or running on this instance, so a resume never starts a second worker
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public EmployeeImportServiceImpl(ImportJobRepository jobRepository,
+                                     ImportJobPayloadRepository payloadRepository,
+                                     ImportJobErrorRepository errorRepository,
+                                     EmployeeRepository employeeRepository,
+                                     DepartmentRepository departmentRepository,
+                                     EmployeeBulkValidator bulkValidator,
+                                     ObjectMapper objectMapper,
+                                     ApplicationEventPublisher eventPublisher,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${app.employee.import.threads:2}") int threads,
+                                     @Value("${app.employee.import.queue-capacity:50}") int queueCapacity,
+                                     @Value("${app.employee.import.chunk-size:500}") int chunkSize,
+                                     @Value("${app.employee.import.heartbeat-timeout-ms:60000}")
+                                     long heartbeatTimeoutMs) {
+        this.jobRepository = jobRepository;
+        this.payloadRepository = payloadRepository;
+        this.errorRepository = errorRepository;
+        this.employeeRepository = employeeRepository;
+        this.departmentRepository = departmentRepository;
+        this.bulkValidator = bulkValidator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.heartbeatTimeout = Duration.ofMillis(heartbeatTimeoutMs);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("import-"));
+    }
+
+    @Override
+    public ImportJobDto submit(List<CreateEmployeeDto> rows) {
+        if (rows == null || rows.isEmpty()) {
+            throw new HttpStatusException(400, "Import rejected: no rows submitted");
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(rows);
+        } catch (JsonProcessingException e) {
+            throw new HttpStatusException(500, "Failed to store import payload", e);
+        }
+
+        ImportJob job = ImportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .status(ImportJobStatus.QUEUED)
+                .totalRows(rows.size())
+                .createdAt(Instant.now())
+                .owner(instanceId)
+                .heartbeatAt(Instant.now())
+                .build();
+        transactionTemplate.executeWithoutResult(status -> {
+            jobRepository.save(job);
+            payloadRepository.save(new ImportJobPayload(job.getId(), payload));
+        });
+
+        try {
+            enqueue(job.getId());
+        } catch (RejectedExecutionException e) {
+            finish(job.getId(), ImportJobStatus.QUEUED, ImportJobStatus.FAILED, "Import queue is full");
+            throw new HttpStatusException(503, "Import queue is full, retry later");
+        }
+        logger.info("Import job [{}] queued with {} rows", job.getId(), rows.size());
+        return toDto(job);
+    }
+
+    @Override
+    public ImportJobDto submit(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new HttpStatusException(400, "Import rejected: file is empty");
+        }
+        List<CreateEmployeeDto> rows;
+        try (InputStream in = file.getInputStream()) {
+            rows = objectMapper.readValue(in, ROWS);
+        } catch (JsonProcessingException e) {
+            throw new HttpStatusException(400,
+                    "Import rejected: file is not a JSON array of employees: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new HttpStatusException(500, "Failed to read import file", e);
+        }
+        return submit(rows);
+    }
+
+    @Override
+    public ImportJobDto getJob(String id) {
+        return toDto(findJob(id));
+    }
+
+    @Override
+    public ImportJobDto cancel(String id) {
+        primary(() -> findJob(id));
+        if (finish(id, ImportJobStatus.QUEUED, ImportJobStatus.CANCELLED, "Cancelled before start")) {
+            logger.info("Import job [{}] cancelled before start", id);
+        } else if (jobRepository.requestCancel(id, ImportJobStatus.RUNNING) > 0) {
+            // The worker stops before its next chunk; rows already committed stay imported
+            logger.info("Import job [{}] cancellation requested", id);
+        }
+        return toDto(primary(() -> findJob(id)));
+    }
+
+    @Override
+    public List<ImportJobErrorDto> getErrors(String id, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_ERROR_PAGE_SIZE) {
+            throw new HttpStatusException(400,
+                    "Page must be >= 0 and size between 1 and " + MAX_ERROR_PAGE_SIZE);
+        }
+        findJob(id);
+        return errorRepository.findByJobIdOrderByRowIndexAscIdAsc(id, PageRequest.of(page, size))
+                .map(error -> new ImportJobErrorDto(
+                        error.getRowIndex(), error.getField(), error.getMessage()))
+                .getContent();
+    }
+
+    // Picks up jobs whose owner stopped heartbeating (crash or shutdown);
+    // they continue after the last committed chunk
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        Instant staleBefore = Instant.now().minus(heartbeatTimeout);
+        for (ImportJob job : primary(() -> jobRepository.findAbandoned(UNFINISHED, staleBefore))) {
+            try {
+                enqueue(job.getId());
+                logger.info("Import job [{}] resumed at row {} of {}",
+                        job.getId(), job.getProcessedRows(), job.getTotalRows());
+            } catch (RejectedExecutionException e) {
+                logger.warn("Import job [{}] not resumed: import queue is full", job.getId());
+            }
+        }
+    }
+
+    // Renews the lease on this instance's jobs, then takes over any other instance let lapse
+    @Scheduled(fixedDelayString = "${app.employee.import.heartbeat-ms:15000}",
+            initialDelayString = "${app.employee.import.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!activeJobs.isEmpty()) {
+            jobRepository.heartbeat(Set.copyOf(activeJobs), instanceId, UNFINISHED, Instant.now());
+        }
+        resumeUnfinishedJobs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Running jobs keep their committed chunks and resume on the next start
+        executor.shutdownNow();
+    }
+
+    private void enqueue(String jobId) {
+        if (!activeJobs.add(jobId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(jobId);
+                } finally {
+                    activeJobs.remove(jobId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            activeJobs.remove(jobId);
+            throw e;
+        }
+    }
+
+    private void run(String jobId) {
+        // Compare-and-set on the lease: only one instance wins a queued or abandoned job
+        Instant now = Instant.now();
+        if (jobRepository.markRunning(jobId, UNFINISHED, ImportJobStatus.RUNNING, instanceId,
+                now, now.minus(heartbeatTimeout)) == 0) {
+            return;
+        }
+        ImportJob job = primary(() -> jobRepository.findById(jobId).orElseThrow());
+        List<CreateEmployeeDto> rows;
+        try {
+            rows = objectMapper.readValue(
+                    primary(() -> payloadRepository.findById(jobId).orElseThrow()).getRows(), ROWS);
+        } catch (Exception e) {
+            logger.error("Import job [{}] failed: payload unreadable", jobId, e);
+            finish(jobId, ImportJobStatus.RUNNING, ImportJobStatus.FAILED, "Payload unreadable");
+            return;
+        }
+
+        Map<Integer, Map<String, String>> invalidRows = bulkValidator.validate(rows);
+        Map<String, Optional<Long>> departmentIds = new HashMap<>();
+        int next = job.getProcessedRows();
+        while (next < rows.size()) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            if (primary(() -> jobRepository.isCancelRequested(jobId))) {
+                finish(jobId, ImportJobStatus.RUNNING, ImportJobStatus.CANCELLED,
+                        "Cancelled at row " + next);
+                logger.info("Import job [{}] cancelled at row {} of {}", jobId, next, rows.size());
+                return;
+            }
+            int from = next;
+            int to = Math.min(from + chunkSize, rows.size());
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        importChunk(jobId, rows, invalidRows, departmentIds, from, to));
+            } catch (LeaseLostException e) {
+                logger.warn("Import job [{}] taken over by another instance at row {}", jobId, from);
+                return;
+            } catch (RuntimeException e) {
+                // The chunk rolled back as a whole; redo it row by row to isolate the bad rows
+                logger.warn("Import job [{}] chunk {}-{} failed, retrying row by row: {}",
+                        jobId, from, to, e.getMessage());
+                try {
+                    for (int row = from; row < to; row++) {
+                        importSingleRow(jobId, rows, invalidRows, departmentIds, row);
+                    }
+                } catch (LeaseLostException lost) {
+                    logger.warn("Import job [{}] taken over by another instance at row {}", jobId, from);
+                    return;
+                }
+            }
+            next = to;
+        }
+
+        finish(jobId, ImportJobStatus.RUNNING, ImportJobStatus.COMPLETED, null);
+        logger.info("Import job [{}] completed: {} rows", jobId, rows.size());
+    }
+
+    private void importSingleRow(String jobId, List<CreateEmployeeDto> rows,
+                                 Map<Integer, Map<String, String>> invalidRows,
+                                 Map<String, Optional<Long>> departmentIds, int row) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    importChunk(jobId, rows, invalidRows, departmentIds, row, row + 1));
+        } catch (LeaseLostException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            String message = "Failed to create employee: "
+                    + (e.getMessage() != null ? e.getMessage() : "Unknown error");
+            transactionTemplate.executeWithoutResult(status -> {
+                errorRepository.save(new ImportJobError(null, jobId, row, "general", message));
+                recordProgress(jobId, row + 1, 0, 1);
+            });
+        }
+    }
+
+    // Runs in one transaction: the rows and the job's progress commit together
+    private void importChunk(String jobId, List<CreateEmployeeDto> rows,
+                             Map<Integer, Map<String, String>> invalidRows,
+                             Map<String, Optional<Long>> departmentIds, int from, int to) {
+        int created = 0;
+        List<ImportJobError> errors = new ArrayList<>();
+        for (int row = from; row < to; row++) {
+            Map<String, String> rowErrors = invalidRows.get(row);
+            if (rowErrors == null) {
+                rowErrors = importRow(rows.get(row), departmentIds);
+            }
+            if (rowErrors == null) {
+                created++;
+            } else {
+                for (Map.Entry<String, String> error : rowErrors.entrySet()) {
+                    errors.add(new ImportJobError(null, jobId, row, error.getKey(), error.getValue()));
+                }
+            }
+        }
+        errorRepository.saveAll(errors);
+        recordProgress(jobId, to, created, to - from - created);
+    }
+
+    // Fenced by the lease owner: a worker that lost its job rolls its chunk back instead of committing it
+    private void recordProgress(String jobId, int processedRows, int created, int failed) {
+        if (jobRepository.recordProgress(jobId, instanceId, processedRows, created, failed) == 0) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private Map<String, String> importRow(CreateEmployeeDto dto,
+                                          Map<String, Optional<Long>> departmentIds) {
+        Set<Department> departments = new HashSet<>();
+        if (dto.getDepartmentNames() != null) {
+            for (String name : dto.getDepartmentNames()) {
+                Optional<Long> departmentId = departmentIds.computeIfAbsent(name,
+                        n -> departmentRepository.findByName(n).map(Department::getId));
+                if (departmentId.isEmpty()) {
+                    return Map.of("general", "Department " + name + " not found");
+                }
+                departments.add(departmentRepository.getReferenceById(departmentId.get()));
+            }
+        }
+        Employee employee = Employee.builder()
+                .name(dto.getName())
+                .salary(dto.getSalary())
+                .manager(dto.isManager())
+                .build();
+        employee.updateDepartments(departments);
+        eventPublisher.publishEvent(EmployeeChange.created(employeeRepository.save(employee)));
+        return null;
+    }
+
+    private boolean finish(String jobId, ImportJobStatus from, ImportJobStatus to, String message) {
+        Boolean finished = transactionTemplate.execute(status -> {
+            if (jobRepository.transition(jobId, from, to, Instant.now(), message) == 0) {
+                return false;
+            }
+            payloadRepository.deleteById(jobId);
+            return true;
+        });
+        return Boolean.TRUE.equals(finished);
+    }
+
+    // A read-write transaction is routed to the primary, so the worker never sees replica lag
+    private <T> T primary(Supplier<T> query) {
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    private ImportJob findJob(String id) {
+        return jobRepository.findById(id).orElseThrow(() ->
+                new HttpStatusException(404, "Import job " + id + " not found"));
+    }
+
+    private ImportJobDto toDto(ImportJob job) {
+        double rowsPerSecond = 0;
+        if (job.getStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            long millis = Math.max(1, Duration.between(job.getStartedAt(), end).toMillis());
+            rowsPerSecond = Math.round((job.getProcessedRows() - job.getRunStartRow()) * 10_000.0 / millis) / 10.0;
+        }
+        return ImportJobDto.builder()
+                .id(job.getId())
+                .status(job.getStatus().name())
+                .totalRows(job.getTotalRows())
+                .processedRows(job.getProcessedRows())
+                .createdRows(job.getCreatedRows())
+                .failedRows(job.getFailedRows())
+                .rowsPerSecond(rowsPerSecond)
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .message(job.getMessage())
+                .build();
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -1,22 +1,43 @@
 package by.koronatech.office.core.service.impl;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CreateEmployeeDto;
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.api.dto.EmployeePageDto;
+import by.koronatech.office.api.dto.EmployeePatchDto;
+import by.koronatech.office.api.dto.MembershipPageDto;
 import by.koronatech.office.api.dto.UpdateDto;
+import by.koronatech.office.core.cache.Cache;
+import by.koronatech.office.core.event.EmployeeChange;
 import by.koronatech.office.core.exceptions.EntityNotFound;
 import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.exceptions.VersionConflictException;
+import by.koronatech.office.core.index.MembershipIndex;
 import by.koronatech.office.core.model.Department;
 import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.model.EmployeeDepartment;
 import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeFilter;
 import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.repository.EmployeeUpdateRepository;
+import by.koronatech.office.core.repository.FieldProjectionRepository;
+import by.koronatech.office.core.service.EmployeeHierarchyService;
+import by.koronatech.office.core.validation.EmployeeBulkValidator;
+import jakarta.persistence.Tuple;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.FieldError;
@@ -27,10 +48,55 @@ import org.springframework.validation.Validator;
 public class EmployeeServiceImpl {
     private static final Logger logger = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_NAME_PREFIX_LENGTH = 100;
+    private static final int MAX_FILTER_DEPARTMENTS = 50;
+
+    private static final String DEPARTMENT_NAMES = "departmentNames";
+    // Selectable fields in EmployeeDto order, with their entity paths; departmentNames has
+    // no column and is read from employee_department only when requested
+    private static final Map<String, String> EMPLOYEE_FIELDS;
+
+    static {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put(Fields.ID, "id");
+        fields.put("name", "name");
+        fields.put("salary", "salary");
+        fields.put(DEPARTMENT_NAMES, null);
+        fields.put("manager", "manager");
+        fields.put("supervisorId", "supervisor.id");
+        fields.put("version", "version");
+        EMPLOYEE_FIELDS = Collections.unmodifiableMap(fields);
+    }
+
     private final EmployeeRepository employeeRepository;
     private final DepartmentRepository departmentRepository;
     private final Validator validator;
+    private final EmployeeBulkValidator bulkValidator;
+    private final EmployeeHierarchyService hierarchyService;
+    private final Cache cache;
+    private final FieldProjectionRepository projectionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MembershipIndex membershipIndex;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllEmployeeFields(String fields) {
+        List<String> selected = Fields.parse(fields, EMPLOYEE_FIELDS);
+        try {
+            List<Map<String, Object>> employees = Fields.toRows(projectionRepository.findAll(
+                    Employee.class, Fields.paths(selected, EMPLOYEE_FIELDS)), selected, EMPLOYEE_FIELDS);
+            if (selected.contains(DEPARTMENT_NAMES)) {
+                addDepartmentNames(employees, employeeRepository.findAllDepartmentNames());
+            }
+            logger.info("Retrieved all employees with fields {}: {} found", selected, employees.size());
+            return employees;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve employees", e);
+        }
+    }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> getAllEmployees() {
         try {
             List<EmployeeDto> employees = employeeRepository.findAll().stream()
@@ -39,47 +105,33 @@ public class EmployeeServiceImpl {
             logger.info("Retrieved all employees: {} found", employees.size());
             return employees;
         } catch (Exception e) {
-            logger.error("Failed to retrieve employees (HTTP 500): {}",
-                    e.getMessage(), new HttpStatusException(500));
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to retrieve employees", e);
         }
     }
 
+    @Transactional
     public EmployeeDto createEmployee(CreateEmployeeDto employeeDto) {
         if (employeeDto == null) {
-            logger.error("Create employee failed (HTTP 400): DTO is null",
-                    new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Create employee failed: DTO is null");
         }
         Errors validationErrors = new BeanPropertyBindingResult(
                 employeeDto, "employeeDto");
         validator.validate(employeeDto, validationErrors);
         if (validationErrors.hasErrors()) {
-            Map<String, String> errorMap = validationErrors.getFieldErrors().stream()
-                    .collect(Collectors.toMap(
-                            FieldError::getField,
-                            fieldError -> fieldError
-                                    .getDefaultMessage() != null ? fieldError
-                                    .getDefaultMessage() : "Validation error",
-                            (existing, replacement) -> existing
-                    ));
-            logger.error("Validation error for employee [{}] (HTTP 400): {}",
-                    employeeDto.getName(), errorMap, new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Validation error for employee ["
+                    + employeeDto.getName() + "]: " + toErrorMap(validationErrors));
         }
         try {
-            Employee employee = toEntity(employeeDto);
-            EmployeeDto result = toDto(employeeRepository.save(employee));
+            Employee employee = employeeRepository.save(toEntity(employeeDto));
+            eventPublisher.publishEvent(EmployeeChange.created(employee));
+            EmployeeDto result = toDto(employee);
             logger.info("Created employee [{}]", result.getName());
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Entity not found for employee [{}] (HTTP 404): {}",
-                    employeeDto.getName(), e.getMessage(), new HttpStatusException(404));
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
         } catch (Exception e) {
-            logger.error("Failed to create employee [{}] (HTTP 500): {}",
-                    employeeDto.getName(), e.getMessage(), new HttpStatusException(500));
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500,
+                    "Failed to create employee [" + employeeDto.getName() + "]", e);
         }
     }
 
@@ -87,60 +139,45 @@ public class EmployeeServiceImpl {
             List<CreateEmployeeDto> employeeDtos) {
         Map<String, Object> result = new HashMap<>();
         List<EmployeeDto> createdEmployees = new ArrayList<>();
-        Map<String, Map<String, String>> errors = new HashMap<>();
 
         if (employeeDtos == null) {
-            logger.error("Bulk create employees failed (HTTP 400): DTO list is null",
-                    new HttpStatusException(400));
+            logger.warn("Bulk create employees failed (HTTP 400): DTO list is null");
             result.put("errors", Map.of("general", "DTO list is null"));
             return result;
         }
 
-        employeeDtos.stream()
-                .map(dto -> {
-                    Errors validationErrors = new BeanPropertyBindingResult(
-                            dto, "employeeDto");
-                    validator.validate(dto, validationErrors);
-                    return Map.entry(dto, validationErrors);
-                })
-                .forEach(entry -> {
-                    CreateEmployeeDto dto = entry.getKey();
-                    Errors validationErrors = entry.getValue();
-                    String key = dto.getName() != null && !dto.getName()
-                            .isEmpty() ? dto.getName() : "unknown_" + UUID.randomUUID().toString();
-
-                    if (validationErrors.hasErrors()) {
-                        Map<String, String> errorMap = validationErrors.getFieldErrors()
-                                .stream()
-                                .collect(Collectors.toMap(
-                                        FieldError::getField,
-                                        fieldError -> fieldError
-                                                .getDefaultMessage() != null ? fieldError
-                                                .getDefaultMessage() : "Validation error",
-                                        (existing, replacement) -> existing
-                                ));
-                        errors.put(key, errorMap);
-                        logger.error("Validation error for employee [{}] (HTTP 400): {}",
-                                key, errorMap, new HttpStatusException(400));
-                    } else {
-                        try {
-                            Employee employee = toEntity(dto);
-                            EmployeeDto saved = toDto(employeeRepository.save(employee));
-                            createdEmployees.add(saved);
-                            logger.info("Created employee [{}] in bulk operation", key);
-                        } catch (EntityNotFound e) {
-                            errors.put(key, Map.of("general", e
-                                    .getMessage() != null ? e.getMessage() : "Entity not found"));
-                            logger.error("Entity not found for employee [{}] (HTTP 404): {}",
-                                    key, e.getMessage(), new HttpStatusException(404));
-                        } catch (Exception e) {
-                            errors.put(key, Map.of("general", "Failed to create employee: "
-                                    + (e.getMessage() != null ? e.getMessage() : "Unknown error")));
-                            logger.error("Failed to create employee [{}] (HTTP 500): {}",
-                                    key, e.getMessage(), new HttpStatusException(500));
-                        }
-                    }
+        Map<Integer, Map<String, String>> errors = bulkValidator.validate(employeeDtos);
+        if (!errors.isEmpty()) {
+            logger.debug("Bulk create validation: {} of {} rows invalid",
+                    errors.size(), employeeDtos.size());
+        }
+
+        // Row failures are returned to the caller; the log only gets a summary. Each row
+        // commits on its own, together with its outbox event
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int row = 0; row < employeeDtos.size(); row++) {
+            if (errors.containsKey(row)) {
+                continue;
+            }
+            CreateEmployeeDto dto = employeeDtos.get(row);
+            try {
+                EmployeeDto saved = transactionTemplate.execute(status -> {
+                    Employee employee = employeeRepository.save(toEntity(dto));
+                    eventPublisher.publishEvent(EmployeeChange.created(employee));
+                    return toDto(employee);
                 });
+                createdEmployees.add(saved);
+                logger.info("Created employee [{}] in bulk operation", saved.getName());
+            } catch (EntityNotFound e) {
+                errors.put(row, Map.of("general", e
+                        .getMessage() != null ? e.getMessage() : "Entity not found"));
+                logger.debug("Entity not found for bulk row {}: {}", row, e.getMessage());
+            } catch (Exception e) {
+                errors.put(row, Map.of("general", "Failed to create employee: "
+                        + (e.getMessage() != null ? e.getMessage() : "Unknown error")));
+                logger.warn("Failed to create employee at bulk row {}: {}", row, e.getMessage());
+            }
+        }
 
         result.put("created", createdEmployees);
         result.put("errors", errors);
@@ -149,11 +186,11 @@ public class EmployeeServiceImpl {
         return result;
     }
 
+    @Transactional(readOnly = true)
     public List<EmployeeDto> findAllEmployeesByDepartment(String department) {
         if (department == null || department.isEmpty()) {
-            logger.error("Find employees by department failed (HTTP 400): "
-                    + "Department name is null or empty", new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400,
+                    "Find employees by department failed: department name is null or empty");
         }
         try {
             Page<Employee> page = employeeRepository
@@ -166,106 +203,456 @@ public class EmployeeServiceImpl {
                     department, employees.size());
             return employees;
         } catch (Exception e) {
-            logger.error("Failed to retrieve employees for department [{}] (HTTP 500): {}",
-                    department, e.getMessage(), new HttpStatusException(500));
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500,
+                    "Failed to retrieve employees for department [" + department + "]", e);
+        }
+    }
+
+    // Employees of every department keyed by department ID, read with one fetch join
+    // instead of a query per department
+    @Transactional(readOnly = true)
+    public Map<Long, List<EmployeeDto>> findAllEmployeesByDepartmentId() {
+        try {
+            Map<Long, List<EmployeeDto>> byDepartment = new HashMap<>();
+            List<Employee> employees = employeeRepository.findAllWithDepartments();
+            for (Employee employee : employees) {
+                EmployeeDto dto = toDto(employee);
+                for (EmployeeDepartment ed : employee.getEmployeeDepartments()) {
+                    byDepartment.computeIfAbsent(ed.getDepartment().getId(), id -> new ArrayList<>()).add(dto);
+                }
+            }
+            logger.info("Retrieved employees of {} departments: {} found", byDepartment.size(), employees.size());
+            return byDepartment;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve employees by department", e);
         }
     }
 
+    @Transactional
     public EmployeeDto updateEmployee(Long id, UpdateDto employeeDto) {
         if (id == null || employeeDto == null) {
-            logger.error("Update employee failed (HTTP 400): ID or DTO is null",
-                    new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Update employee failed: ID or DTO is null");
         }
         Errors validationErrors = new BeanPropertyBindingResult(
                 employeeDto, "updateDto");
         validator.validate(employeeDto, validationErrors);
         if (validationErrors.hasErrors()) {
-            Map<String, String> errorMap = validationErrors.getFieldErrors()
-                    .stream()
-                    .collect(Collectors.toMap(
-                            FieldError::getField,
-                            fieldError -> fieldError
-                                    .getDefaultMessage() != null ? fieldError
-                                    .getDefaultMessage() : "Validation error",
-                            (existing, replacement) -> existing
-                    ));
-            logger.error("Validation error for employee ID [{}] (HTTP 400): {}",
-                    id, errorMap, new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Validation error for employee ID ["
+                    + id + "]: " + toErrorMap(validationErrors));
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put(EmployeePatchDto.NAME, employeeDto.getName());
+        columns.put(EmployeePatchDto.SALARY, employeeDto.getSalary());
+        columns.put(EmployeePatchDto.MANAGER, employeeDto.isManager());
+        return applyUpdate(id, columns, employeeDto.getVersion());
+    }
+
+    /**
+     * JSON Merge Patch of an employee: only the fields present in the patch are validated
+     * and written, in one UPDATE that names just those columns. None of them can be cleared.
+     */
+    @Transactional
+    public EmployeeDto patchEmployee(Long id, EmployeePatchDto patch) {
+        if (id == null || patch == null) {
+            throw new HttpStatusException(400, "Patch employee failed: ID or patch is null");
+        }
+        Map<String, Object> columns = new LinkedHashMap<>();
+        UpdateDto values = new UpdateDto();
+        if (patch.has(EmployeePatchDto.NAME)) {
+            columns.put(EmployeePatchDto.NAME, patch.getName());
+            values.setName(patch.getName());
+        }
+        if (patch.has(EmployeePatchDto.SALARY)) {
+            columns.put(EmployeePatchDto.SALARY, patch.getSalary());
+            values.setSalary(patch.getSalary());
+        }
+        if (patch.has(EmployeePatchDto.MANAGER)) {
+            columns.put(EmployeePatchDto.MANAGER, patch.getManager());
         }
+        // UpdateDto carries the constraints; errors of fields the patch leaves alone are dropped
+        Errors validationErrors = new BeanPropertyBindingResult(values, "updateDto");
+        validator.validate(values, validationErrors);
+        Map<String, String> errors = toErrorMap(validationErrors);
+        errors.keySet().retainAll(columns.keySet());
+        if (columns.containsKey(EmployeePatchDto.MANAGER) && patch.getManager() == null) {
+            errors.put(EmployeePatchDto.MANAGER, "Manager cannot be null");
+        }
+        if (!errors.isEmpty()) {
+            throw new HttpStatusException(400, "Validation error for employee ID [" + id + "]: " + errors);
+        }
+        if (columns.isEmpty()) {
+            return currentEmployee(id, patch.getVersion());
+        }
+        return applyUpdate(id, columns, patch.getVersion());
+    }
+
+    // One conditional UPDATE instead of read-modify-write: with a version from the
+    // client, a concurrent change is reported instead of being overwritten
+    private EmployeeDto applyUpdate(Long id, Map<String, Object> columns, Long expectedVersion) {
         try {
-            Employee employee = employeeRepository.findById(id)
-                    .orElseThrow(() -> new EntityNotFound(
-                            "Employee with ID " + id + " not found"));
-            updateEntity(employee, employeeDto);
-            EmployeeDto result = toDto(employeeRepository.save(employee));
-            logger.info("Updated employee ID [{}]", id);
-            return result;
-        } catch (EntityNotFound e) {
-            logger.error("Entity not found for employee ID [{}] (HTTP 404): {}",
-                    id, e.getMessage(), new HttpStatusException(404));
-            throw new HttpStatusException(404);
+            EmployeeUpdateRepository.UpdatedEmployee updated = employeeRepository.updateIfVersion(
+                    id, columns, expectedVersion).orElse(null);
+            if (updated == null) {
+                throw updateConflict(id, expectedVersion);
+            }
+            Set<Long> departmentIds = new HashSet<>();
+            Set<Long> companyIds = new HashSet<>();
+            List<String> departmentNames = new ArrayList<>();
+            for (Object[] department : employeeRepository.findDepartmentsOf(id)) {
+                departmentIds.add((Long) department[0]);
+                if (department[1] != null) {
+                    companyIds.add((Long) department[1]);
+                }
+                departmentNames.add((String) department[2]);
+            }
+            eventPublisher.publishEvent(new EmployeeChange(id,
+                    new EmployeeChange.State(updated.previousSalary(), updated.previousManager(),
+                            departmentIds, companyIds),
+                    new EmployeeChange.State(updated.salary(), updated.manager(), departmentIds, companyIds)));
+            logger.info("Updated {} of employee ID [{}] to version {}", columns.keySet(), id, updated.version());
+            return EmployeeDto.builder()
+                    .id(id)
+                    .name(updated.name())
+                    .salary(updated.salary())
+                    .departmentNames(departmentNames)
+                    .manager(updated.manager())
+                    .supervisorId(updated.supervisorId())
+                    .version(updated.version())
+                    .build();
+        } catch (HttpStatusException e) {
+            throw e;
         } catch (Exception e) {
-            logger.error("Failed to update employee ID [{}] (HTTP 500): {}",
-                    id, e.getMessage(), new HttpStatusException(500));
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to update employee ID [" + id + "]", e);
+        }
+    }
+
+    // An empty patch changes nothing but still answers like an update would
+    private EmployeeDto currentEmployee(Long id, Long expectedVersion) {
+        Employee current = employeeRepository.findById(id)
+                .orElseThrow(() -> new HttpStatusException(404, "Employee with ID " + id + " not found"));
+        if (expectedVersion != null && expectedVersion != current.getVersion()) {
+            throw versionConflict(current, expectedVersion);
         }
+        return toDto(current);
+    }
+
+    // Nothing was updated: either the employee is gone or it has a newer version
+    private HttpStatusException updateConflict(Long id, Long expectedVersion) {
+        Employee current = employeeRepository.findById(id).orElse(null);
+        if (current == null) {
+            return new HttpStatusException(404, "Employee with ID " + id + " not found");
+        }
+        return versionConflict(current, expectedVersion);
+    }
+
+    private VersionConflictException versionConflict(Employee current, Long expectedVersion) {
+        return new VersionConflictException("Employee ID [" + current.getId() + "] has version "
+                + current.getVersion() + ", not " + expectedVersion
+                + "; apply the change to the current state and retry", toDto(current));
     }
 
+    @Transactional
     public void deleteEmployee(Long id) {
         if (id == null) {
-            logger.error("Delete employee failed (HTTP 400): ID is null",
-                    new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Delete employee failed: ID is null");
         }
         try {
-            if (!employeeRepository.existsById(id)) {
-                logger.error("Employee not found for ID [{}] (HTTP 404)",
-                        id, new HttpStatusException(404));
-                throw new HttpStatusException(404);
-            }
+            Employee employee = employeeRepository.findById(id)
+                    .orElseThrow(() -> new HttpStatusException(404, "Employee with ID " + id + " not found"));
+            EmployeeChange.State before = EmployeeChange.State.of(employee);
+            hierarchyService.removeFromHierarchy(id);
             employeeRepository.deleteById(id);
+            eventPublisher.publishEvent(EmployeeChange.deleted(id, before));
             logger.info("Deleted employee ID [{}]", id);
         } catch (HttpStatusException e) {
-            throw e; // Re-throw EntityNotFound as HttpStatusException
+            throw e;
         } catch (Exception e) {
-            logger.error("Failed to delete employee ID [{}] (HTTP 500): {}",
-                    id, e.getMessage(), new HttpStatusException(500));
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to delete employee ID [" + id + "]", e);
         }
     }
 
+    // Deletes a member of a department being deleted, in the caller's transaction; like
+    // deleteEmployee, it takes the employee out of the reporting lines first. Takes the ID,
+    // as the already loaded employee would be logged with its departments by LoggingAspect
+    @Transactional
+    public void deleteMember(Long id) {
+        Employee employee = employeeRepository.findById(id)
+                .orElseThrow(() -> new HttpStatusException(404, "Employee with ID " + id + " not found"));
+        // Removing an earlier member may have moved this one to a new supervisor, and bumped
+        // its version, in the database only
+        employeeRepository.refresh(employee);
+        EmployeeChange.State before = EmployeeChange.State.of(employee);
+        // Also unlinks the department side, or the flush before the hierarchy queries
+        // would find the removed link still in the department's members
+        employee.updateDepartments(Set.of());
+        employeeRepository.save(employee);
+        hierarchyService.removeFromHierarchy(id);
+        employeeRepository.delete(employee);
+        eventPublisher.publishEvent(EmployeeChange.deleted(id, before));
+    }
+
+    @Transactional(readOnly = true)
     public EmployeeDto findEmployeeById(Long id) {
         if (id == null) {
-            logger.error("Find employee failed (HTTP 400): ID is null",
-                    new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Find employee failed: ID is null");
+        }
+        EmployeeDto cached = cache.getEmployee(id);
+        if (cached != null) {
+            return cached;
         }
         try {
+            long version = cache.version();
             EmployeeDto result = employeeRepository.findById(id)
                     .map(this::toDto)
                     .orElseThrow(() -> new EntityNotFound(
                             "Employee with ID " + id + " not found"));
+            cache.putEmployee(id, result, version);
             logger.info("Retrieved employee ID [{}]", id);
             return result;
         } catch (EntityNotFound e) {
-            logger.error("Employee not found for ID [{}] (HTTP 404): {}",
-                    id, e.getMessage(), new HttpStatusException(404));
-            throw new HttpStatusException(404);
+            throw new HttpStatusException(404, e.getMessage());
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve employee ID [" + id + "]", e);
+        }
+    }
+
+    /**
+     * Employees for the given IDs in request order, with found=false for unknown IDs.
+     * Cached entries are used first and the rest are loaded with one query.
+     */
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<EmployeeDto>> findEmployeesByIds(List<Long> ids) {
+        Long[] distinct = BatchIds.distinct(ids);
+        Map<Long, EmployeeDto> found = cache.getEmployees(Arrays.asList(distinct));
+        int cached = found.size();
+        loadMissing(distinct, found, "Failed to retrieve employees by ID");
+        logger.info("Retrieved employees by ID: {} of {} found, {} from cache",
+                found.size(), distinct.length, cached);
+        return BatchIds.inRequestOrder(ids, found);
+    }
+
+    /**
+     * One page of employees matching a set expression over departments and companies,
+     * in ID order. The expression is answered by the membership index and only the
+     * employees of the page are loaded.
+     */
+    @Transactional(readOnly = true)
+    public MembershipPageDto findByMembership(String expression, int limit, String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new HttpStatusException(400, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        long afterId = -1;
+        if (cursor != null) {
+            try {
+                afterId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                afterId = -1;
+            }
+            if (afterId < 0 || afterId >= MembershipIndex.MAX_ID) {
+                throw new HttpStatusException(400, "Invalid cursor");
+            }
+        }
+        long start = System.nanoTime();
+        MembershipIndex.Page page = membershipIndex.page(expression, afterId, limit);
+        long evaluated = System.nanoTime();
+
+        Long[] ids = page.ids().toArray(Long[]::new);
+        Map<Long, EmployeeDto> found = cache.getEmployees(page.ids());
+        loadMissing(ids, found, "Failed to retrieve employees by membership");
+        // An employee deleted since the index was read is left out of the page
+        List<EmployeeDto> items = new ArrayList<>(ids.length);
+        for (Long id : ids) {
+            EmployeeDto dto = found.get(id);
+            if (dto != null) {
+                items.add(dto);
+            }
+        }
+        logger.info("Found {} employees by membership '{}', returned {} (evaluated in {} us)",
+                page.total(), expression, items.size(), (evaluated - start) / 1_000);
+        return MembershipPageDto.builder()
+                .total(page.total())
+                .items(items)
+                .nextCursor(page.hasMore() ? String.valueOf(ids[ids.length - 1]) : null)
+                .build();
+    }
+
+    // Adds the employees missing from the cache to found, caching them on the way
+    private void loadMissing(Long[] ids, Map<Long, EmployeeDto> found, String failure) {
+        if (found.size() >= ids.length) {
+            return;
+        }
+        Long[] missing = Arrays.stream(ids)
+                .filter(id -> !found.containsKey(id))
+                .toArray(Long[]::new);
+        try {
+            long version = cache.version();
+            for (Employee employee : employeeRepository.findAllByIds(missing)) {
+                EmployeeDto dto = toDto(employee);
+                found.put(dto.getId(), dto);
+                cache.putEmployee(dto.getId(), dto, version);
+            }
+        } catch (Exception e) {
+            throw new HttpStatusException(500, failure, e);
+        }
+    }
+
+    /**
+     * One page of employees matching the filter. A salary range or name prefix narrows an
+     * index range, so it is only accepted together with sorting by that column: the page is
+     * then read in index order instead of collecting and sorting every match.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePageDto<EmployeeDto> filterEmployees(EmployeeFilter criteria, String sort, String cursor) {
+        EmployeeFilter page = pageFilter(criteria, sort, cursor);
+        try {
+            List<Employee> found = employeeRepository.findByFilter(
+                    page.toBuilder().limit(page.getLimit() + 1).build());
+            boolean hasMore = found.size() > page.getLimit();
+            List<Employee> rows = hasMore ? found.subList(0, page.getLimit()) : found;
+            List<EmployeeDto> items = rows.stream().map(this::toDto).collect(Collectors.toList());
+            logger.info("Filtered employees {}: {} found", page, items.size());
+            Employee last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            return EmployeePageDto.<EmployeeDto>builder()
+                    .items(items)
+                    .nextCursor(hasMore ? encodeCursor(page.getSort(), last.getId(),
+                            page.getSort() == EmployeeFilter.Sort.NAME ? last.getName() : last.getSalary()) : null)
+                    .build();
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to filter employees", e);
+        }
+    }
+
+    /**
+     * Same page as {@link #filterEmployees} with only the requested fields. Unrequested
+     * columns are not selected and departmentNames costs one extra query only when asked for.
+     */
+    @Transactional(readOnly = true)
+    public EmployeePageDto<Map<String, Object>> filterEmployeeFields(EmployeeFilter criteria, String sort,
+                                                                     String cursor, String fields) {
+        List<String> selected = Fields.parse(fields, EMPLOYEE_FIELDS);
+        EmployeeFilter page = pageFilter(criteria, sort, cursor);
+        // The next cursor is built from the sort column, requested or not
+        String sortField = page.getSort().name().toLowerCase(Locale.ROOT);
+        Map<String, String> paths = Fields.paths(selected, EMPLOYEE_FIELDS);
+        paths.putIfAbsent(sortField, EMPLOYEE_FIELDS.get(sortField));
+        try {
+            List<Tuple> found = employeeRepository.findFieldsByFilter(
+                    page.toBuilder().limit(page.getLimit() + 1).build(), paths);
+            boolean hasMore = found.size() > page.getLimit();
+            List<Tuple> rows = hasMore ? found.subList(0, page.getLimit()) : found;
+            List<Map<String, Object>> items = Fields.toRows(rows, selected, EMPLOYEE_FIELDS);
+            if (selected.contains(DEPARTMENT_NAMES) && !items.isEmpty()) {
+                addDepartmentNames(items, employeeRepository.findDepartmentNames(
+                        items.stream().map(row -> (Long) row.get(Fields.ID)).toList()));
+            }
+            logger.info("Filtered employees {} with fields {}: {} found", page, selected, items.size());
+            Tuple last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+            return EmployeePageDto.<Map<String, Object>>builder()
+                    .items(items)
+                    .nextCursor(hasMore ? encodeCursor(page.getSort(), last.get(Fields.ID, Long.class),
+                            last.get(sortField)) : null)
+                    .build();
         } catch (Exception e) {
-            logger.error("Failed to retrieve employee ID [{}] (HTTP 500): {}",
-                    id, e.getMessage(), new HttpStatusException(500));
-            throw new HttpStatusException(500);
+            throw new HttpStatusException(500, "Failed to filter employees", e);
+        }
+    }
+
+    private static EmployeeFilter pageFilter(EmployeeFilter criteria, String sort, String cursor) {
+        EmployeeFilter filter = criteria.toBuilder().sort(parseSort(sort)).build();
+        validateFilter(filter);
+        return cursor == null ? filter : applyCursor(filter, cursor);
+    }
+
+    private static EmployeeFilter.Sort parseSort(String sort) {
+        if (sort == null) {
+            return EmployeeFilter.Sort.ID;
+        }
+        try {
+            return EmployeeFilter.Sort.valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new HttpStatusException(400, "sort must be one of id, name, salary");
+        }
+    }
+
+    private static void validateFilter(EmployeeFilter filter) {
+        if (filter.getLimit() < 1 || filter.getLimit() > MAX_PAGE_SIZE) {
+            throw new HttpStatusException(400, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (filter.getMinSalary() != null && filter.getMaxSalary() != null
+                && filter.getMinSalary().compareTo(filter.getMaxSalary()) > 0) {
+            throw new HttpStatusException(400, "minSalary must not exceed maxSalary");
+        }
+        if (filter.getNamePrefix() != null && (filter.getNamePrefix().isBlank()
+                || filter.getNamePrefix().length() > MAX_NAME_PREFIX_LENGTH)) {
+            throw new HttpStatusException(400,
+                    "namePrefix must be 1 to " + MAX_NAME_PREFIX_LENGTH + " characters");
+        }
+        List<Long> departmentIds = filter.getDepartmentIds();
+        if (departmentIds != null && (departmentIds.size() > MAX_FILTER_DEPARTMENTS
+                || departmentIds.stream().anyMatch(id -> id == null || id <= 0))) {
+            throw new HttpStatusException(400,
+                    "departmentIds must be up to " + MAX_FILTER_DEPARTMENTS + " positive IDs");
+        }
+        if (filter.getCompanyId() != null && filter.getCompanyId() <= 0) {
+            throw new HttpStatusException(400, "companyId must be positive");
+        }
+        // Two ranges cannot share one index, and a range sorted by another column
+        // has to be read and sorted in full before the first row is returned
+        if (filter.hasSalaryRange() && filter.getNamePrefix() != null) {
+            throw new HttpStatusException(400,
+                    "Filter by either a salary range or a name prefix, not both");
+        }
+        if (filter.hasSalaryRange() && filter.getSort() != EmployeeFilter.Sort.SALARY) {
+            throw new HttpStatusException(400, "A salary range requires sort=salary");
+        }
+        if (filter.getNamePrefix() != null && filter.getSort() != EmployeeFilter.Sort.NAME) {
+            throw new HttpStatusException(400, "A name prefix requires sort=name");
+        }
+    }
+
+    // The cursor carries the sort it was made for, so it cannot be replayed against another order
+    private static String encodeCursor(EmployeeFilter.Sort sort, Long lastId, Object lastValue) {
+        String value = switch (sort) {
+            case ID -> "";
+            case NAME -> ((String) lastValue).toLowerCase(Locale.ROOT);
+            case SALARY -> ((BigDecimal) lastValue).toPlainString();
+        };
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (sort + ":" + lastId + ":" + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Rows without a department keep an empty list, as in EmployeeDto
+    private static void addDepartmentNames(List<Map<String, Object>> rows, List<Object[]> names) {
+        Map<Long, List<String>> byEmployee = new HashMap<>();
+        for (Object[] pair : names) {
+            byEmployee.computeIfAbsent((Long) pair[0], id -> new ArrayList<>()).add((String) pair[1]);
+        }
+        for (Map<String, Object> row : rows) {
+            row.put(DEPARTMENT_NAMES, byEmployee.getOrDefault((Long) row.get(Fields.ID), List.of()));
+        }
+    }
+
+    private static EmployeeFilter applyCursor(EmployeeFilter filter, String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+                    StandardCharsets.UTF_8).split(":", 3);
+            if (parts.length == 3 && EmployeeFilter.Sort.valueOf(parts[0]) == filter.getSort()) {
+                Object value = switch (filter.getSort()) {
+                    case ID -> null;
+                    case NAME -> parts[2];
+                    case SALARY -> new BigDecimal(parts[2]);
+                };
+                return filter.toBuilder().afterId(Long.parseLong(parts[1])).afterValue(value).build();
+            }
+        } catch (IllegalArgumentException e) {
+            // Falls through to the error below
         }
+        throw new HttpStatusException(400, "Invalid cursor for sort=" + filter.getSort().name().toLowerCase(Locale.ROOT));
     }
 
     private Employee toEntity(CreateEmployeeDto dto) {
         if (dto == null) {
-            logger.error("Convert to entity failed (HTTP 400): DTO is null",
-                    new HttpStatusException(400));
-            throw new HttpStatusException(400);
+            throw new HttpStatusException(400, "Convert to entity failed: DTO is null");
         }
         Set<Department> departments = Optional.ofNullable(
                 dto.getDepartmentNames())
@@ -285,10 +672,15 @@ public class EmployeeServiceImpl {
         return employee;
     }
 
-    private void updateEntity(Employee employee, UpdateDto dto) {
-        employee.setName(dto.getName());
-        employee.setSalary(dto.getSalary());
-        employee.setManager(dto.isManager());
+    private static Map<String, String> toErrorMap(Errors validationErrors) {
+        return validationErrors.getFieldErrors().stream()
+                .collect(Collectors.toMap(
+                        FieldError::getField,
+                        fieldError -> fieldError
+                                .getDefaultMessage() != null ? fieldError
+                                .getDefaultMessage() : "Validation error",
+                        (existing, replacement) -> existing
+                ));
     }
 
     private EmployeeDto toDto(Employee employee) {
@@ -300,6 +692,8 @@ public class EmployeeServiceImpl {
                         .map(ed -> ed.getDepartment().getName())
                         .collect(Collectors.toList()))
                 .manager(employee.isManager())
+                .supervisorId(employee.getSupervisor() != null ? employee.getSupervisor().getId() : null)
+                .version(employee.getVersion())
                 .build();
     }
 }
@@ -0,0 +1,65 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import jakarta.persistence.Tuple;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Sparse fieldsets: the ?fields= list of a read endpoint and the rows built from it. */
+final class Fields {
+
+    static final String ID = "id";
+
+    private Fields() {
+    }
+
+    /**
+     * The requested fields in the order of {@code available}. The ID is always included,
+     * since it is what clients correlate rows by.
+     */
+    static List<String> parse(String fields, Map<String, String> available) {
+        if (fields == null || fields.isBlank()) {
+            throw new HttpStatusException(400, "fields must name at least one of " + available.keySet());
+        }
+        Set<String> requested = new HashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!available.containsKey(name)) {
+                throw new HttpStatusException(400, "Unknown field '" + name + "', expected one of "
+                        + available.keySet());
+            }
+            requested.add(name);
+        }
+        requested.add(ID);
+        return available.keySet().stream().filter(requested::contains).toList();
+    }
+
+    /** Attribute paths of the selected fields that are plain columns. */
+    static Map<String, String> paths(List<String> selected, Map<String, String> available) {
+        Map<String, String> paths = new LinkedHashMap<>();
+        for (String field : selected) {
+            if (available.get(field) != null) {
+                paths.put(field, available.get(field));
+            }
+        }
+        return paths;
+    }
+
+    // Fields without a column get a null placeholder, so filling them in later keeps the order
+    static List<Map<String, Object>> toRows(List<Tuple> tuples, List<String> selected,
+                                            Map<String, String> available) {
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(selected.size() * 2);
+            for (String field : selected) {
+                row.put(field, available.get(field) != null ? tuple.get(field) : null);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
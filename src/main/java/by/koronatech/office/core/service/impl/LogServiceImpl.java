@@ -1,8 +1,11 @@
 package by.koronatech.office.core.service.impl;
 
+import by.koronatech.office.api.dto.LogJobStatusDto;
+import by.koronatech.office.core.push.EventBroadcaster;
 import by.koronatech.office.core.service.LogService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +19,7 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service public class LogServiceImpl implements LogService {
@@ -27,13 +31,22 @@ import java.util.stream.Collectors;
     private static final String APP_LOG = "D:\\Java Projects\\EmployeeManager\\logs\\app.log";
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    // Boot's application executor: virtual threads when spring.threads.virtual.enabled is set
+    private final Executor taskExecutor;
+    private final EventBroadcaster broadcaster;
+
+    public LogServiceImpl(@Qualifier("taskExecutor") Executor taskExecutor, EventBroadcaster broadcaster) {
+        this.taskExecutor = taskExecutor;
+        this.broadcaster = broadcaster;
+    }
+
     @Override
     public String initiateLogFileCreation(LocalDate date) {
         if (date == null) {
             throw new IllegalArgumentException("Date cannot be null");
         }
         String id = UUID.randomUUID().toString();
-        logStatus.put(id, "PROCESSING");
+        setStatus(id, "PROCESSING");
         logger.info("Initiating log file creation for ID: {} and date: {} on thread: {}",
                 id, date, Thread.currentThread().getName());
         createLogFileAsync(id, date);
@@ -75,16 +88,22 @@ import java.util.stream.Collectors;
 
                 Files.writeString(filePath, content);
                 logFiles.put(id, filePath);
-                logStatus.put(id, "CREATED");
+                setStatus(id, "CREATED");
                 logger.info("Log file created for ID: {} and date: {} on thread: {}",
                         id, date, Thread.currentThread().getName());
             } catch (IOException | InterruptedException e) {
-                logStatus.put(id, "FAILED");
+                setStatus(id, "FAILED");
                 logger.error("Failed to create log file for ID: {}. Path: {}. Date: {}. Error: {}",
                         id, Paths.get(LOG_DIR).toAbsolutePath(), date, e.getMessage(), e);
                 throw new RuntimeException("Failed to create log file: " + e.getMessage(), e);
             }
-        });
+        }, taskExecutor);
+    }
+
+    // Subscribers get each transition instead of polling the status
+    private void setStatus(String id, String status) {
+        logStatus.put(id, status);
+        broadcaster.publish(EventBroadcaster.JOBS, id, new LogJobStatusDto(id, status));
     }
 
     @Override
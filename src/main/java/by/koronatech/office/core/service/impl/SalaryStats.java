@@ -0,0 +1,146 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.SalaryStatsDto;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Running statistics of one department or company. Headcounts, totals and extremes are exact;
+ * percentiles come from a histogram with buckets 1% wide, so they are within about 0.5% of
+ * the exact value. Not thread-safe: callers synchronize on the instance.
+ */
+final class SalaryStats {
+
+    private static final double BUCKET_WIDTH = Math.log1p(0.01);
+    private static final double MIN_BUCKETED_SALARY = 0.01;
+
+    private long headcount;
+    private long managers;
+    // Employees with a salary; the average and percentiles are over these only
+    private long salaried;
+    private BigDecimal total = BigDecimal.ZERO;
+    private BigDecimal min;
+    private BigDecimal max;
+    private int firstBucket;
+    private int[] buckets = new int[0];
+
+    // False when the group has to be reloaded before it is read: a removal may have taken
+    // away the minimum or maximum, or changes arrived before the group was ever loaded
+    private boolean exact;
+    // Sequence number of the last change applied, or of the load that built the group
+    private long lastChange;
+
+    SalaryStats(boolean exact, long lastChange) {
+        this.exact = exact;
+        this.lastChange = lastChange;
+    }
+
+    void add(BigDecimal salary, boolean manager) {
+        headcount++;
+        if (manager) {
+            managers++;
+        }
+        if (salary == null) {
+            return;
+        }
+        salaried++;
+        total = total.add(salary);
+        min = min == null || salary.compareTo(min) < 0 ? salary : min;
+        max = max == null || salary.compareTo(max) > 0 ? salary : max;
+        int bucket = bucket(salary);
+        grow(bucket);
+        buckets[bucket - firstBucket]++;
+    }
+
+    void remove(BigDecimal salary, boolean manager) {
+        headcount--;
+        if (manager) {
+            managers--;
+        }
+        if (salary == null) {
+            return;
+        }
+        salaried--;
+        total = total.subtract(salary);
+        if (min == null || salary.compareTo(min) == 0 || salary.compareTo(max) == 0) {
+            exact = false;
+        }
+        int index = bucket(salary) - firstBucket;
+        if (index >= 0 && index < buckets.length && buckets[index] > 0) {
+            buckets[index]--;
+        } else {
+            exact = false;
+        }
+    }
+
+    boolean isExact() {
+        return exact;
+    }
+
+    long getLastChange() {
+        return lastChange;
+    }
+
+    void setLastChange(long lastChange) {
+        this.lastChange = lastChange;
+    }
+
+    boolean sameTotals(SalaryStats other) {
+        return headcount == other.headcount && managers == other.managers
+                && total.compareTo(other.total) == 0;
+    }
+
+    SalaryStatsDto toDto(Long id) {
+        return SalaryStatsDto.builder()
+                .id(id)
+                .headcount(headcount)
+                .managerCount(managers)
+                .totalSalary(total)
+                .averageSalary(salaried == 0 ? null
+                        : total.divide(BigDecimal.valueOf(salaried), 2, RoundingMode.HALF_UP))
+                .minSalary(min)
+                .maxSalary(max)
+                .medianSalary(percentile(0.50))
+                .p90Salary(percentile(0.90))
+                .p95Salary(percentile(0.95))
+                .p99Salary(percentile(0.99))
+                .build();
+    }
+
+    // Nearest rank, reported as the middle of its bucket and kept within [min, max]
+    private BigDecimal percentile(double p) {
+        if (salaried <= 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * salaried));
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                BigDecimal value = BigDecimal.valueOf(Math.exp((firstBucket + i + 0.5) * BUCKET_WIDTH))
+                        .setScale(2, RoundingMode.HALF_UP);
+                return value.max(min).min(max);
+            }
+        }
+        return max;
+    }
+
+    private static int bucket(BigDecimal salary) {
+        return (int) Math.floor(Math.log(Math.max(salary.doubleValue(), MIN_BUCKETED_SALARY)) / BUCKET_WIDTH);
+    }
+
+    private void grow(int bucket) {
+        if (buckets.length == 0) {
+            firstBucket = bucket;
+            buckets = new int[1];
+        } else if (bucket < firstBucket) {
+            int[] grown = new int[buckets.length + firstBucket - bucket];
+            System.arraycopy(buckets, 0, grown, firstBucket - bucket, buckets.length);
+            buckets = grown;
+            firstBucket = bucket;
+        } else if (bucket >= firstBucket + buckets.length) {
+            buckets = Arrays.copyOf(buckets, bucket - firstBucket + 1);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.SearchHitDto;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.repository.LikePatterns;
+import by.koronatech.office.core.repository.SearchHitView;
+import by.koronatech.office.core.repository.SearchRepository;
+import by.koronatech.office.core.service.SearchService;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@AllArgsConstructor
+public class SearchServiceImpl implements SearchService {
+    private static final Logger logger = LoggerFactory.getLogger(SearchServiceImpl.class);
+
+    static final int MIN_QUERY_LENGTH = 2;
+    static final int MAX_QUERY_LENGTH = 100;
+    static final int MAX_LIMIT = 50;
+    // Shorter queries have one or two trigrams and would match nearly every name
+    static final int MIN_FUZZY_QUERY_LENGTH = 3;
+    static final int FUZZY_CANDIDATES = 100;
+
+    private final SearchRepository searchRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchHitDto> searchByName(String query, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < MIN_QUERY_LENGTH || trimmed.length() > MAX_QUERY_LENGTH) {
+            throw new HttpStatusException(400, "Search query must be "
+                    + MIN_QUERY_LENGTH + " to " + MAX_QUERY_LENGTH + " characters");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new HttpStatusException(400, "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        try {
+            List<SearchHitDto> hits = new ArrayList<>(limit);
+            Set<String> seen = new HashSet<>();
+            add(hits, seen, searchRepository.searchByPrefix(trimmed, LikePatterns.prefix(trimmed), limit), limit);
+            // Prefix hits usually fill a typeahead list; fuzzy matching only tops it up
+            if (hits.size() < limit && trimmed.length() >= MIN_FUZZY_QUERY_LENGTH) {
+                add(hits, seen, searchRepository.searchBySimilarity(trimmed, FUZZY_CANDIDATES, limit), limit);
+            }
+            logger.debug("Search [{}]: {} hits", trimmed, hits.size());
+            return hits;
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Search failed for [" + trimmed + "]", e);
+        }
+    }
+
+    private static void add(List<SearchHitDto> hits, Set<String> seen, List<SearchHitView> found, int limit) {
+        for (SearchHitView hit : found) {
+            if (hits.size() == limit) {
+                return;
+            }
+            if (seen.add(hit.getType() + ":" + hit.getId())) {
+                hits.add(new SearchHitDto(hit.getType(), hit.getId(), hit.getName(), hit.getScore()));
+            }
+        }
+    }
+}
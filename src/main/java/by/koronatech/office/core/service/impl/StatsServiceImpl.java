@@ -0,0 +1,343 @@
+package by.koronatech.office.core.service.impl;
+
+import by.koronatech.office.api.dto.SalaryStatsDto;
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.event.OrganizationChange;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.service.StatsService;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Department and company statistics kept in memory and updated from {@link EmployeeChange}
+ * events after each commit. A group that cannot be updated exactly is reloaded from the
+ * database when it is next read, and a periodic reconciliation reloads everything to
+ * correct drift from writes that publish no events, such as other instances.
+ *
+ * <p>All reads go to the primary: a lagging replica would miss changes already counted.
+ */
+@Service
+public class StatsServiceImpl implements StatsService {
+    private static final Logger logger = LoggerFactory.getLogger(StatsServiceImpl.class);
+
+    private static final String DEPARTMENT_IDS_SQL = "SELECT id, company_id FROM department";
+    private static final String COMPANY_IDS_SQL = "SELECT id FROM company";
+    // Ordered by employee so that each employee is counted once per company
+    private static final String ALL_MEMBERS_SQL = "SELECT ed.employee_id, ed.department_id, e.salary, e.manager "
+            + "FROM employee_department ed JOIN employee e ON e.id = ed.employee_id "
+            + "ORDER BY ed.employee_id";
+    private static final String DEPARTMENT_EXISTS_SQL = "SELECT count(*) FROM department WHERE id = ?";
+    private static final String DEPARTMENT_MEMBERS_SQL = "SELECT e.salary, e.manager "
+            + "FROM employee_department ed JOIN employee e ON e.id = ed.employee_id "
+            + "WHERE ed.department_id = ?";
+    private static final String COMPANY_EXISTS_SQL = "SELECT count(*) FROM company WHERE id = ?";
+    private static final String COMPANY_MEMBERS_SQL = "SELECT e.salary, e.manager FROM employee e "
+            + "WHERE e.id IN (SELECT ed.employee_id FROM employee_department ed "
+            + "JOIN department d ON d.id = ed.department_id WHERE d.company_id = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Not read-only, so the reconciliation cursor is opened on the primary
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<Long, SalaryStats> departments = new ConcurrentHashMap<>();
+    private final Map<Long, SalaryStats> companies = new ConcurrentHashMap<>();
+
+    // Numbers the applied changes; a load only replaces a group no change touched since it began.
+    // A change that commits while a load is reading may still be counted twice or missed
+    // until the group's next load.
+    private final AtomicLong changes = new AtomicLong();
+
+    public StatsServiceImpl(DataSource dataSource,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${app.stats.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public List<SalaryStatsDto> getDepartmentStats() {
+        try {
+            Set<Long> ids = new HashSet<>();
+            jdbcTemplate.query(DEPARTMENT_IDS_SQL, (RowCallbackHandler) rs -> ids.add(rs.getLong(1)));
+            return list(departments, ids, this::loadDepartment);
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve department statistics", e);
+        }
+    }
+
+    @Override
+    public SalaryStatsDto getDepartmentStats(Long id) {
+        return get(departments, id, this::loadDepartment, "Department");
+    }
+
+    @Override
+    public List<SalaryStatsDto> getCompanyStats() {
+        try {
+            Set<Long> ids = new HashSet<>(jdbcTemplate.queryForList(COMPANY_IDS_SQL, Long.class));
+            return list(companies, ids, this::loadCompany);
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve company statistics", e);
+        }
+    }
+
+    @Override
+    public SalaryStatsDto getCompanyStats(Long id) {
+        return get(companies, id, this::loadCompany, "Company");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChange(EmployeeChange change) {
+        long seq = changes.incrementAndGet();
+        EmployeeChange.State before = change.before();
+        EmployeeChange.State after = change.after();
+        apply(departments, before, after, before != null ? before.departmentIds() : Set.of(),
+                after != null ? after.departmentIds() : Set.of(), seq);
+        apply(companies, before, after, before != null ? before.companyIds() : Set.of(),
+                after != null ? after.companyIds() : Set.of(), seq);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrganizationChange(OrganizationChange change) {
+        long seq = changes.incrementAndGet();
+        for (Long id : change.departmentIds()) {
+            departments.put(id, new SalaryStats(false, seq));
+        }
+        for (Long id : change.companyIds()) {
+            companies.put(id, new SalaryStats(false, seq));
+        }
+    }
+
+    /** Rebuilds every group from one pass over the employee table. */
+    @Scheduled(initialDelayString = "${app.stats.reconcile-initial-delay-ms:0}",
+            fixedDelayString = "${app.stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        long begin = System.nanoTime();
+        long start = changes.get();
+        try {
+            Map<Long, Long> companyByDepartment = new HashMap<>();
+            jdbcTemplate.query(DEPARTMENT_IDS_SQL, (RowCallbackHandler) rs ->
+                    companyByDepartment.put(rs.getLong(1), rs.getLong(2)));
+            Map<Long, SalaryStats> freshDepartments = new HashMap<>();
+            Map<Long, SalaryStats> freshCompanies = new HashMap<>();
+            companyByDepartment.keySet().forEach(id -> freshDepartments.put(id, new SalaryStats(true, start)));
+            jdbcTemplate.queryForList(COMPANY_IDS_SQL, Long.class)
+                    .forEach(id -> freshCompanies.put(id, new SalaryStats(true, start)));
+
+            MemberRows rows = new MemberRows(freshDepartments, freshCompanies, companyByDepartment);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(ALL_MEMBERS_SQL, rows));
+            rows.finish();
+
+            int drifted = install(departments, freshDepartments, start) + install(companies, freshCompanies, start);
+            logger.info("Reconciled statistics of {} departments and {} companies in {} ms: {} drifted",
+                    freshDepartments.size(), freshCompanies.size(),
+                    (System.nanoTime() - begin) / 1_000_000, drifted);
+        } catch (Exception e) {
+            logger.error("Failed to reconcile department statistics: {}", e.getMessage(), e);
+        }
+    }
+
+    private void apply(Map<Long, SalaryStats> groups, EmployeeChange.State before, EmployeeChange.State after,
+                       Set<Long> beforeIds, Set<Long> afterIds, long seq) {
+        for (Long id : beforeIds) {
+            if (afterIds.contains(id) && sameFigures(before, after)) {
+                continue;
+            }
+            update(groups, id, seq, stats -> stats.remove(before.salary(), before.manager()));
+        }
+        for (Long id : afterIds) {
+            if (beforeIds.contains(id) && sameFigures(before, after)) {
+                continue;
+            }
+            update(groups, id, seq, stats -> stats.add(after.salary(), after.manager()));
+        }
+    }
+
+    // compute() keeps an update and a concurrent load of the same group from interleaving
+    private static void update(Map<Long, SalaryStats> groups, Long id, long seq,
+                               Consumer<SalaryStats> change) {
+        groups.compute(id, (key, stats) -> {
+            SalaryStats target = stats != null ? stats : new SalaryStats(false, seq);
+            synchronized (target) {
+                change.accept(target);
+                target.setLastChange(seq);
+            }
+            return target;
+        });
+    }
+
+    private static boolean sameFigures(EmployeeChange.State before, EmployeeChange.State after) {
+        return before.manager() == after.manager() && (before.salary() == null
+                ? after.salary() == null
+                : after.salary() != null && before.salary().compareTo(after.salary()) == 0);
+    }
+
+    private List<SalaryStatsDto> list(Map<Long, SalaryStats> groups, Set<Long> ids,
+                                      LongFunction<SalaryStats> loader) {
+        groups.keySet().retainAll(ids);
+        List<SalaryStatsDto> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            SalaryStatsDto dto = read(groups, id, loader);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        result.sort((a, b) -> Long.compare(a.getId(), b.getId()));
+        return result;
+    }
+
+    private SalaryStatsDto get(Map<Long, SalaryStats> groups, Long id,
+                               LongFunction<SalaryStats> loader, String kind) {
+        if (id == null || id <= 0) {
+            throw new HttpStatusException(400, kind + " ID must be positive");
+        }
+        SalaryStatsDto dto;
+        try {
+            dto = read(groups, id, loader);
+        } catch (Exception e) {
+            throw new HttpStatusException(500, "Failed to retrieve statistics of " + kind.toLowerCase() + " ID [" + id + "]", e);
+        }
+        if (dto == null) {
+            throw new HttpStatusException(404, kind + " with ID " + id + " not found");
+        }
+        return dto;
+    }
+
+    // Null when the group no longer exists
+    private SalaryStatsDto read(Map<Long, SalaryStats> groups, Long id, LongFunction<SalaryStats> loader) {
+        SalaryStats stats = groups.get(id);
+        if (stats != null) {
+            synchronized (stats) {
+                if (stats.isExact()) {
+                    return stats.toDto(id);
+                }
+            }
+        }
+        long start = changes.get();
+        SalaryStats fresh = loader.apply(id);
+        if (fresh == null) {
+            groups.remove(id);
+            return null;
+        }
+        fresh.setLastChange(start);
+        SalaryStats current = groups.compute(id, (key, existing) ->
+                existing == null || existing.getLastChange() <= start ? fresh : existing);
+        synchronized (current) {
+            return current.toDto(id);
+        }
+    }
+
+    private static int install(Map<Long, SalaryStats> groups, Map<Long, SalaryStats> fresh, long start) {
+        int[] drifted = {0};
+        groups.entrySet().removeIf(entry -> !fresh.containsKey(entry.getKey())
+                && entry.getValue().getLastChange() <= start);
+        fresh.forEach((id, stats) -> groups.compute(id, (key, existing) -> {
+            if (existing == null) {
+                return stats;
+            }
+            synchronized (existing) {
+                if (existing.getLastChange() > start) {
+                    return existing;
+                }
+                if (existing.isExact() && !existing.sameTotals(stats)) {
+                    drifted[0]++;
+                }
+            }
+            return stats;
+        }));
+        return drifted[0];
+    }
+
+    private SalaryStats loadDepartment(long id) {
+        if (jdbcTemplate.queryForObject(DEPARTMENT_EXISTS_SQL, Long.class, id) == 0) {
+            return null;
+        }
+        return load(DEPARTMENT_MEMBERS_SQL, id);
+    }
+
+    private SalaryStats loadCompany(long id) {
+        if (jdbcTemplate.queryForObject(COMPANY_EXISTS_SQL, Long.class, id) == 0) {
+            return null;
+        }
+        return load(COMPANY_MEMBERS_SQL, id);
+    }
+
+    private SalaryStats load(String sql, long id) {
+        SalaryStats stats = new SalaryStats(true, 0);
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> stats.add(rs.getBigDecimal(1), rs.getBoolean(2)), id);
+        return stats;
+    }
+
+    /** Collects the departments of one employee and counts it when the next one starts. */
+    private static final class MemberRows implements RowCallbackHandler {
+
+        private final Map<Long, SalaryStats> departments;
+        private final Map<Long, SalaryStats> companies;
+        private final Map<Long, Long> companyByDepartment;
+        private final Set<Long> employeeCompanies = new HashSet<>();
+        private final List<Long> employeeDepartments = new ArrayList<>();
+        private long employeeId = -1;
+        private BigDecimal salary;
+        private boolean manager;
+
+        MemberRows(Map<Long, SalaryStats> departments, Map<Long, SalaryStats> companies,
+                   Map<Long, Long> companyByDepartment) {
+            this.departments = departments;
+            this.companies = companies;
+            this.companyByDepartment = companyByDepartment;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long id = rs.getLong(1);
+            if (id != employeeId) {
+                finish();
+                employeeId = id;
+                salary = rs.getBigDecimal(3);
+                manager = rs.getBoolean(4);
+            }
+            employeeDepartments.add(rs.getLong(2));
+        }
+
+        void finish() {
+            for (Long departmentId : employeeDepartments) {
+                SalaryStats stats = departments.get(departmentId);
+                // Departments created after the ID list was read are loaded on first use
+                if (stats != null) {
+                    stats.add(salary, manager);
+                    employeeCompanies.add(companyByDepartment.get(departmentId));
+                }
+            }
+            for (Long companyId : employeeCompanies) {
+                SalaryStats stats = companies.get(companyId);
+                if (stats != null) {
+                    stats.add(salary, manager);
+                }
+            }
+            employeeDepartments.clear();
+            employeeCompanies.clear();
+        }
+    }
+}
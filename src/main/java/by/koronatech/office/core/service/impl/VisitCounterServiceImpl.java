@@ -1,10 +1,14 @@
 package by.koronatech.office.core.service.impl;
 
+import by.koronatech.office.api.dto.VisitCountsDto;
+import by.koronatech.office.core.push.EventBroadcaster;
 import by.koronatech.office.core.service.VisitCounterService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -13,6 +17,14 @@ import java.util.concurrent.atomic.AtomicLong;
 public class VisitCounterServiceImpl implements VisitCounterService {
     private static final Logger logger = LoggerFactory.getLogger(VisitCounterServiceImpl.class);
     private final Map<String, AtomicLong> visitCounts = new ConcurrentHashMap<>();
+    // Visits since the last push; merge and remove are atomic per URL, so none are lost
+    private final Map<String, Long> pendingDeltas = new ConcurrentHashMap<>();
+
+    private final EventBroadcaster broadcaster;
+
+    public VisitCounterServiceImpl(EventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
 
     @Override
     public void incrementVisit(String url) {
@@ -21,6 +33,7 @@ public class VisitCounterServiceImpl implements VisitCounterService {
             throw new IllegalArgumentException("URL cannot be null or empty");
         }
         visitCounts.computeIfAbsent(url, k -> new AtomicLong(0)).incrementAndGet();
+        pendingDeltas.merge(url, 1L, Long::sum);
         logger.info("Incremented visit count for URL [{}]: [{}]", url, getVisitCount(url));
     }
 
@@ -35,4 +48,32 @@ public class VisitCounterServiceImpl implements VisitCounterService {
         logger.info("Retrieved visit count [{}] for URL [{}]", count, url);
         return count;
     }
-}
\ No newline at end of file
+
+    // One event per interval for all URLs visited in it, instead of one per visit
+    @Scheduled(fixedDelayString = "${app.push.visits-interval-ms:1000}")
+    public void pushVisitCounts() {
+        if (pendingDeltas.isEmpty()) {
+            return;
+        }
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, Long> deltas = new HashMap<>();
+        for (String url : pendingDeltas.keySet()) {
+            Long delta = pendingDeltas.remove(url);
+            if (delta != null) {
+                deltas.put(url, delta);
+                counts.put(url, visitCounts.get(url).get());
+            }
+        }
+        broadcaster.publish(EventBroadcaster.VISITS, EventBroadcaster.VISITS,
+                new VisitCountsDto(counts, deltas), VisitCounterServiceImpl::merge);
+    }
+
+    // A client that has not taken the previous batch yet gets both as one
+    private static VisitCountsDto merge(VisitCountsDto queued, VisitCountsDto next) {
+        Map<String, Long> counts = new HashMap<>(queued.getCounts());
+        counts.putAll(next.getCounts());
+        Map<String, Long> deltas = new HashMap<>(queued.getDeltas());
+        next.getDeltas().forEach((url, delta) -> deltas.merge(url, delta, Long::sum));
+        return new VisitCountsDto(counts, deltas);
+    }
+}
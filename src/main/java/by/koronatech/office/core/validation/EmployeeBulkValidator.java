@@ -0,0 +1,162 @@
+package by.koronatech.office.core.validation;
+
+import by.koronatech.office.api.dto.CreateEmployeeDto;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.lang.reflect.AnnotatedParameterizedType;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates bulk {@link CreateEmployeeDto} lists without going through Bean Validation.
+ * The constraint parameters and messages are read once from the DTO annotations,
+ * so the checks stay in sync with what the single-create endpoint enforces.
+ */
+@Component
+public class EmployeeBulkValidator {
+
+    private static final String NAME = "name";
+    private static final String SALARY = "salary";
+    private static final String DEPARTMENT_NAMES = "departmentNames";
+
+    private final String nameBlankMessage;
+    private final String nameSizeMessage;
+    private final int nameMin;
+    private final int nameMax;
+    private final String salaryNullMessage;
+    private final String salaryPositiveMessage;
+    private final String departmentBlankMessage;
+
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    public EmployeeBulkValidator(
+            @Value("${app.employee.bulk.validation-parallelism:0}") int parallelism,
+            @Value("${app.employee.bulk.parallel-threshold:512}") int parallelThreshold) {
+        Field name = field(NAME);
+        Size size = name.getAnnotation(Size.class);
+        this.nameBlankMessage = name.getAnnotation(NotBlank.class).message();
+        this.nameSizeMessage = size.message();
+        this.nameMin = size.min();
+        this.nameMax = size.max();
+
+        Field salary = field(SALARY);
+        this.salaryNullMessage = salary.getAnnotation(NotNull.class).message();
+        this.salaryPositiveMessage = salary.getAnnotation(Positive.class).message();
+
+        this.departmentBlankMessage = ((AnnotatedParameterizedType) field(DEPARTMENT_NAMES)
+                .getAnnotatedType()).getAnnotatedActualTypeArguments()[0]
+                .getAnnotation(NotBlank.class).message();
+
+        // A dedicated pool keeps large imports from starving the common pool
+        this.pool = new ForkJoinPool(parallelism > 0
+                ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Returns field errors of the invalid rows keyed by row index, in row order.
+     * Valid rows have no entry.
+     */
+    public Map<Integer, Map<String, String>> validate(List<CreateEmployeeDto> dtos) {
+        AtomicReferenceArray<Map<String, String>> rowErrors = new AtomicReferenceArray<>(dtos.size());
+        if (dtos.size() < parallelThreshold) {
+            for (int i = 0; i < rowErrors.length(); i++) {
+                rowErrors.set(i, validate(dtos.get(i)));
+            }
+        } else {
+            // Each task writes only its own slot
+            pool.submit(() -> IntStream.range(0, rowErrors.length()).parallel()
+                    .forEach(i -> rowErrors.set(i, validate(dtos.get(i))))).join();
+        }
+
+        Map<Integer, Map<String, String>> errors = new TreeMap<>();
+        for (int i = 0; i < rowErrors.length(); i++) {
+            if (rowErrors.get(i) != null) {
+                errors.put(i, rowErrors.get(i));
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Returns the field errors of one row, or null when it is valid.
+     * Nothing is allocated for a valid row.
+     */
+    public Map<String, String> validate(CreateEmployeeDto dto) {
+        if (dto == null) {
+            return Map.of("general", "Employee entry is null");
+        }
+        Map<String, String> errors = null;
+
+        String name = dto.getName();
+        if (isBlank(name)) {
+            errors = put(errors, NAME, nameBlankMessage);
+        } else if (name.length() < nameMin || name.length() > nameMax) {
+            errors = put(errors, NAME, nameSizeMessage);
+        }
+
+        BigDecimal salary = dto.getSalary();
+        if (salary == null) {
+            errors = put(errors, SALARY, salaryNullMessage);
+        } else if (salary.signum() <= 0) {
+            errors = put(errors, SALARY, salaryPositiveMessage);
+        }
+
+        List<String> departmentNames = dto.getDepartmentNames();
+        if (departmentNames != null) {
+            for (int i = 0; i < departmentNames.size(); i++) {
+                if (isBlank(departmentNames.get(i))) {
+                    errors = put(errors, DEPARTMENT_NAMES + "[" + i + "]", departmentBlankMessage);
+                }
+            }
+        }
+        return errors;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Same rule as Hibernate's NotBlankValidator (trim().isEmpty()) without the copy
+    private static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, String> put(Map<String, String> errors, String field, String message) {
+        if (errors == null) {
+            errors = new LinkedHashMap<>(4);
+        }
+        errors.put(field, message);
+        return errors;
+    }
+
+    private static Field field(String name) {
+        try {
+            return CreateEmployeeDto.class.getDeclaredField(name);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("CreateEmployeeDto has no field " + name, e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+-- Runs after Hibernate's schema update (spring.jpa.defer-datasource-initialization), so the
+-- tables exist. Every statement must be safe to run on each startup.
+
+-- Typeahead search (/api/search). Prefix matches walk the C-collation lower(name) btrees in
+-- order and stop at the limit; fuzzy matches use the trigram GIN indexes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_employee_name_prefix ON employee ((lower(name) COLLATE "C"));
+CREATE INDEX IF NOT EXISTS idx_employee_name_trgm ON employee USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_department_name_prefix ON department ((lower(name) COLLATE "C"));
+CREATE INDEX IF NOT EXISTS idx_department_name_trgm ON department USING gin (name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_company_name_prefix ON company ((lower(name) COLLATE "C"));
+CREATE INDEX IF NOT EXISTS idx_company_name_trgm ON company USING gin (name gin_trgm_ops);
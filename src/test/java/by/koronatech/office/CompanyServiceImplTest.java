@@ -0,0 +1,87 @@
+package by.koronatech.office;
+
+import by.koronatech.office.core.model.Department;
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.outbox.OutboxWriter;
+import by.koronatech.office.core.repository.CompanyRepository;
+import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.service.EmployeeHierarchyService;
+import by.koronatech.office.core.service.impl.CompanyServiceImpl;
+import by.koronatech.office.core.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyServiceImplTest {
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private EmployeeHierarchyService hierarchyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    // Members are deleted through the real service, so the test sees the hierarchy calls
+    @InjectMocks
+    private EmployeeServiceImpl employeeService;
+
+    private CompanyServiceImpl companyService;
+
+    @BeforeEach
+    void setUp() {
+        // Only the collaborators a company delete uses
+        companyService = new CompanyServiceImpl(companyRepository, null, null, null, null, eventPublisher, null,
+                outboxWriter, employeeService, departmentRepository, employeeRepository);
+    }
+
+    @Test
+    void deleteCompany_shouldRemoveEachMemberFromHierarchyBeforeDeletingIt() {
+        // The supervisor and the report work in different departments of the company
+        Department first = DepartmentServiceImplTest.department(10L);
+        Department second = DepartmentServiceImplTest.department(20L);
+        Employee supervisor = DepartmentServiceImplTest.member(1L, first);
+        Employee report = DepartmentServiceImplTest.member(2L, second);
+        when(companyRepository.existsById(1L)).thenReturn(true);
+        when(departmentRepository.findByCompanyId(1L)).thenReturn(List.of(first, second));
+        when(departmentRepository.findById(10L)).thenReturn(Optional.of(first));
+        when(departmentRepository.findById(20L)).thenReturn(Optional.of(second));
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(supervisor));
+        when(employeeRepository.findById(2L)).thenReturn(Optional.of(report));
+
+        companyService.deleteCompany(1L);
+
+        InOrder order = inOrder(employeeRepository, hierarchyService, companyRepository);
+        order.verify(employeeRepository).refresh(supervisor);
+        order.verify(hierarchyService).removeFromHierarchy(1L);
+        order.verify(employeeRepository).delete(supervisor);
+        order.verify(employeeRepository).refresh(report);
+        order.verify(hierarchyService).removeFromHierarchy(2L);
+        order.verify(employeeRepository).delete(report);
+        order.verify(companyRepository).deleteById(1L);
+        verify(employeeRepository, times(2)).delete(any(Employee.class));
+    }
+}
@@ -0,0 +1,96 @@
+package by.koronatech.office;
+
+import by.koronatech.office.api.dto.DepartmentAssignmentDto;
+import by.koronatech.office.api.dto.DepartmentAssignmentDto.Operation;
+import by.koronatech.office.api.dto.DepartmentAssignmentResultDto;
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.service.impl.DepartmentAssignmentServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepartmentAssignmentServiceImplTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DepartmentAssignmentServiceImpl assignmentService;
+
+    @Test
+    void reassign_shouldMoveMembersAndPublishStateBeforeAndAfter() {
+        // Department 10 of company 1 merges into department 20 of company 2;
+        // employee 2 was already in both, employee 3 also stays in department 30 of company 1
+        when(departmentRepository.lockAllByIds(new Long[]{10L, 20L}))
+                .thenReturn(List.of(new Object[]{10L, 1L}, new Object[]{20L, 2L}));
+        when(employeeRepository.copyMembers(null, 10L, 20L)).thenReturn(List.of(1L, 3L));
+        when(employeeRepository.unassignDepartment(null, 10L)).thenReturn(List.of(1L, 2L, 3L));
+        when(employeeRepository.findMembershipStates(any())).thenReturn(List.of(
+                new Object[]{1L, new BigDecimal("1000.00"), false, 20L, 2L},
+                new Object[]{2L, new BigDecimal("2000.00"), true, 20L, 2L},
+                new Object[]{3L, new BigDecimal("3000.00"), false, 20L, 2L},
+                new Object[]{3L, new BigDecimal("3000.00"), false, 30L, 1L}));
+
+        DepartmentAssignmentResultDto result = assignmentService.reassign(DepartmentAssignmentDto.builder()
+                .operation(Operation.MOVE).fromDepartmentId(10L).toDepartmentId(20L).build());
+
+        assertEquals(2, result.getAdded());
+        assertEquals(3, result.getRemoved());
+        assertEquals(3, result.getEmployees());
+        verify(eventPublisher).publishEvent(new EmployeeChange(1L,
+                new EmployeeChange.State(new BigDecimal("1000.00"), false, Set.of(10L), Set.of(1L)),
+                new EmployeeChange.State(new BigDecimal("1000.00"), false, Set.of(20L), Set.of(2L))));
+        verify(eventPublisher).publishEvent(new EmployeeChange(2L,
+                new EmployeeChange.State(new BigDecimal("2000.00"), true, Set.of(10L, 20L), Set.of(1L, 2L)),
+                new EmployeeChange.State(new BigDecimal("2000.00"), true, Set.of(20L), Set.of(2L))));
+        verify(eventPublisher).publishEvent(new EmployeeChange(3L,
+                new EmployeeChange.State(new BigDecimal("3000.00"), false, Set.of(10L, 30L), Set.of(1L)),
+                new EmployeeChange.State(new BigDecimal("3000.00"), false, Set.of(20L, 30L), Set.of(1L, 2L))));
+    }
+
+    @Test
+    void reassign_shouldRejectMissingDepartmentBeforeWriting() {
+        when(departmentRepository.lockAllByIds(new Long[]{20L})).thenReturn(List.of());
+
+        HttpStatusException exception = assertThrows(HttpStatusException.class,
+                () -> assignmentService.reassign(DepartmentAssignmentDto.builder()
+                        .operation(Operation.ASSIGN).employeeIds(List.of(1L)).toDepartmentId(20L).build()));
+
+        assertEquals(404, exception.getStatusCode());
+        verify(employeeRepository, never()).assignDepartment(any(), any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void reassign_shouldRequireEmployeesAndDepartmentsForOperation() {
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> assignmentService.reassign(DepartmentAssignmentDto.builder()
+                        .operation(Operation.ASSIGN).toDepartmentId(20L).build())).getStatusCode());
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> assignmentService.reassign(DepartmentAssignmentDto.builder()
+                        .operation(Operation.MOVE).fromDepartmentId(10L).toDepartmentId(10L).build()))
+                .getStatusCode());
+        verifyNoInteractions(departmentRepository, employeeRepository);
+    }
+}
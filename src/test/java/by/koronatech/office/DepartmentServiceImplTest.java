@@ -0,0 +1,103 @@
+package by.koronatech.office;
+
+import by.koronatech.office.core.model.Company;
+import by.koronatech.office.core.model.Department;
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.outbox.OutboxWriter;
+import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.service.EmployeeHierarchyService;
+import by.koronatech.office.core.service.impl.DepartmentServiceImpl;
+import by.koronatech.office.core.service.impl.EmployeeServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DepartmentServiceImplTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private EmployeeHierarchyService hierarchyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    // Members are deleted through the real service, so the test sees the hierarchy calls
+    @InjectMocks
+    private EmployeeServiceImpl employeeService;
+
+    private DepartmentServiceImpl departmentService;
+
+    @BeforeEach
+    void setUp() {
+        // Only the collaborators a department delete uses
+        departmentService = new DepartmentServiceImpl(null, null, null, null, null, eventPublisher, null,
+                outboxWriter, employeeService, departmentRepository, employeeRepository);
+    }
+
+    @Test
+    void deleteDepartment_shouldRemoveEachMemberFromHierarchyBeforeDeletingIt() {
+        Department department = department(10L);
+        Employee supervisor = member(1L, department);
+        Employee report = member(2L, department);
+        when(departmentRepository.findById(10L)).thenReturn(Optional.of(department));
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(supervisor));
+        when(employeeRepository.findById(2L)).thenReturn(Optional.of(report));
+
+        departmentService.deleteDepartment(10L);
+
+        for (Employee member : Set.of(supervisor, report)) {
+            InOrder order = inOrder(employeeRepository, hierarchyService);
+            order.verify(employeeRepository).refresh(member);
+            order.verify(hierarchyService).removeFromHierarchy(member.getId());
+            order.verify(employeeRepository).delete(member);
+            assertTrue(member.getEmployeeDepartments().isEmpty());
+        }
+        InOrder order = inOrder(employeeRepository, departmentRepository);
+        order.verify(employeeRepository, times(2)).delete(any(Employee.class));
+        order.verify(departmentRepository).deleteById(10L);
+        assertTrue(department.getEmployeeDepartments().isEmpty());
+    }
+
+    static Department department(long id) {
+        Company company = new Company();
+        company.setId(1L);
+        Department department = new Department();
+        department.setId(id);
+        department.setName("Department " + id);
+        department.setCompany(company);
+        return department;
+    }
+
+    static Employee member(long id, Department department) {
+        Employee employee = Employee.builder()
+                .id(id)
+                .name("Employee " + id)
+                .salary(new BigDecimal("1000.00"))
+                .build();
+        employee.updateDepartments(Set.of(department));
+        return employee;
+    }
+}
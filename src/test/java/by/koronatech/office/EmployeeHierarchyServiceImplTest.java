@@ -0,0 +1,117 @@
+package by.koronatech.office;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.model.Employee;
+import by.koronatech.office.core.model.OutboxEvent.EntityType;
+import by.koronatech.office.core.model.OutboxEvent.Operation;
+import by.koronatech.office.core.outbox.OutboxWriter;
+import by.koronatech.office.core.repository.EmployeeHierarchyRepository;
+import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.service.impl.EmployeeHierarchyServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeHierarchyServiceImplTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeHierarchyRepository hierarchyRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @InjectMocks
+    private EmployeeHierarchyServiceImpl hierarchyService;
+
+    private Employee ceo;
+    private Employee cto;
+    private Employee developer;
+
+    @BeforeEach
+    void setUp() {
+        ceo = Employee.builder().id(1L).name("CEO").build();
+        cto = Employee.builder().id(2L).name("CTO").supervisor(ceo).build();
+        developer = Employee.builder().id(3L).name("Developer").supervisor(cto).build();
+    }
+
+    @Test
+    void setSupervisor_shouldMoveSubtreeUnderNewSupervisor() {
+        when(employeeRepository.findById(3L)).thenReturn(Optional.of(developer));
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(ceo));
+        when(hierarchyRepository.isReport(3L, 1L)).thenReturn(false);
+
+        hierarchyService.setSupervisor(3L, 1L);
+
+        InOrder inOrder = inOrder(hierarchyRepository, employeeRepository);
+        inOrder.verify(hierarchyRepository).lock();
+        inOrder.verify(hierarchyRepository).detachSubtree(3L);
+        inOrder.verify(hierarchyRepository).attachSubtree(3L, 1L);
+        inOrder.verify(employeeRepository).save(developer);
+        verify(outboxWriter).append(EntityType.EMPLOYEE, 3L, Operation.UPDATED);
+        assertSame(ceo, developer.getSupervisor());
+    }
+
+    @Test
+    void setSupervisor_shouldRejectMoveUnderOwnReport() {
+        when(employeeRepository.findById(2L)).thenReturn(Optional.of(cto));
+        when(employeeRepository.findById(3L)).thenReturn(Optional.of(developer));
+        when(hierarchyRepository.isReport(2L, 3L)).thenReturn(true);
+
+        HttpStatusException exception = assertThrows(HttpStatusException.class,
+                () -> hierarchyService.setSupervisor(2L, 3L));
+
+        assertEquals(409, exception.getStatusCode());
+        verify(hierarchyRepository, never()).detachSubtree(anyLong());
+        verify(employeeRepository, never()).save(any());
+    }
+
+    @Test
+    void setSupervisor_shouldRejectSelfAndSkipUnchanged() {
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> hierarchyService.setSupervisor(2L, 2L)).getStatusCode());
+
+        when(employeeRepository.findById(3L)).thenReturn(Optional.of(developer));
+        when(employeeRepository.findById(2L)).thenReturn(Optional.of(cto));
+        hierarchyService.setSupervisor(3L, 2L);
+
+        verify(hierarchyRepository, never()).detachSubtree(anyLong());
+        verify(hierarchyRepository, never()).attachSubtree(anyLong(), anyLong());
+    }
+
+    @Test
+    void removeFromHierarchy_shouldMoveReportsToOwnSupervisor() {
+        when(employeeRepository.findById(2L)).thenReturn(Optional.of(cto));
+
+        hierarchyService.removeFromHierarchy(2L);
+
+        InOrder inOrder = inOrder(hierarchyRepository);
+        inOrder.verify(hierarchyRepository).lock();
+        inOrder.verify(hierarchyRepository).shortenPathsThrough(2L);
+        inOrder.verify(hierarchyRepository).deleteNode(2L);
+        inOrder.verify(hierarchyRepository).reassignDirectReports(2L, 1L);
+    }
+
+    @Test
+    void findReports_shouldRejectNonPositiveDepth() {
+        HttpStatusException exception = assertThrows(HttpStatusException.class,
+                () -> hierarchyService.findReports(1L, 0));
+
+        assertEquals(400, exception.getStatusCode());
+        verifyNoInteractions(hierarchyRepository);
+    }
+}
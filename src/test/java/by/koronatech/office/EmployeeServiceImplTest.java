@@ -1,24 +1,40 @@
 package by.koronatech.office;
 
+import by.koronatech.office.api.dto.BatchItemDto;
 import by.koronatech.office.api.dto.CreateEmployeeDto;
 import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.api.dto.EmployeePageDto;
+import by.koronatech.office.api.dto.EmployeePatchDto;
 import by.koronatech.office.api.dto.UpdateDto;
+import by.koronatech.office.core.cache.Cache;
+import by.koronatech.office.core.event.EmployeeChange;
 import by.koronatech.office.core.exceptions.HttpStatusException;
+import by.koronatech.office.core.exceptions.VersionConflictException;
+import by.koronatech.office.core.model.Company;
 import by.koronatech.office.core.model.Department;
 import by.koronatech.office.core.model.Employee;
 import by.koronatech.office.core.model.EmployeeDepartment;
 import by.koronatech.office.core.repository.DepartmentRepository;
+import by.koronatech.office.core.repository.EmployeeFilter;
 import by.koronatech.office.core.repository.EmployeeRepository;
+import by.koronatech.office.core.repository.EmployeeUpdateRepository;
+import by.koronatech.office.core.service.EmployeeHierarchyService;
 import by.koronatech.office.core.service.impl.EmployeeServiceImpl;
+import by.koronatech.office.core.validation.EmployeeBulkValidator;
+import jakarta.persistence.Tuple;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
@@ -42,6 +58,21 @@ class EmployeeServiceImplTest {
     @Mock
     private Validator validator;
 
+    @Spy
+    private EmployeeBulkValidator bulkValidator = new EmployeeBulkValidator(2, 512);
+
+    @Mock
+    private EmployeeHierarchyService hierarchyService;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -56,6 +87,9 @@ class EmployeeServiceImplTest {
         department = new Department();
         department.setId(1L);
         department.setName("IT");
+        Company company = new Company();
+        company.setId(1L);
+        department.setCompany(company);
 
         employee = Employee.builder()
                 .id(1L)
@@ -184,47 +218,30 @@ class EmployeeServiceImplTest {
         validDto.setManager(true);
 
         CreateEmployeeDto invalidDto = new CreateEmployeeDto();
-        invalidDto.setName("");
+        invalidDto.setName("   ");
         invalidDto.setSalary(new BigDecimal("-100"));
-        invalidDto.setDepartmentNames(Arrays.asList("IT", "HR", "Finance", "Marketing", "Sales", "Support"));
+        invalidDto.setDepartmentNames(Arrays.asList("IT", " "));
 
         List<CreateEmployeeDto> dtos = Arrays.asList(validDto, invalidDto);
 
-        doAnswer(invocation -> {
-            CreateEmployeeDto dto = invocation.getArgument(0);
-            Errors errors = invocation.getArgument(1);
-            if (dto.getName() == null || dto.getName().isEmpty()) {
-                errors.rejectValue("name", "name.empty", "Name cannot be empty");
-            }
-            if (dto.getSalary() != null && dto.getSalary().compareTo(BigDecimal.ZERO) <= 0) {
-                errors.rejectValue("salary", "salary.positive", "Salary must be positive");
-            }
-            if (dto.getDepartmentNames() != null && dto.getDepartmentNames().size() > 5) {
-                errors.rejectValue("departmentNames", "departmentNames.max", "Cannot have more than 5 departments");
-            }
-            return null;
-        }).when(validator).validate(any(), any());
-
         when(departmentRepository.findByName("IT")).thenReturn(Optional.of(department));
         when(employeeRepository.save(any(Employee.class))).thenReturn(employee);
 
         Map<String, Object> result = employeeService.bulkCreateEmployees(dtos);
 
         List<EmployeeDto> created = (List<EmployeeDto>) result.get("created");
-        Map<String, Map<String, String>> errors = (Map<String, Map<String, String>>) result.get("errors");
+        Map<Integer, Map<String, String>> errors = (Map<Integer, Map<String, String>>) result.get("errors");
 
         assertEquals(1, created.size());
         assertEquals("John Doe", created.get(0).getName());
-        assertEquals(1, errors.size());
-        String invalidKey = errors.keySet().iterator().next();
-        assertTrue(invalidKey.startsWith("unknown_"), "Key should start with 'unknown_': " + invalidKey);
-        Map<String, String> errorMap = errors.get(invalidKey);
+        assertEquals(Set.of(1), errors.keySet());
+        Map<String, String> errorMap = errors.get(1);
         assertEquals("Name cannot be empty", errorMap.get("name"));
         assertEquals("Salary must be positive", errorMap.get("salary"));
-        assertEquals("Cannot have more than 5 departments", errorMap.get("departmentNames"));
+        assertEquals("Department name cannot be empty", errorMap.get("departmentNames[1]"));
         verify(departmentRepository).findByName("IT");
         verify(employeeRepository).save(any(Employee.class));
-        verify(validator, times(2)).validate(any(), any());
+        verifyNoInteractions(validator);
     }
 
     @Test
@@ -236,7 +253,6 @@ class EmployeeServiceImplTest {
 
         List<CreateEmployeeDto> dtos = Arrays.asList(createEmployeeDto, invalidDto);
 
-        doNothing().when(validator).validate(any(), any());
         when(departmentRepository.findByName("IT")).thenReturn(Optional.of(department));
         when(departmentRepository.findByName("Nonexistent")).thenReturn(Optional.empty());
         when(employeeRepository.save(any(Employee.class))).thenReturn(employee);
@@ -244,17 +260,15 @@ class EmployeeServiceImplTest {
         Map<String, Object> result = employeeService.bulkCreateEmployees(dtos);
 
         List<EmployeeDto> created = (List<EmployeeDto>) result.get("created");
-        Map<String, Map<String, String>> errors = (Map<String, Map<String, String>>) result.get("errors");
+        Map<Integer, Map<String, String>> errors = (Map<Integer, Map<String, String>>) result.get("errors");
 
         assertEquals(1, created.size());
         assertEquals("John Doe", created.get(0).getName());
         assertEquals(1, errors.size());
-        assertTrue(errors.containsKey("Jane Doe"));
-        assertEquals("Department Nonexistent not found", errors.get("Jane Doe").get("general"));
+        assertEquals("Department Nonexistent not found", errors.get(1).get("general"));
         verify(departmentRepository).findByName("IT");
         verify(departmentRepository).findByName("Nonexistent");
         verify(employeeRepository).save(any(Employee.class));
-        verify(validator, times(2)).validate(any(), any());
     }
 
     @Test
@@ -264,7 +278,7 @@ class EmployeeServiceImplTest {
         Map<String, Object> result = employeeService.bulkCreateEmployees(dtos);
 
         List<EmployeeDto> created = (List<EmployeeDto>) result.get("created");
-        Map<String, Map<String, String>> errors = (Map<String, Map<String, String>>) result.get("errors");
+        Map<Integer, Map<String, String>> errors = (Map<Integer, Map<String, String>>) result.get("errors");
         assertNotNull(created, "Created list should not be null");
         assertTrue(created.isEmpty(), "Created list should be empty");
         assertNotNull(errors, "Errors map should not be null");
@@ -275,56 +289,57 @@ class EmployeeServiceImplTest {
     @Test
     void bulkCreateEmployees_shouldHandleValidationErrors() {
         CreateEmployeeDto dto = new CreateEmployeeDto();
-        dto.setName("John Doe");
+        dto.setName("J");
         dto.setSalary(new BigDecimal("-5000.00"));
         List<CreateEmployeeDto> dtos = Collections.singletonList(dto);
 
-        doAnswer(invocation -> {
-            Errors errors = invocation.getArgument(1);
-            errors.rejectValue("salary", "salary.negative", "Salary must be positive");
-            errors.rejectValue("name", "name.invalid", null);
-            return null;
-        }).when(validator).validate(eq(dto), any(BeanPropertyBindingResult.class));
-
         Map<String, Object> result = employeeService.bulkCreateEmployees(dtos);
 
         List<EmployeeDto> created = (List<EmployeeDto>) result.get("created");
-        Map<String, Map<String, String>> errors = (Map<String, Map<String, String>>) result.get("errors");
+        Map<Integer, Map<String, String>> errors = (Map<Integer, Map<String, String>>) result.get("errors");
         assertTrue(created.isEmpty(), "Created list should be empty");
         assertEquals(1, errors.size(), "Errors map should contain 1 entry");
-        assertEquals("Salary must be positive", errors.get("John Doe").get("salary"));
-        assertEquals("Validation error", errors.get("John Doe").get("name"));
-        verify(validator).validate(eq(dto), any(BeanPropertyBindingResult.class));
+        assertEquals("Salary must be positive", errors.get(0).get("salary"));
+        assertEquals("Name must be between 2 and 100 characters", errors.get(0).get("name"));
         verifyNoInteractions(employeeRepository, departmentRepository);
     }
 
     @Test
-    void bulkCreateEmployees_shouldHandleNullName() {
-        CreateEmployeeDto dto = new CreateEmployeeDto();
-        dto.setName(null);
-        dto.setSalary(new BigDecimal("5000.00"));
-        List<CreateEmployeeDto> dtos = Collections.singletonList(dto);
-
-        doAnswer(invocation -> {
-            Errors errors = invocation.getArgument(1);
-            errors.rejectValue("name", "name.null", "Name cannot be null");
-            return null;
-        }).when(validator).validate(eq(dto), any(BeanPropertyBindingResult.class));
+    void bulkCreateEmployees_shouldKeepErrorsOfRowsWithSameOrMissingName() {
+        CreateEmployeeDto nameless = new CreateEmployeeDto();
+        nameless.setSalary(new BigDecimal("5000.00"));
+        CreateEmployeeDto first = new CreateEmployeeDto("Jane Doe", null, null, false);
+        CreateEmployeeDto second = new CreateEmployeeDto("Jane Doe", BigDecimal.ZERO, null, false);
+        List<CreateEmployeeDto> dtos = Arrays.asList(nameless, first, second, null);
 
         Map<String, Object> result = employeeService.bulkCreateEmployees(dtos);
 
-        List<EmployeeDto> created =
-                (List<EmployeeDto>) result.get("created");
-        Map<String, Map<String, String>> errors =
-                (Map<String, Map<String, String>>) result.get("errors");
-        assertTrue(created.isEmpty(), "Created list should be empty");
-        assertEquals(1, errors.size(), "Errors map should contain 1 entry");
-        assertTrue(errors.keySet().iterator().next().startsWith("unknown_"), "Key should start with 'unknown_'");
-        assertEquals("Name cannot be null", errors.values().iterator().next().get("name"));
-        verify(validator).validate(eq(dto), any(BeanPropertyBindingResult.class));
+        Map<Integer, Map<String, String>> errors = (Map<Integer, Map<String, String>>) result.get("errors");
+        assertEquals(List.of(0, 1, 2, 3), new ArrayList<>(errors.keySet()));
+        assertEquals("Name cannot be empty", errors.get(0).get("name"));
+        assertEquals("Salary cannot be null", errors.get(1).get("salary"));
+        assertEquals("Salary must be positive", errors.get(2).get("salary"));
+        assertEquals("Employee entry is null", errors.get(3).get("general"));
         verifyNoInteractions(employeeRepository, departmentRepository);
     }
 
+    @Test
+    void bulkCreateEmployees_shouldValidateLargeBatchInParallelByRowIndex() {
+        List<CreateEmployeeDto> dtos = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            BigDecimal salary = i % 7 == 0 ? new BigDecimal("-1") : new BigDecimal("1000");
+            dtos.add(new CreateEmployeeDto("Employee " + i, salary, null, false));
+        }
+
+        Map<Integer, Map<String, String>> errors = bulkValidator.validate(dtos);
+
+        assertEquals(715, errors.size());
+        errors.forEach((row, fields) -> {
+            assertEquals(0, row % 7);
+            assertEquals(Map.of("salary", "Salary must be positive"), fields);
+        });
+    }
+
     @Test
     void bulkCreateEmployees_shouldHandleGeneralException() {
         CreateEmployeeDto dto = new CreateEmployeeDto();
@@ -333,7 +348,6 @@ class EmployeeServiceImplTest {
         dto.setDepartmentNames(Collections.singletonList("IT"));
         List<CreateEmployeeDto> dtos = Collections.singletonList(dto);
 
-        doNothing().when(validator).validate(any(), any());
         when(departmentRepository.findByName("IT")).thenReturn(Optional.of(department));
         when(employeeRepository.save(any(Employee.class)))
                 .thenThrow(new RuntimeException("Database error"));
@@ -341,11 +355,10 @@ class EmployeeServiceImplTest {
         Map<String, Object> result = employeeService.bulkCreateEmployees(dtos);
 
         List<EmployeeDto> created = (List<EmployeeDto>) result.get("created");
-        Map<String, Map<String, String>> errors = (Map<String, Map<String, String>>) result.get("errors");
+        Map<Integer, Map<String, String>> errors = (Map<Integer, Map<String, String>>) result.get("errors");
         assertTrue(created.isEmpty(), "Created list should be empty");
         assertEquals(1, errors.size(), "Errors map should contain 1 entry");
-        assertEquals("Failed to create employee: Database error", errors.get("John Doe").get("general"));
-        verify(validator).validate(any(), any());
+        assertEquals("Failed to create employee: Database error", errors.get(0).get("general"));
         verify(departmentRepository).findByName("IT");
         verify(employeeRepository).save(any(Employee.class));
     }
@@ -389,15 +402,12 @@ class EmployeeServiceImplTest {
 
     @Test
     void updateEmployee_shouldUpdateAndReturnEmployee() {
-        Employee updatedEmployee = Employee.builder()
-                .id(1L)
-                .name("Jane Doe")
-                .salary(new BigDecimal("6000.00"))
-                .manager(false)
-                .employeeDepartments(employee.getEmployeeDepartments())
-                .build();
-        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
-        when(employeeRepository.save(any(Employee.class))).thenReturn(updatedEmployee);
+        updateDto.setVersion(3L);
+        when(employeeRepository.updateIfVersion(1L, updateColumns(), 3L))
+                .thenReturn(Optional.of(new EmployeeUpdateRepository.UpdatedEmployee("Jane Doe",
+                        new BigDecimal("6000.00"), false, null, 4L, new BigDecimal("5000.00"), false)));
+        when(employeeRepository.findDepartmentsOf(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 1L, "IT"}));
         doNothing().when(validator).validate(any(), any());
 
         EmployeeDto result = employeeService.updateEmployee(1L, updateDto);
@@ -405,9 +415,59 @@ class EmployeeServiceImplTest {
         assertEquals("Jane Doe", result.getName());
         assertEquals(new BigDecimal("6000.00"), result.getSalary());
         assertFalse(result.isManager());
-        verify(employeeRepository).findById(1L);
-        verify(employeeRepository).save(any(Employee.class));
-        verify(validator).validate(any(), any());
+        assertEquals(List.of("IT"), result.getDepartmentNames());
+        assertEquals(4L, result.getVersion());
+        verify(employeeRepository, never()).findById(any());
+        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(eventPublisher).publishEvent(new EmployeeChange(1L,
+                new EmployeeChange.State(new BigDecimal("5000.00"), false, Set.of(1L), Set.of(1L)),
+                new EmployeeChange.State(new BigDecimal("6000.00"), false, Set.of(1L), Set.of(1L))));
+    }
+
+    @Test
+    void updateEmployee_shouldReturnConflictWithCurrentStateForStaleVersion() {
+        updateDto.setVersion(3L);
+        employee.setVersion(5L);
+        when(employeeRepository.updateIfVersion(1L, updateColumns(), 3L))
+                .thenReturn(Optional.empty());
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
+        doNothing().when(validator).validate(any(), any());
+
+        VersionConflictException exception = assertThrows(VersionConflictException.class,
+                () -> employeeService.updateEmployee(1L, updateDto));
+        assertEquals(409, exception.getStatusCode());
+        EmployeeDto current = (EmployeeDto) exception.getCurrent();
+        assertEquals("John Doe", current.getName());
+        assertEquals(5L, current.getVersion());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void patchEmployee_shouldUpdateOnlyPresentFields() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setSalary(new BigDecimal("7000.00"));
+        when(employeeRepository.updateIfVersion(1L, Map.of("salary", new BigDecimal("7000.00")), null))
+                .thenReturn(Optional.of(new EmployeeUpdateRepository.UpdatedEmployee("John Doe",
+                        new BigDecimal("7000.00"), false, null, 1L, new BigDecimal("5000.00"), false)));
+        when(employeeRepository.findDepartmentsOf(1L))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, 1L, "IT"}));
+
+        EmployeeDto result = employeeService.patchEmployee(1L, patch);
+
+        assertEquals("John Doe", result.getName());
+        assertEquals(new BigDecimal("7000.00"), result.getSalary());
+        verify(employeeRepository, never()).findById(any());
+    }
+
+    @Test
+    void patchEmployee_shouldRejectNullManager() {
+        EmployeePatchDto patch = new EmployeePatchDto();
+        patch.setManager(null);
+
+        HttpStatusException exception = assertThrows(HttpStatusException.class,
+                () -> employeeService.patchEmployee(1L, patch));
+        assertEquals(400, exception.getStatusCode());
+        verify(employeeRepository, never()).updateIfVersion(any(), any(), any());
     }
 
     @Test
@@ -430,13 +490,14 @@ class EmployeeServiceImplTest {
 
     @Test
     void updateEmployee_shouldThrowHttpStatusExceptionForInvalidId() {
+        when(employeeRepository.updateIfVersion(any(), any(), any()))
+                .thenReturn(Optional.empty());
         when(employeeRepository.findById(1L)).thenReturn(Optional.empty());
         doNothing().when(validator).validate(any(), any());
 
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.updateEmployee(1L, updateDto));
         assertEquals(404, exception.getStatusCode());
         verify(employeeRepository).findById(1L);
-        verify(employeeRepository, never()).save(any(Employee.class));
         verify(validator).validate(any(), any());
     }
 
@@ -451,58 +512,62 @@ class EmployeeServiceImplTest {
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.updateEmployee(1L, updateDto));
         assertEquals(400, exception.getStatusCode());
         verify(validator).validate(any(), any());
-        verify(employeeRepository, never()).findById(any());
-        verify(employeeRepository, never()).save(any());
+        verify(employeeRepository, never()).updateIfVersion(any(), any(), any());
     }
 
     @Test
     void updateEmployee_shouldThrowHttpStatusExceptionOnError() {
-        when(employeeRepository.findById(1L)).thenThrow(new RuntimeException("Database error"));
+        when(employeeRepository.updateIfVersion(any(), any(), any()))
+                .thenThrow(new RuntimeException("Database error"));
         doNothing().when(validator).validate(any(), any());
 
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.updateEmployee(1L, updateDto));
         assertEquals(500, exception.getStatusCode());
-        verify(employeeRepository).findById(1L);
-        verify(employeeRepository, never()).save(any());
+        verify(employeeRepository, never()).findById(any());
         verify(validator).validate(any(), any());
     }
 
     @Test
     void deleteEmployee_shouldDeleteEmployee() {
-        when(employeeRepository.existsById(1L)).thenReturn(true);
+        when(employeeRepository.findById(1L)).thenReturn(Optional.of(employee));
         doNothing().when(employeeRepository).deleteById(1L);
 
         employeeService.deleteEmployee(1L);
 
-        verify(employeeRepository).existsById(1L);
+        verify(employeeRepository).findById(1L);
         verify(employeeRepository).deleteById(1L);
+        ArgumentCaptor<EmployeeChange> change = ArgumentCaptor.forClass(EmployeeChange.class);
+        verify(eventPublisher).publishEvent(change.capture());
+        assertNull(change.getValue().after());
+        assertEquals(Set.of(1L), change.getValue().before().departmentIds());
+        assertEquals(new BigDecimal("5000.00"), change.getValue().before().salary());
     }
 
     @Test
     void deleteEmployee_shouldThrowHttpStatusExceptionForNullId() {
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.deleteEmployee(null));
         assertEquals(400, exception.getStatusCode());
-        verify(employeeRepository, never()).existsById(any());
+        verify(employeeRepository, never()).findById(any());
         verify(employeeRepository, never()).deleteById(any());
     }
 
     @Test
     void deleteEmployee_shouldThrowHttpStatusExceptionForNotFound() {
-        when(employeeRepository.existsById(1L)).thenReturn(false);
+        when(employeeRepository.findById(1L)).thenReturn(Optional.empty());
 
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.deleteEmployee(1L));
         assertEquals(404, exception.getStatusCode());
-        verify(employeeRepository).existsById(1L);
+        verify(employeeRepository).findById(1L);
         verify(employeeRepository, never()).deleteById(1L);
     }
 
     @Test
     void deleteEmployee_shouldThrowHttpStatusExceptionOnError() {
-        when(employeeRepository.existsById(1L)).thenThrow(new RuntimeException("Database error"));
+        when(employeeRepository.findById(1L)).thenThrow(new RuntimeException("Database error"));
 
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.deleteEmployee(1L));
         assertEquals(500, exception.getStatusCode());
-        verify(employeeRepository).existsById(1L);
+        verify(employeeRepository).findById(1L);
         verify(employeeRepository, never()).deleteById(any());
     }
 
@@ -530,6 +595,8 @@ class EmployeeServiceImplTest {
 
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.findEmployeeById(1L));
         assertEquals(404, exception.getStatusCode());
+        assertEquals("Employee with ID 1 not found", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length, "4xx exceptions should be stackless");
         verify(employeeRepository).findById(1L);
     }
 
@@ -539,6 +606,89 @@ class EmployeeServiceImplTest {
 
         HttpStatusException exception = assertThrows(HttpStatusException.class, () -> employeeService.findEmployeeById(1L));
         assertEquals(500, exception.getStatusCode());
+        assertEquals("Database error", exception.getCause().getMessage());
+        assertTrue(exception.getStackTrace().length > 0, "5xx exceptions should keep their stack trace");
         verify(employeeRepository).findById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void findEmployeesByIds_shouldKeepRequestOrderAndLoadOnlyCacheMisses() {
+        EmployeeDto cached = EmployeeDto.builder().id(2L).name("Cached").build();
+        when(cache.getEmployees(List.of(2L, 1L, 3L))).thenReturn(new HashMap<>(Map.of(2L, cached)));
+        when(cache.version()).thenReturn(7L);
+        when(employeeRepository.findAllByIds(new Long[] {1L, 3L})).thenReturn(List.of(employee));
+
+        List<BatchItemDto<EmployeeDto>> result = employeeService.findEmployeesByIds(List.of(2L, 1L, 3L, 2L));
+
+        assertEquals(List.of(2L, 1L, 3L, 2L), result.stream().map(BatchItemDto::getId).toList());
+        assertSame(cached, result.get(0).getItem());
+        assertEquals("John Doe", result.get(1).getItem().getName());
+        assertFalse(result.get(2).isFound());
+        assertNull(result.get(2).getItem());
+        assertSame(cached, result.get(3).getItem());
+        verify(cache).putEmployee(eq(1L), any(EmployeeDto.class), eq(7L));
+    }
+
+    @Test
+    void filterEmployeeFields_shouldSelectOnlyRequestedColumns() {
+        EmployeeFilter filter = EmployeeFilter.builder().limit(20).build();
+        Tuple row = mock(Tuple.class);
+        when(row.get("id")).thenReturn(1L);
+        when(row.get("name")).thenReturn("John Doe");
+        when(employeeRepository.findFieldsByFilter(any(), any())).thenReturn(List.of(row));
+
+        EmployeePageDto<Map<String, Object>> page = employeeService.filterEmployeeFields(filter, null, null, "name");
+
+        assertEquals(List.of(Map.of("id", 1L, "name", "John Doe")), page.getItems());
+        assertEquals(List.of("id", "name"), List.copyOf(page.getItems().get(0).keySet()));
+        verify(employeeRepository).findFieldsByFilter(any(), eq(Map.of("id", "id", "name", "name")));
+        verify(employeeRepository, never()).findDepartmentNames(any());
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> employeeService.filterEmployeeFields(filter, null, null, "name,password")).getStatusCode());
+    }
+
+    @Test
+    void filterEmployees_shouldRejectRangeNotMatchingSort() {
+        EmployeeFilter salaryRange = EmployeeFilter.builder().minSalary(new BigDecimal("1000")).limit(20).build();
+        EmployeeFilter bothRanges = EmployeeFilter.builder()
+                .minSalary(new BigDecimal("1000")).namePrefix("jo").limit(20).build();
+
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> employeeService.filterEmployees(salaryRange, "name", null)).getStatusCode());
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> employeeService.filterEmployees(bothRanges, "salary", null)).getStatusCode());
+        assertEquals(400, assertThrows(HttpStatusException.class,
+                () -> employeeService.filterEmployees(salaryRange, "salary", "bm90LWEtY3Vyc29y")).getStatusCode());
+        verify(employeeRepository, never()).findByFilter(any());
+    }
+
+    @Test
+    void filterEmployees_shouldContinueFromCursorOfLastRow() {
+        Employee second = Employee.builder().id(2L).name("Jane Roe").salary(new BigDecimal("7000.00"))
+                .employeeDepartments(new HashSet<>()).build();
+        Employee third = Employee.builder().id(3L).name("Jim Poe").salary(new BigDecimal("9000.00"))
+                .employeeDepartments(new HashSet<>()).build();
+        EmployeeFilter filter = EmployeeFilter.builder().minSalary(new BigDecimal("1000")).limit(2).build();
+        when(employeeRepository.findByFilter(any())).thenReturn(List.of(employee, second, third), List.of(third));
+
+        EmployeePageDto<EmployeeDto> first = employeeService.filterEmployees(filter, "salary", null);
+        EmployeePageDto<EmployeeDto> next = employeeService.filterEmployees(filter, "salary", first.getNextCursor());
+
+        assertEquals(List.of(1L, 2L), first.getItems().stream().map(EmployeeDto::getId).toList());
+        assertNull(next.getNextCursor());
+        ArgumentCaptor<EmployeeFilter> captor = ArgumentCaptor.forClass(EmployeeFilter.class);
+        verify(employeeRepository, times(2)).findByFilter(captor.capture());
+        EmployeeFilter continued = captor.getAllValues().get(1);
+        assertEquals(3, continued.getLimit(), "One extra row is read to detect the next page");
+        assertEquals(2L, continued.getAfterId());
+        assertEquals(new BigDecimal("7000.00"), continued.getAfterValue());
+    }
+
+    private static Map<String, Object> updateColumns() {
+        Map<String, Object> columns = new LinkedHashMap<>();
+        columns.put("name", "Jane Doe");
+        columns.put("salary", new BigDecimal("6000.00"));
+        columns.put("manager", false);
+        return columns;
+    }
+}
@@ -0,0 +1,123 @@
+package by.koronatech.office;
+
+import by.koronatech.office.api.dto.LogJobStatusDto;
+import by.koronatech.office.core.push.EventBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventBroadcasterTest {
+
+    // Sends run only when the test says so, like a sender thread stuck on a slow client
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    // With no send timeout, a write still running when the stall check fires is past its deadline
+    private final EventBroadcaster broadcaster = new EventBroadcaster(pendingSends::add, 3, 60_000, 0, 10);
+
+    @Test
+    void publish_shouldCoalesceQueuedUpdatesOfSameKey() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter, Set.of(EventBroadcaster.JOBS));
+
+        broadcaster.publish(EventBroadcaster.JOBS, "a", new LogJobStatusDto("a", "PROCESSING"));
+        broadcaster.publish(EventBroadcaster.JOBS, "b", new LogJobStatusDto("b", "PROCESSING"));
+        broadcaster.publish(EventBroadcaster.JOBS, "a", new LogJobStatusDto("a", "CREATED"));
+        broadcaster.publish(EventBroadcaster.VISITS, "visits", Map.of("/api/departments", 1L));
+        runSends();
+
+        assertEquals(List.of("a=CREATED", "b=PROCESSING"), emitter.sent);
+    }
+
+    @Test
+    void publish_shouldDropOldestAndReportOverflowWhenBufferIsFull() {
+        RecordingEmitter emitter = new RecordingEmitter();
+        broadcaster.subscribe(emitter, Set.of(EventBroadcaster.JOBS));
+
+        for (String id : List.of("a", "b", "c", "d", "e")) {
+            broadcaster.publish(EventBroadcaster.JOBS, id, new LogJobStatusDto(id, "CREATED"));
+        }
+        runSends();
+
+        assertEquals(List.of("overflow={dropped=2}", "c=CREATED", "d=CREATED", "e=CREATED"), emitter.sent);
+    }
+
+    @Test
+    void publish_shouldDropSubscriberWhoseSendFails() {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.failing = true;
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.subscribe(broken, Set.of(EventBroadcaster.JOBS));
+        broadcaster.subscribe(healthy, Set.of(EventBroadcaster.JOBS));
+
+        broadcaster.publish(EventBroadcaster.JOBS, "a", new LogJobStatusDto("a", "CREATED"));
+        runSends();
+        broadcaster.publish(EventBroadcaster.JOBS, "b", new LogJobStatusDto("b", "CREATED"));
+        runSends();
+
+        assertEquals(List.of(), broken.sent);
+        assertEquals(List.of("a=CREATED", "b=CREATED"), healthy.sent);
+    }
+
+    @Test
+    void dropStalled_shouldDropSubscriberStuckInAWrite() {
+        RecordingEmitter stuck = new RecordingEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        broadcaster.subscribe(stuck, Set.of(EventBroadcaster.JOBS));
+        broadcaster.subscribe(healthy, Set.of(EventBroadcaster.JOBS));
+
+        stuck.duringSend = broadcaster::dropStalled;
+        broadcaster.publish(EventBroadcaster.JOBS, "a", new LogJobStatusDto("a", "CREATED"));
+        runSends();
+        stuck.duringSend = null;
+        broadcaster.publish(EventBroadcaster.JOBS, "b", new LogJobStatusDto("b", "CREATED"));
+        runSends();
+
+        assertEquals(List.of("a=CREATED"), stuck.sent);
+        assertTrue(stuck.completed);
+        assertEquals(List.of("a=CREATED", "b=CREATED"), healthy.sent);
+        assertFalse(healthy.completed);
+    }
+
+    private void runSends() {
+        List<Runnable> sends = new ArrayList<>(pendingSends);
+        pendingSends.clear();
+        sends.forEach(Runnable::run);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> sent = new ArrayList<>();
+        private boolean failing;
+        private Runnable duringSend;
+        private boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            if (duringSend != null) {
+                duringSend.run();
+            }
+            for (DataWithMediaType part : builder.build()) {
+                Object data = part.getData();
+                if (data instanceof LogJobStatusDto status) {
+                    sent.add(status.getId() + "=" + status.getStatus());
+                } else if (data instanceof Map<?, ?> map) {
+                    sent.add("overflow=" + map);
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
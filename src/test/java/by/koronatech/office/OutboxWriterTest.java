@@ -0,0 +1,88 @@
+package by.koronatech.office;
+
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.model.OutboxEvent.EntityType;
+import by.koronatech.office.core.model.OutboxEvent.Operation;
+import by.koronatech.office.core.outbox.ChangeFeed;
+import by.koronatech.office.core.outbox.OutboxWriter;
+import by.koronatech.office.core.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxWriterTest {
+
+    @Mock
+    private OutboxEventRepository repository;
+
+    @Mock
+    private ChangeFeed changeFeed;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxWriter outboxWriter;
+
+    @BeforeEach
+    void setUp() {
+        outboxWriter = new OutboxWriter(repository, changeFeed, transactionManager);
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void append_shouldWriteTransactionEventsOnceBeforeCommitInOrder() {
+        EmployeeChange.State state = new EmployeeChange.State(new BigDecimal("1000.00"), false, Set.of(), Set.of());
+        outboxWriter.onEmployeeChange(new EmployeeChange(7L, null, state));
+        outboxWriter.append(EntityType.DEPARTMENT, 3L, Operation.DELETED);
+        outboxWriter.onEmployeeChange(new EmployeeChange(8L, state, state));
+
+        verifyNoInteractions(repository);
+        assertEquals(1, TransactionSynchronizationManager.getSynchronizations().size());
+        TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+
+        synchronization.beforeCommit(false);
+        InOrder inOrder = inOrder(repository);
+        inOrder.verify(repository).lock();
+        inOrder.verify(repository).insertAll(aryEq(new String[]{"EMPLOYEE", "DEPARTMENT", "EMPLOYEE"}),
+                aryEq(new Long[]{7L, 3L, 8L}), aryEq(new String[]{"CREATED", "DELETED", "UPDATED"}), any());
+        verifyNoInteractions(changeFeed);
+
+        synchronization.afterCommit();
+        synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        verify(changeFeed).wake();
+        assertFalse(TransactionSynchronizationManager.hasResource(outboxWriter));
+    }
+
+    @Test
+    void append_shouldNotWriteOrWakeWhenTransactionRollsBack() {
+        outboxWriter.append(EntityType.COMPANY, 1L, Operation.CREATED);
+
+        TransactionSynchronizationManager.getSynchronizations().get(0)
+                .afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verifyNoInteractions(repository, changeFeed);
+        assertFalse(TransactionSynchronizationManager.hasResource(outboxWriter));
+    }
+}
@@ -0,0 +1,110 @@
+package by.koronatech.office;
+
+import by.koronatech.office.core.datasource.ReplicaLagMonitor;
+import by.koronatech.office.core.datasource.ReplicaRoutingDataSource;
+import by.koronatech.office.core.datasource.RoutingContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private ReplicaLagMonitor lagMonitor;
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        routing = new ReplicaRoutingDataSource(List.of("replica-1", "replica-2"), lagMonitor);
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.PRIMARY, primary,
+                "replica-1", replica1,
+                "replica-2", replica2));
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RoutingContext.clear();
+    }
+
+    @Test
+    void writeTransaction_shouldUsePrimary() throws Exception {
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        verifyNoInteractions(replica1, replica2, lagMonitor);
+    }
+
+    @Test
+    void readOnlyTransaction_shouldRoundRobinOverHealthyReplicas() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isHealthy(anyString())).thenReturn(true);
+
+        routing.getConnection();
+        routing.getConnection();
+
+        verify(replica1).getConnection();
+        verify(replica2).getConnection();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransaction_shouldSkipLaggingReplica() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isHealthy("replica-1")).thenReturn(false);
+        when(lagMonitor.isHealthy("replica-2")).thenReturn(true);
+
+        routing.getConnection();
+        routing.getConnection();
+
+        verify(replica2, times(2)).getConnection();
+        verify(replica1, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransaction_shouldFallBackToPrimaryWhenAllReplicasLag() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagMonitor.isHealthy(anyString())).thenReturn(false);
+        when(primary.getConnection()).thenReturn(mock(Connection.class));
+
+        assertNotNull(routing.getConnection());
+
+        verify(primary).getConnection();
+    }
+
+    @Test
+    void readOnlyTransaction_shouldStayOnPrimaryAfterClientWrite() throws Exception {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        RoutingContext.pinToPrimary();
+
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        verifyNoInteractions(replica1, replica2, lagMonitor);
+    }
+}
@@ -0,0 +1,126 @@
+package by.koronatech.office;
+
+import by.koronatech.office.core.cache.DataVersion;
+import by.koronatech.office.core.cache.SingleFlight;
+import by.koronatech.office.core.datasource.RoutingContext;
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class SingleFlightTest {
+
+    private DataVersion dataVersion;
+    private SingleFlight<String, Integer> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        dataVersion = new DataVersion();
+        singleFlight = new SingleFlight<>("test", true, dataVersion,
+                new SimpleMeterRegistry(), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void execute_shouldShareOneComputationBetweenConcurrentCallers() throws Exception {
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CompletableFuture<Integer> leader = CompletableFuture.supplyAsync(() ->
+                    singleFlight.execute("all", () -> {
+                        started.countDown();
+                        await(release);
+                        return computations.incrementAndGet();
+                    }), executor);
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            List<CompletableFuture<Integer>> followers = IntStream.range(0, 7)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                            singleFlight.execute("all", computations::incrementAndGet), executor))
+                    .toList();
+            Thread.sleep(100);
+            release.countDown();
+
+            assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            for (CompletableFuture<Integer> follower : followers) {
+                assertEquals(1, follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_shouldNotShareAcrossWritesOrAfterCompletion() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> before = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("all", () -> {
+                    await(release);
+                    return 1;
+                }));
+        Thread.sleep(100);
+
+        dataVersion.bump();
+        assertEquals(2, singleFlight.execute("all", () -> 2), "A read after a write must not join an older one");
+
+        release.countDown();
+        assertEquals(1, before.get(5, TimeUnit.SECONDS));
+        assertEquals(3, singleFlight.execute("all", () -> 3), "Finished results must not be reused");
+    }
+
+    @Test
+    void execute_shouldNotSharePrimaryPinnedReadsWithReplicaReads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> unpinned = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("all", () -> {
+                    await(release);
+                    return 1;
+                }));
+        Thread.sleep(100);
+
+        RoutingContext.pinToPrimary();
+        try {
+            assertEquals(2, singleFlight.execute("all", () -> 2),
+                    "A pinned read must not join one that may run on a replica");
+        } finally {
+            RoutingContext.clear();
+        }
+
+        release.countDown();
+        assertEquals(1, unpinned.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_shouldPropagateLeaderExceptionAndRecover() {
+        HttpStatusException error = assertThrows(HttpStatusException.class, () ->
+                singleFlight.execute("all", () -> {
+                    throw new HttpStatusException(500, "Database error");
+                }));
+        assertEquals(500, error.getStatusCode());
+        assertEquals(4, singleFlight.execute("all", () -> 4));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
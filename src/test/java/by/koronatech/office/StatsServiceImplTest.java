@@ -0,0 +1,173 @@
+package by.koronatech.office;
+
+import by.koronatech.office.api.dto.SalaryStatsDto;
+import by.koronatech.office.core.event.EmployeeChange;
+import by.koronatech.office.core.event.OrganizationChange;
+import by.koronatech.office.core.service.impl.StatsServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedConstruction;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class StatsServiceImplTest {
+
+    private static final long DEPARTMENT_ID = 10L;
+
+    private MockedConstruction<JdbcTemplate> jdbcTemplates;
+    private StatsServiceImpl statsService;
+    private JdbcTemplate jdbcTemplate;
+
+    // Members of department 10 as (salary, manager) rows, returned by every load
+    private final List<Object[]> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        jdbcTemplates = mockConstruction(JdbcTemplate.class);
+        statsService = new StatsServiceImpl(mock(DataSource.class), mock(PlatformTransactionManager.class), 1000);
+        jdbcTemplate = jdbcTemplates.constructed().get(0);
+
+        when(jdbcTemplate.queryForObject(startsWith("SELECT count(*) FROM department"), eq(Long.class), eq(DEPARTMENT_ID)))
+                .thenReturn(1L);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] member : members) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getBigDecimal(1)).thenReturn((BigDecimal) member[0]);
+                when(rs.getBoolean(2)).thenReturn((Boolean) member[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(contains("ed.department_id = ?"), any(RowCallbackHandler.class), eq(DEPARTMENT_ID));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplates.close();
+    }
+
+    @Test
+    void getDepartmentStats_shouldReportExactTotalsAndPercentilesWithinBucketWidth() {
+        // Salaries 1000, 2000, ..., 100000; every tenth employee is a manager
+        for (int i = 1; i <= 100; i++) {
+            member(i * 1000, i % 10 == 0);
+        }
+
+        SalaryStatsDto stats = statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        assertEquals(100, stats.getHeadcount());
+        assertEquals(10, stats.getManagerCount());
+        assertEquals(0, new BigDecimal("5050000").compareTo(stats.getTotalSalary()));
+        assertEquals(new BigDecimal("50500.00"), stats.getAverageSalary());
+        assertEquals(0, new BigDecimal("1000").compareTo(stats.getMinSalary()));
+        assertEquals(0, new BigDecimal("100000").compareTo(stats.getMaxSalary()));
+        // Nearest rank: the 50th, 90th, 95th and 99th of 100 salaries
+        assertWithinHalfPercent(50000, stats.getMedianSalary());
+        assertWithinHalfPercent(90000, stats.getP90Salary());
+        assertWithinHalfPercent(95000, stats.getP95Salary());
+        assertWithinHalfPercent(99000, stats.getP99Salary());
+    }
+
+    @Test
+    void onEmployeeChange_shouldUpdateLoadedGroupWithoutReloading() {
+        member(1000, false);
+        member(2000, false);
+        member(3000, true);
+        statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        statsService.onEmployeeChange(new EmployeeChange(4L, null, state("2500", true)));
+        // Not the minimum or maximum, so the group stays exact
+        statsService.onEmployeeChange(new EmployeeChange(2L, state("2000", false), null));
+        // Same salary and role in the same department: nothing to update
+        statsService.onEmployeeChange(new EmployeeChange(1L, state("1000", false), state("1000.00", false)));
+        SalaryStatsDto stats = statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        assertEquals(3, stats.getHeadcount());
+        assertEquals(2, stats.getManagerCount());
+        assertEquals(0, new BigDecimal("6500").compareTo(stats.getTotalSalary()));
+        assertEquals(new BigDecimal("2166.67"), stats.getAverageSalary());
+        assertEquals(0, new BigDecimal("1000").compareTo(stats.getMinSalary()));
+        assertEquals(0, new BigDecimal("3000").compareTo(stats.getMaxSalary()));
+        verifyLoads(1);
+    }
+
+    @Test
+    void onEmployeeChange_shouldReloadAfterRemovingAnExtreme() {
+        member(1000, false);
+        member(2000, false);
+        member(3000, false);
+        statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        // The maximum leaves; the next maximum is unknown without the rows
+        statsService.onEmployeeChange(new EmployeeChange(3L, state("3000", false), null));
+        members.remove(2);
+        SalaryStatsDto stats = statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        assertEquals(2, stats.getHeadcount());
+        assertEquals(0, new BigDecimal("2000").compareTo(stats.getMaxSalary()));
+        verifyLoads(2);
+    }
+
+    @Test
+    void onEmployeeChange_shouldLoadGroupChangedBeforeItWasRead() {
+        member(1000, false);
+        member(2000, false);
+
+        // A change to a group never loaded cannot be applied to a partial count
+        statsService.onEmployeeChange(new EmployeeChange(2L, null, state("2000", false)));
+        SalaryStatsDto stats = statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        assertEquals(2, stats.getHeadcount());
+        assertEquals(0, new BigDecimal("3000").compareTo(stats.getTotalSalary()));
+        verifyLoads(1);
+    }
+
+    @Test
+    void onOrganizationChange_shouldReloadTheGroup() {
+        member(1000, false);
+        statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        statsService.onOrganizationChange(new OrganizationChange(Set.of(DEPARTMENT_ID), Set.of()));
+        member(5000, true);
+        SalaryStatsDto stats = statsService.getDepartmentStats(DEPARTMENT_ID);
+
+        assertEquals(2, stats.getHeadcount());
+        assertEquals(1, stats.getManagerCount());
+        verifyLoads(2);
+    }
+
+    private void member(int salary, boolean manager) {
+        members.add(new Object[]{BigDecimal.valueOf(salary), manager});
+    }
+
+    private static EmployeeChange.State state(String salary, boolean manager) {
+        return new EmployeeChange.State(new BigDecimal(salary), manager, Set.of(DEPARTMENT_ID), Set.of());
+    }
+
+    private void verifyLoads(int times) {
+        verify(jdbcTemplate, times(times))
+                .query(contains("ed.department_id = ?"), any(RowCallbackHandler.class), eq(DEPARTMENT_ID));
+    }
+
+    private static void assertWithinHalfPercent(double expected, BigDecimal actual) {
+        assertNotNull(actual);
+        assertEquals(expected, actual.doubleValue(), expected * 0.005, "Percentile off by more than 0.5%");
+    }
+}
@@ -0,0 +1,100 @@
+package by.koronatech.office;
+
+import by.koronatech.office.api.dto.EmployeeDto;
+import by.koronatech.office.core.config.JacksonConfig;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(WireFormatTest.class);
+    private static final TypeReference<List<EmployeeDto>> EMPLOYEE_LIST = new TypeReference<>() { };
+
+    private ObjectMapper jsonMapper;
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private List<EmployeeDto> employees;
+
+    @BeforeEach
+    void setUp() {
+        JacksonConfig config = new JacksonConfig();
+        jsonMapper = new Jackson2ObjectMapperBuilder().modules(config.blackbirdModule()).build();
+        smileMapper = config.smileHttpMessageConverter(
+                new Jackson2ObjectMapperBuilder().modules(config.blackbirdModule())).getObjectMapper();
+        cborMapper = config.cborHttpMessageConverter(
+                new Jackson2ObjectMapperBuilder().modules(config.blackbirdModule())).getObjectMapper();
+
+        employees = new ArrayList<>();
+        for (long i = 1; i <= 10_000; i++) {
+            employees.add(EmployeeDto.builder()
+                    .id(i)
+                    .name("Employee " + i)
+                    .salary(new BigDecimal("1234.50").add(BigDecimal.valueOf(i, 2)))
+                    .departmentNames(List.of("IT", "R&D"))
+                    .manager(i % 10 == 0)
+                    .build());
+        }
+    }
+
+    @Test
+    void smile_shouldRoundTripSalaryExactly() throws Exception {
+        assertRoundTrip(smileMapper);
+    }
+
+    @Test
+    void cbor_shouldRoundTripSalaryExactly() throws Exception {
+        assertRoundTrip(cborMapper);
+    }
+
+    @Test
+    void binaryFormats_shouldBeSmallerThanJson() throws Exception {
+        int json = measure("json", jsonMapper);
+        int smile = measure("smile", smileMapper);
+        int cbor = measure("cbor", cborMapper);
+
+        assertTrue(smile < json, "Smile payload should be smaller than JSON");
+        assertTrue(cbor < json, "CBOR payload should be smaller than JSON");
+    }
+
+    private void assertRoundTrip(ObjectMapper mapper) throws Exception {
+        EmployeeDto dto = EmployeeDto.builder()
+                .id(7L)
+                .name("Jane Doe")
+                .salary(new BigDecimal("98765432109876543210.10"))
+                .departmentNames(List.of("IT"))
+                .manager(true)
+                .build();
+
+        EmployeeDto result = mapper.readValue(mapper.writeValueAsBytes(dto), EmployeeDto.class);
+
+        assertEquals(dto.getId(), result.getId());
+        assertEquals(dto.getName(), result.getName());
+        assertEquals(dto.getSalary(), result.getSalary(), "Salary value and scale must survive encoding");
+        assertEquals(dto.getDepartmentNames(), result.getDepartmentNames());
+        assertTrue(result.isManager());
+    }
+
+    private int measure(String format, ObjectMapper mapper) throws Exception {
+        long start = System.nanoTime();
+        byte[] payload = mapper.writeValueAsBytes(employees);
+        long encoded = System.nanoTime();
+        List<EmployeeDto> decoded = mapper.readValue(payload, EMPLOYEE_LIST);
+        long end = System.nanoTime();
+
+        assertEquals(employees.size(), decoded.size());
+        logger.info("{}: {} bytes, encode {} us, decode {} us",
+                format, payload.length, (encoded - start) / 1_000, (end - encoded) / 1_000);
+        return payload.length;
+    }
+}
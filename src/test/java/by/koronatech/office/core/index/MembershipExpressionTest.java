@@ -0,0 +1,111 @@
+package by.koronatech.office.core.index;
+
+import by.koronatech.office.core.exceptions.HttpStatusException;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MembershipExpressionTest {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final Map<Long, RoaringBitmap> departments = Map.of(
+            1L, RoaringBitmap.bitmapOf(1, 2, 3),
+            2L, RoaringBitmap.bitmapOf(2, 3, 4),
+            3L, RoaringBitmap.bitmapOf(3));
+    private final Map<Long, RoaringBitmap> companies = Map.of(
+            1L, RoaringBitmap.bitmapOf(1, 2, 3, 4, 5));
+    private final RoaringBitmap all = RoaringBitmap.bitmapOf(1, 2, 3, 4, 5, 6);
+
+    private final MembershipExpression.Sets sets = new MembershipExpression.Sets() {
+        @Override
+        public RoaringBitmap all() {
+            return all;
+        }
+
+        @Override
+        public RoaringBitmap department(long id) {
+            return departments.getOrDefault(id, EMPTY);
+        }
+
+        @Override
+        public RoaringBitmap company(long id) {
+            return companies.getOrDefault(id, EMPTY);
+        }
+    };
+
+    @Test
+    void evaluate_shouldBindNotTighterThanAndTighterThanOr() {
+        assertMatches("department:1 or department:2 and department:3", 1, 2, 3);
+        assertMatches("(department:1 or department:2) and department:3", 3);
+        assertMatches("not department:1 and department:2", 4);
+        assertMatches("department:2 and not department:1 or department:3", 3, 4);
+        assertMatches("not not department:1", 1, 2, 3);
+        assertMatches("!department:1", 4, 5, 6);
+        assertMatches("company:1 & !(department:1 | department:2)", 5);
+    }
+
+    @Test
+    void evaluate_shouldAcceptWordOperatorsInAnyCase() {
+        assertMatches("Department:1 AND NOT department:3", 1, 2);
+        assertMatches("department:1 Or department:2", 1, 2, 3, 4);
+    }
+
+    @Test
+    void evaluate_shouldNotSplitWordOperatorsOutOfLongerWords() {
+        // "notes:1" is an unknown set, not "not es:1"
+        HttpStatusException unknown = assertRejected("notes:1");
+        assertTrue(unknown.getMessage().contains("unknown set 'notes'"), unknown.getMessage());
+        assertRejected("department:1 andnot department:2");
+        assertRejected("department:1 ordepartment:2");
+    }
+
+    @Test
+    void evaluate_shouldNotModifyTheLiveBitmaps() {
+        MembershipExpression.evaluate("department:1 or department:2", sets);
+        MembershipExpression.evaluate("department:1 and not department:3", sets);
+
+        assertEquals(RoaringBitmap.bitmapOf(1, 2, 3), departments.get(1L));
+        assertEquals(RoaringBitmap.bitmapOf(2, 3, 4), departments.get(2L));
+    }
+
+    @Test
+    void evaluate_shouldLimitTheNumberOfTerms() {
+        String maximal = "department:1" + " or department:2".repeat(MembershipExpression.MAX_TERMS - 1);
+        assertMatches(maximal, 1, 2, 3, 4);
+
+        HttpStatusException tooMany = assertRejected(maximal + " or department:3");
+        assertTrue(tooMany.getMessage().contains("at most " + MembershipExpression.MAX_TERMS + " terms"));
+    }
+
+    @Test
+    void evaluate_shouldRejectUnbalancedParentheses() {
+        assertTrue(assertRejected("(department:1 or department:2").getMessage().contains("missing ')'"));
+        assertTrue(assertRejected("department:1)").getMessage().contains("unexpected ')'"));
+        assertTrue(assertRejected("()").getMessage().contains("expected department:<id> or company:<id>"));
+    }
+
+    @Test
+    void evaluate_shouldRejectMalformedInput() {
+        assertRejected(null);
+        assertRejected("   ");
+        assertRejected("department:1 or ".repeat(100) + "department:1");
+        assertRejected("department:");
+        assertRejected("department:1 or");
+        assertRejected("team:1");
+    }
+
+    private void assertMatches(String expression, int... expected) {
+        assertEquals(RoaringBitmap.bitmapOf(expected), MembershipExpression.evaluate(expression, sets), expression);
+    }
+
+    private HttpStatusException assertRejected(String expression) {
+        HttpStatusException exception = assertThrows(HttpStatusException.class,
+                () -> MembershipExpression.evaluate(expression, sets), String.valueOf(expression));
+        assertEquals(400, exception.getStatusCode());
+        return exception;
+    }
+}